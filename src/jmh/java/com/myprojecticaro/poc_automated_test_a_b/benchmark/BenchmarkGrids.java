@@ -0,0 +1,66 @@
+package com.myprojecticaro.poc_automated_test_a_b.benchmark;
+
+import java.util.Random;
+
+/**
+ * Deterministic dungeon grids shared by the benchmarks.
+ */
+public final class BenchmarkGrids {
+
+    /**
+     * Aspect ratio of a generated grid.
+     */
+    public enum Shape {
+        /** rows == cols */
+        SQUARE(1),
+        /** 64 times more rows than columns */
+        TALL(64),
+        /** 64 times more columns than rows */
+        WIDE(1.0 / 64);
+
+        private final double rowsPerCol;
+
+        Shape(double rowsPerCol) {
+            this.rowsPerCol = rowsPerCol;
+        }
+    }
+
+    /**
+     * How cell values are drawn.
+     */
+    public enum Distribution {
+        /** uniform in [-25, 15], the mix used in the README examples */
+        MIXED,
+        /** mostly damage, so health requirements grow along every path */
+        HOSTILE,
+        /** mostly potions, so most cells clamp to 1 */
+        BENIGN,
+        /** 90% empty rooms */
+        SPARSE
+    }
+
+    private BenchmarkGrids() {}
+
+    /**
+     * Generates a grid of about {@code cells} cells with the given shape and distribution.
+     *
+     * @return the grid, always at least 1x1
+     */
+    static int[][] generate(int cells, Shape shape, Distribution distribution) {
+        int cols = (int) Math.max(1, Math.round(Math.sqrt(cells / shape.rowsPerCol)));
+        int rows = Math.max(1, cells / cols);
+        Random random = new Random(42);
+        int[][] dungeon = new int[rows][cols];
+        for (int[] row : dungeon) {
+            for (int c = 0; c < cols; c++) {
+                row[c] = switch (distribution) {
+                    case MIXED -> random.nextInt(41) - 25;
+                    case HOSTILE -> random.nextInt(100) < 90 ? -random.nextInt(20) : random.nextInt(10);
+                    case BENIGN -> random.nextInt(100) < 90 ? random.nextInt(20) : -random.nextInt(10);
+                    case SPARSE -> random.nextInt(100) < 90 ? 0 : random.nextInt(41) - 25;
+                };
+            }
+        }
+        return dungeon;
+    }
+}
@@ -0,0 +1,144 @@
+package com.myprojecticaro.poc_automated_test_a_b.benchmark;
+
+import com.myprojecticaro.poc_automated_test_a_b.domain.DungeonService;
+import com.myprojecticaro.poc_automated_test_a_b.domain.model.ExperimentRun;
+import com.myprojecticaro.poc_automated_test_a_b.domain.solver.BottomUpSolver;
+import com.myprojecticaro.poc_automated_test_a_b.domain.solver.RollingSolver;
+import com.myprojecticaro.poc_automated_test_a_b.domain.solver.TiledSolver;
+import com.myprojecticaro.poc_automated_test_a_b.domain.solver.TopDownSolver;
+import com.myprojecticaro.poc_automated_test_a_b.domain.solver.VectorSolver;
+import com.myprojecticaro.poc_automated_test_a_b.domain.solver.WavefrontSolver;
+import com.myprojecticaro.poc_automated_test_a_b.infrastructure.cache.ResultCache;
+import com.myprojecticaro.poc_automated_test_a_b.infrastructure.config.AbConfig;
+import com.myprojecticaro.poc_automated_test_a_b.infrastructure.metrics.RequestTimings;
+import com.myprojecticaro.poc_automated_test_a_b.infrastructure.repository.ExperimentRunRepository;
+import com.myprojecticaro.poc_automated_test_a_b.infrastructure.repository.ExperimentRunWriter;
+import com.myprojecticaro.poc_automated_test_a_b.infrastructure.service.ExperimentService;
+import com.myprojecticaro.poc_automated_test_a_b.infrastructure.service.LatencyHistograms;
+import com.myprojecticaro.poc_automated_test_a_b.infrastructure.service.RunAggregates;
+import com.myprojecticaro.poc_automated_test_a_b.infrastructure.service.ShadowRunner;
+import com.myprojecticaro.poc_automated_test_a_b.infrastructure.service.SolveLanes;
+import com.myprojecticaro.poc_automated_test_a_b.infrastructure.service.SolverRegistry;
+import com.myprojecticaro.poc_automated_test_a_b.infrastructure.service.SolverWarmup;
+import com.myprojecticaro.poc_automated_test_a_b.infrastructure.service.TrafficAllocator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * End-to-end cost of {@link ExperimentService#run(int[][], String, String, String, RequestTimings)}:
+ * variant selection, solve, aggregates, histograms and run recording, with
+ * the database replaced by stubs so only in-process overhead is measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@State(Scope.Benchmark)
+public class ExperimentServiceBenchmark {
+
+    @Param({"100", "10000", "1000000"})
+    public int cells;
+
+    @Param({"A", "B", "C", "D", "E", "G"})
+    public String variant;
+
+    @Param({"false", "true"})
+    public boolean cacheEnabled;
+
+    private ExperimentService service;
+    private int[][] dungeon;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        AbConfig cfg = new AbConfig();
+        cfg.allocationMode = "fixed";
+        cfg.allocationSalt = "benchmark";
+        cfg.allocationArms = "A:50,B:50";
+        cfg.allocationMinExploration = 0.05;
+        cfg.allocationMinSamples = 20;
+        cfg.admissionLargeCells = 1_000_000;
+        cfg.admissionLargeConcurrency = 2;
+        cfg.admissionLargeQueueCapacity = 16;
+        cfg.admissionLargeMemoryBudgetMb = 1024;
+        cfg.shadowEnabled = false;
+        cfg.shadowSampleRate = 0;
+        cfg.shadowVariants = "A,B";
+        cfg.shadowMaxCells = 1_000_000;
+        cfg.shadowThreads = 1;
+        cfg.shadowQueueCapacity = 1;
+        cfg.mappedDir = ".";
+        cfg.cacheEnabled = cacheEnabled;
+        cfg.cacheMaxEntries = 10_000;
+        cfg.cacheMaxWeight = 100_000_000;
+        cfg.persistenceQueueCapacity = 1;
+        cfg.persistenceBatchSize = 1;
+        cfg.persistenceFlushIntervalMs = 1;
+        cfg.persistenceOfferTimeoutMs = 0;
+        cfg.persistenceIdBlockSize = 1;
+        cfg.warmupEnabled = false;
+
+        // Every repository call fails: the request path must not query the database
+        ExperimentRunRepository repo = (ExperimentRunRepository) Proxy.newProxyInstance(
+                ExperimentRunRepository.class.getClassLoader(),
+                new Class<?>[]{ExperimentRunRepository.class},
+                (proxy, method, args) -> {
+                    throw new UnsupportedOperationException(method.getName());
+                });
+
+        DungeonService dungeonService = new DungeonService();
+        SolverRegistry solvers = new SolverRegistry(List.of(
+                new BottomUpSolver(dungeonService),
+                new TopDownSolver(dungeonService),
+                new RollingSolver(dungeonService),
+                new WavefrontSolver(dungeonService),
+                new TiledSolver(dungeonService),
+                new VectorSolver(dungeonService)));
+
+        service = new ExperimentService(
+                solvers,
+                dungeonService,
+                repo,
+                new StubWriter(cfg),
+                new RunAggregates(repo, cfg),
+                new LatencyHistograms(),
+                new ResultCache(cfg),
+                new TrafficAllocator(solvers, cfg),
+                new SolveLanes(cfg),
+                new ShadowRunner(solvers, cfg),
+                new SolverWarmup(solvers, cfg),
+                cfg);
+        dungeon = BenchmarkGrids.generate(cells, BenchmarkGrids.Shape.SQUARE, BenchmarkGrids.Distribution.MIXED);
+    }
+
+    @Benchmark
+    public void run(Blackhole bh) {
+        bh.consume(service.run(dungeon, variant, "127.0.0.1", "127.0.0.1", RequestTimings.NONE).join());
+    }
+
+    /**
+     * Writer that hands out ids from memory and drops every run.
+     */
+    private static final class StubWriter extends ExperimentRunWriter {
+        private final AtomicLong ids = new AtomicLong();
+
+        StubWriter(AbConfig cfg) {
+            super(new JdbcTemplate(), cfg);
+        }
+
+        @Override
+        public long nextId() {
+            return ids.incrementAndGet();
+        }
+
+        @Override
+        public void write(ExperimentRun run) {
+        }
+    }
+}
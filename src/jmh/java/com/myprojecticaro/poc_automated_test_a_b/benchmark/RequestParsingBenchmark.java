@@ -0,0 +1,66 @@
+package com.myprojecticaro.poc_automated_test_a_b.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.myprojecticaro.poc_automated_test_a_b.application.dto.DungeonRequest;
+import com.myprojecticaro.poc_automated_test_a_b.application.dto.DungeonRequestDeserializer;
+import com.myprojecticaro.poc_automated_test_a_b.domain.model.Grid;
+import com.myprojecticaro.poc_automated_test_a_b.domain.util.BinaryDungeon;
+import com.myprojecticaro.poc_automated_test_a_b.infrastructure.config.AbConfig;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding cost of a request body: Jackson into {@link DungeonRequest}, through
+ * the {@link DungeonRequestDeserializer} the application registers, versus the
+ * binary layout into a flat {@link Grid}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RequestParsingBenchmark {
+
+    @Param({"100", "10000", "1000000"})
+    public int cells;
+
+    private final ObjectMapper mapper = new ObjectMapper().registerModule(new SimpleModule()
+            .addDeserializer(DungeonRequest.class, new DungeonRequestDeserializer(unlimited())));
+    private byte[] json;
+    private byte[] binary;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        int[][] dungeon = BenchmarkGrids.generate(cells, BenchmarkGrids.Shape.SQUARE, BenchmarkGrids.Distribution.MIXED);
+        json = mapper.writeValueAsBytes(new DungeonRequest(dungeon));
+
+        Grid grid = Grid.of(dungeon);
+        ByteBuffer bytes = ByteBuffer.allocate(BinaryDungeon.HEADER_BYTES + grid.cells().length * Integer.BYTES)
+                .order(BinaryDungeon.ORDER);
+        bytes.putInt(grid.rows()).putInt(grid.cols());
+        bytes.asIntBuffer().put(grid.cells());
+        binary = bytes.array();
+    }
+
+    @Benchmark
+    public DungeonRequest json() throws IOException {
+        return mapper.readValue(json, DungeonRequest.class);
+    }
+
+    private static AbConfig unlimited() {
+        AbConfig cfg = new AbConfig();
+        cfg.admissionMaxCells = Long.MAX_VALUE;
+        return cfg;
+    }
+
+    @Benchmark
+    public Grid binary() throws IOException {
+        return BinaryDungeon.readGrid(new ByteArrayInputStream(binary), binary.length, Long.MAX_VALUE);
+    }
+}
@@ -0,0 +1,105 @@
+package com.myprojecticaro.poc_automated_test_a_b.benchmark;
+
+import com.myprojecticaro.poc_automated_test_a_b.domain.DungeonService;
+import com.myprojecticaro.poc_automated_test_a_b.domain.model.Grid;
+import com.myprojecticaro.poc_automated_test_a_b.domain.util.BinaryDungeon;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of every {@link DungeonService} solver over grid shapes, sizes
+ * and cell distributions. Scores are solves per second; divide by
+ * {@code cells} to compare sizes.
+ * <p>
+ * The forks open {@code jdk.incubator.vector}, so {@link #vectorized()} runs
+ * its SIMD path; compare it with {@link #bottomUp()} and {@link #rolling()},
+ * the scalar loop it replaces.
+ * </p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "--add-modules=jdk.incubator.vector"})
+@State(Scope.Benchmark)
+public class SolverBenchmark {
+
+    @Param({"10000", "1000000"})
+    public int cells;
+
+    @Param({"SQUARE", "TALL", "WIDE"})
+    public BenchmarkGrids.Shape shape;
+
+    @Param({"MIXED", "HOSTILE", "BENIGN", "SPARSE"})
+    public BenchmarkGrids.Distribution distribution;
+
+    private final DungeonService service = new DungeonService();
+    private int[][] dungeon;
+    private Grid grid;
+    private Path file;
+    private FileChannel channel;
+    private BinaryDungeon.Header header;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dungeon = BenchmarkGrids.generate(cells, shape, distribution);
+        grid = Grid.of(dungeon);
+
+        file = Files.createTempFile("dungeon-", ".bin");
+        ByteBuffer bytes = ByteBuffer.allocate(BinaryDungeon.HEADER_BYTES + grid.cells().length * Integer.BYTES)
+                .order(BinaryDungeon.ORDER);
+        bytes.putInt(grid.rows()).putInt(grid.cols());
+        bytes.asIntBuffer().put(grid.cells());
+        Files.write(file, bytes.array());
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        header = BinaryDungeon.readHeader(channel);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        channel.close();
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public int bottomUp() {
+        return service.minHealthBottomUp(dungeon);
+    }
+
+    @Benchmark
+    public int topDown() {
+        return service.minHealthTopDown(dungeon);
+    }
+
+    @Benchmark
+    public int rolling() {
+        return service.minHealthRolling(dungeon);
+    }
+
+    @Benchmark
+    public int vectorized() {
+        return service.minHealthVectorized(dungeon);
+    }
+
+    @Benchmark
+    public int wavefront() {
+        return service.minHealthWavefront(dungeon);
+    }
+
+    @Benchmark
+    public int tiled() {
+        return service.minHealthTiled(grid);
+    }
+
+    @Benchmark
+    public int mapped() throws IOException {
+        return service.minHealthMapped(channel, header);
+    }
+}
@@ -1,20 +1,65 @@
 package com.myprojecticaro.poc_automated_test_a_b.application.controller;
 
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.myprojecticaro.poc_automated_test_a_b.application.dto.AllocationArmResponse;
+import com.myprojecticaro.poc_automated_test_a_b.application.dto.AllocationBucketResponse;
+import com.myprojecticaro.poc_automated_test_a_b.application.dto.AllocationResponse;
+import com.myprojecticaro.poc_automated_test_a_b.application.dto.BatchItemResponse;
+import com.myprojecticaro.poc_automated_test_a_b.application.dto.CacheStatsResponse;
+import com.myprojecticaro.poc_automated_test_a_b.application.dto.DungeonBatchRequest;
+import com.myprojecticaro.poc_automated_test_a_b.application.dto.DungeonFileRequest;
 import com.myprojecticaro.poc_automated_test_a_b.application.dto.DungeonRequest;
+import com.myprojecticaro.poc_automated_test_a_b.application.dto.DungeonRequestDeserializer;
 import com.myprojecticaro.poc_automated_test_a_b.application.dto.DungeonResponse;
+import com.myprojecticaro.poc_automated_test_a_b.application.dto.LaneStatsResponse;
+import com.myprojecticaro.poc_automated_test_a_b.application.dto.LatencySummaryResponse;
+import com.myprojecticaro.poc_automated_test_a_b.application.dto.MaintenanceResponse;
+import com.myprojecticaro.poc_automated_test_a_b.application.dto.PersistenceStatsResponse;
 import com.myprojecticaro.poc_automated_test_a_b.application.dto.RunSummaryResponse;
-import com.myprojecticaro.poc_automated_test_a_b.domain.model.Variant;
+import com.myprojecticaro.poc_automated_test_a_b.application.dto.ShadowMismatchResponse;
+import com.myprojecticaro.poc_automated_test_a_b.application.dto.ShadowPairResponse;
+import com.myprojecticaro.poc_automated_test_a_b.application.dto.ShadowResponse;
+import com.myprojecticaro.poc_automated_test_a_b.application.dto.SolverResponse;
+import com.myprojecticaro.poc_automated_test_a_b.application.dto.VariantSummaryResponse;
+import com.myprojecticaro.poc_automated_test_a_b.domain.model.Grid;
+import com.myprojecticaro.poc_automated_test_a_b.domain.util.BinaryDungeon;
+import com.myprojecticaro.poc_automated_test_a_b.domain.util.Stopwatch;
+import com.myprojecticaro.poc_automated_test_a_b.infrastructure.config.AbConfig;
+import com.myprojecticaro.poc_automated_test_a_b.infrastructure.metrics.Phase;
+import com.myprojecticaro.poc_automated_test_a_b.infrastructure.metrics.PhaseTimingFilter;
+import com.myprojecticaro.poc_automated_test_a_b.infrastructure.metrics.RequestTimings;
+import com.myprojecticaro.poc_automated_test_a_b.infrastructure.service.ExperimentRunMaintenance;
 import com.myprojecticaro.poc_automated_test_a_b.infrastructure.service.ExperimentService;
+import com.myprojecticaro.poc_automated_test_a_b.infrastructure.service.RunAggregates;
+import com.myprojecticaro.poc_automated_test_a_b.infrastructure.service.SolveLanes;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * REST controller that exposes endpoints for running dungeon-based experiments
@@ -32,28 +77,45 @@ import org.springframework.web.bind.annotation.*;
 public class DungeonController {
 
     private final ExperimentService experimentService;
+    private final ExperimentRunMaintenance maintenance;
+    private final ObjectMapper objectMapper;
+    private final long maxCells;
 
     /**
      * Constructs a new {@code DungeonController} with the given experiment service.
      *
      * @param experimentService the service responsible for executing and tracking experiments
+     * @param maintenance       the job partitioning, rolling up and expiring stored runs
+     * @param objectMapper      the JSON mapper used for NDJSON batch bodies and results
+     * @param cfg               configuration object containing the largest binary dungeon accepted
      */
-    public DungeonController(ExperimentService experimentService) {
+    public DungeonController(ExperimentService experimentService, ExperimentRunMaintenance maintenance,
+                             ObjectMapper objectMapper, AbConfig cfg) {
         this.experimentService = experimentService;
+        this.maintenance = maintenance;
+        this.objectMapper = objectMapper;
+        this.maxCells = cfg.admissionMaxCells;
     }
 
     /**
      * Executes the minimum initial health calculation for a dungeon grid.
      * <p>
      * This endpoint is the core of the A/B testing functionality:
-     * a request may specify a {@link Variant} (A or B). If not provided,
-     * the service may choose a variant automatically.
+     * a request may force any registered solver by its variant name. If not provided,
+     * the service chooses one automatically, sticky per subject: the
+     * {@code X-Subject-Id} header, or the client IP when it is absent.
      * </p>
      *
      * @param request  the dungeon grid input wrapped in a {@link DungeonRequest}
-     * @param variant  the optional variant (A/B) to run the experiment with
-     * @param httpReq  the HTTP request, used to extract the client IP for tracking
-     * @return a {@link DungeonResponse} containing the result, execution time, and variant information
+     * @param variant  the optional variant to run the experiment with
+     * <p>
+     * The body is read by {@link DungeonRequestDeserializer},
+     * which refuses a grid with {@code 413} as soon as it passes {@code ab.admission.max-cells} cells.
+     * </p>
+     *
+     * @param httpReq  the HTTP request, used to extract the subject and client IP
+     * @return a {@link DungeonResponse} containing the result, execution time, and variant information,
+     *         or a future of it for grids solved in the large-grid lane
      */
     @Operation(
             summary = "Run dungeon minimum initial health experiment",
@@ -63,24 +125,206 @@ public class DungeonController {
             responses = {
                     @ApiResponse(responseCode = "200", description = "Experiment executed successfully",
                             content = @Content(schema = @Schema(implementation = DungeonResponse.class))),
-                    @ApiResponse(responseCode = "400", description = "Invalid request payload")
+                    @ApiResponse(responseCode = "400", description = "Invalid request payload"),
+                    @ApiResponse(responseCode = "413", description = "Grid has more than ab.admission.max-cells cells " +
+                            "or exceeds the large-grid memory budget"),
+                    @ApiResponse(responseCode = "429", description = "Large-grid lane is full; see Retry-After"),
+                    @ApiResponse(responseCode = "503", description = "Large-grid memory budget is exhausted; see Retry-After")
             }
     )
     @PostMapping(path = "/dungeon/min-initial-health", consumes = MediaType.APPLICATION_JSON_VALUE)
-    public DungeonResponse minInitial(
+    public Object minInitial(
             @Valid @RequestBody DungeonRequest request,
-            @RequestParam(value = "variant", required = false) Variant variant,
+            @RequestParam(value = "variant", required = false) String variant,
             HttpServletRequest httpReq
     ) {
-        var result = experimentService.run(request.dungeon(), variant, clientIp(httpReq));
-        return new DungeonResponse(
-                result.variant(),
-                result.rows(),
-                result.cols(),
-                result.result(),
-                result.micros(),
-                result.storedId()
-        );
+        RequestTimings timings = PhaseTimingFilter.timingsOf(httpReq);
+        requireSolver(variant);
+        timings.mark(Phase.PARSE);
+        return synchronousIfDone(experimentService.run(request.dungeon(), variant, subject(httpReq), clientIp(httpReq), timings)
+                .thenApply(result -> toResponse(result, null)));
+    }
+
+    /**
+     * Executes the minimum initial health calculation for a dungeon sent in
+     * the compact binary layout.
+     * <p>
+     * The body is a little-endian int32 {@code rows}/{@code cols} header
+     * followed by the cells in row-major order. It is decoded straight into a
+     * flat {@link Grid} without building per-row arrays or parsing text, and
+     * the decoding time is returned as {@code parseMicros}.
+     * </p>
+     *
+     * @param variant  the optional variant to run the experiment with
+     * @param httpReq  the HTTP request, whose body holds the dungeon and which is used to extract the subject and client IP
+     * @return a {@link DungeonResponse} containing the result, execution and parsing time, and variant information,
+     *         or a future of it for grids solved in the large-grid lane
+     */
+    @Operation(
+            summary = "Run dungeon minimum initial health experiment on a binary dungeon",
+            description = "Same as the JSON variant, but the body is an int32 little-endian rows/cols header " +
+                    "followed by rows*cols int32 little-endian cells in row-major order.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Experiment executed successfully",
+                            content = @Content(schema = @Schema(implementation = DungeonResponse.class))),
+                    @ApiResponse(responseCode = "400", description = "Malformed binary dungeon"),
+                    @ApiResponse(responseCode = "413", description = "Header announces more than ab.admission.max-cells cells, " +
+                            "a size other than Content-Length, or a grid exceeding the large-grid memory budget"),
+                    @ApiResponse(responseCode = "429", description = "Large-grid lane is full; see Retry-After"),
+                    @ApiResponse(responseCode = "503", description = "Large-grid memory budget is exhausted; see Retry-After")
+            }
+    )
+    @PostMapping(path = "/dungeon/min-initial-health", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public Object minInitialBinary(
+            @RequestParam(value = "variant", required = false) String variant,
+            HttpServletRequest httpReq
+    ) throws IOException {
+        requireSolver(variant);
+
+        Grid grid;
+        Stopwatch sw = new Stopwatch();
+        try {
+            grid = BinaryDungeon.readGrid(httpReq.getInputStream(), httpReq.getContentLengthLong(), maxCells);
+        } catch (BinaryDungeon.OversizedException e) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        long parseMicros = sw.micros();
+        RequestTimings timings = PhaseTimingFilter.timingsOf(httpReq);
+        timings.mark(Phase.PARSE);
+
+        return synchronousIfDone(experimentService.run(grid, variant, subject(httpReq), clientIp(httpReq), timings)
+                .thenApply(result -> toResponse(result, parseMicros)));
+    }
+
+    /**
+     * Executes the minimum initial health calculation for a batch of dungeons.
+     * <p>
+     * The dungeons are solved concurrently on virtual threads, each with its own
+     * variant assignment (or the forced variant), and every result is streamed back
+     * as one NDJSON line as soon as it is ready, so lines arrive in completion
+     * order and carry the dungeon's {@code index}. All runs are persisted in a
+     * single batched write once the batch is done.
+     * </p>
+     *
+     * @param request  the dungeon grids, each wrapped in a {@link DungeonRequest}
+     * @param variant  the optional variant to run every experiment with
+     * @param httpReq  the HTTP request, used to extract the subject and client IP
+     * @return a stream of {@link BatchItemResponse} lines
+     */
+    @Operation(
+            summary = "Run dungeon minimum initial health experiments in batch",
+            description = "Accepts a JSON array of dungeons and streams one NDJSON result line per dungeon as it completes. " +
+                    "Items that fail carry an error instead of a run.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Batch accepted; results are streamed",
+                            content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                                    schema = @Schema(implementation = BatchItemResponse.class))),
+                    @ApiResponse(responseCode = "400", description = "Invalid request payload or batch too large"),
+                    @ApiResponse(responseCode = "413", description = "A dungeon exceeds the configured cell limit")
+            }
+    )
+    @PostMapping(path = "/dungeon/min-initial-health/batch",
+            consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> minInitialBatch(
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(content = @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    array = @ArraySchema(schema = @Schema(implementation = DungeonRequest.class))))
+            @Valid @RequestBody DungeonBatchRequest request,
+            @RequestParam(value = "variant", required = false) String variant,
+            HttpServletRequest httpReq
+    ) {
+        return streamBatch(request.dungeons().stream().map(DungeonRequest::dungeon).toList(), variant, httpReq);
+    }
+
+    /**
+     * Same as {@link #minInitialBatch}, but the body is NDJSON: one
+     * {@link DungeonRequest} object per line.
+     *
+     * @param variant the optional variant to run every experiment with
+     * @param httpReq the HTTP request, whose body holds the dungeons and which is used to extract the subject and client IP
+     * @return a stream of {@link BatchItemResponse} lines
+     */
+    @Operation(
+            summary = "Run dungeon minimum initial health experiments in batch from NDJSON",
+            description = "Accepts one dungeon object per line and streams one NDJSON result line per dungeon as it completes.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Batch accepted; results are streamed",
+                            content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                                    schema = @Schema(implementation = BatchItemResponse.class))),
+                    @ApiResponse(responseCode = "400", description = "Invalid line or batch too large")
+            }
+    )
+    @PostMapping(path = "/dungeon/min-initial-health/batch",
+            consumes = MediaType.APPLICATION_NDJSON_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> minInitialBatchNdjson(
+            @RequestParam(value = "variant", required = false) String variant,
+            HttpServletRequest httpReq
+    ) throws IOException {
+        List<int[][]> dungeons = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(
+                new InputStreamReader(httpReq.getInputStream(), StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) continue;
+            int[][] dungeon;
+            try {
+                dungeon = objectMapper.readValue(line, DungeonRequest.class).dungeon();
+            } catch (IOException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Invalid dungeon on line " + (dungeons.size() + 1), e);
+            }
+            if (dungeon == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Missing dungeon on line " + (dungeons.size() + 1));
+            }
+            dungeons.add(dungeon);
+            if (dungeons.size() > experimentService.maxBatchItems()) break;
+        }
+        return streamBatch(dungeons, variant, httpReq);
+    }
+
+    /**
+     * Executes the minimum initial health calculation for a dungeon stored as
+     * a binary file on the server.
+     * <p>
+     * The file holds a little-endian int32 {@code rows}/{@code cols} header
+     * followed by the cells in row-major order. It is memory-mapped and solved
+     * out of core and recorded as variant F, so it may be larger than the JVM heap.
+     * </p>
+     *
+     * @param request the file location wrapped in a {@link DungeonFileRequest}
+     * @param httpReq the HTTP request, used to extract the client IP for tracking
+     * @return a {@link DungeonResponse} containing the result, execution time, and variant information
+     */
+    @Operation(
+            summary = "Run dungeon minimum initial health experiment on a dungeon file",
+            description = "Solves a binary dungeon file from the configured dungeon directory " +
+                    "out of core with variant F, keeping only one DP row on the heap.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Experiment executed successfully",
+                            content = @Content(schema = @Schema(implementation = DungeonResponse.class))),
+                    @ApiResponse(responseCode = "400", description = "Invalid path or malformed dungeon file"),
+                    @ApiResponse(responseCode = "404", description = "Dungeon file not found")
+            }
+    )
+    @PostMapping(path = "/dungeon/min-initial-health/file", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public DungeonResponse minInitialFromFile(
+            @Valid @RequestBody DungeonFileRequest request,
+            HttpServletRequest httpReq
+    ) {
+        try {
+            return toResponse(experimentService.runFile(request.path(), clientIp(httpReq)), null);
+        } catch (NoSuchFileException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Dungeon file not found: " + request.path());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Could not read dungeon file", e);
+        }
     }
 
     /**
@@ -92,29 +336,426 @@ public class DungeonController {
      *   <li>Number of runs for variant A</li>
      *   <li>Number of runs for variant B</li>
      *   <li>Average execution time in microseconds</li>
+     *   <li>Count, average, min and max execution time of every variant</li>
      * </ul>
+     * Statistics are served from in-memory aggregates in O(1). With
+     * {@code reconcile=true} they are recomputed from the database instead,
+     * from the hourly rollups plus the runs not rolled up yet; this is meant
+     * for occasional checks only.
      * </p>
      *
+     * @param reconcile whether to compute the summary from the database
      * @return a {@link RunSummaryResponse} containing aggregated experiment statistics
      */
     @Operation(
             summary = "Get summary of all dungeon experiments",
-            description = "Returns aggregated statistics of executed experiments, including counts for each variant and average execution time.",
+            description = "Returns aggregated statistics of executed experiments, including counts for each variant and average execution time. " +
+                    "Set reconcile=true to recompute them from the database.",
             responses = {
                     @ApiResponse(responseCode = "200", description = "Summary retrieved successfully",
                             content = @Content(schema = @Schema(implementation = RunSummaryResponse.class)))
             }
     )
     @GetMapping("/experiments/summary")
-    public RunSummaryResponse summary() {
+    public RunSummaryResponse summary(
+            @RequestParam(value = "reconcile", defaultValue = "false") boolean reconcile
+    ) {
+        if (!reconcile) {
+            return new RunSummaryResponse(
+                    experimentService.count(),
+                    experimentService.countA(),
+                    experimentService.countB(),
+                    experimentService.avgMicros(),
+                    toVariantSummaries(experimentService.variantSummaries())
+            );
+        }
+
+        var stored = experimentService.storedVariantSummaries();
         return new RunSummaryResponse(
-                experimentService.count(),
-                experimentService.countA(),
-                experimentService.countB(),
-                experimentService.avgMicros()
+                stored.stream().mapToLong(RunAggregates.Snapshot::runs).sum(),
+                runsOf(stored, "A"),
+                runsOf(stored, "B"),
+                experimentService.storedAvgMicros(stored),
+                toVariantSummaries(stored)
+        );
+    }
+
+    /**
+     * Retrieves latency percentiles of every variant, overall and per grid size.
+     * <p>
+     * Grids are bucketed by cell count in decades ({@code <=100}, {@code <=1K}, ...,
+     * {@code >10M}); the {@code all} bucket merges them. Percentiles come from
+     * log-bucketed histograms and are accurate to within about 6%; {@code max}
+     * is exact. Cached runs are excluded, and the histograms start empty on
+     * every application start.
+     * </p>
+     *
+     * @return one {@link LatencySummaryResponse} per variant and non-empty size bucket
+     */
+    @Operation(
+            summary = "Get latency percentiles per variant and grid size",
+            description = "Returns p50/p90/p99/p99.9 and max solve time of every variant, overall and per rows*cols size bucket.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Percentiles retrieved successfully")
+            }
+    )
+    @GetMapping("/experiments/latency")
+    public List<LatencySummaryResponse> latency() {
+        return experimentService.latencyHistograms().stream()
+                .map(e -> new LatencySummaryResponse(
+                        e.variant(),
+                        e.sizeBucket(),
+                        e.histogram().count(),
+                        e.histogram().quantile(0.50),
+                        e.histogram().quantile(0.90),
+                        e.histogram().quantile(0.99),
+                        e.histogram().quantile(0.999),
+                        e.histogram().max()))
+                .toList();
+    }
+
+    /**
+     * Retrieves the state of the traffic allocator.
+     * <p>
+     * In {@code epsilon-greedy} mode every grid-size bucket reports its exploration
+     * probability, its leading arm, and per arm the number of observed solves, their
+     * mean time and the share of unforced traffic the arm currently receives. In
+     * {@code fixed} mode the bucket list is empty. The state starts empty on every
+     * application start.
+     * </p>
+     *
+     * @return an {@link AllocationResponse} with the allocation mode and bandit state
+     */
+    @Operation(
+            summary = "Get traffic allocation state",
+            description = "Returns the allocation mode, its arms and exploration floor, and per rows*cols size bucket the bandit state of every arm.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "State retrieved successfully",
+                            content = @Content(schema = @Schema(implementation = AllocationResponse.class)))
+            }
+    )
+    @GetMapping("/experiments/allocation")
+    public AllocationResponse allocation() {
+        var allocator = experimentService.allocator();
+        return new AllocationResponse(
+                allocator.mode().name().toLowerCase(Locale.ROOT).replace('_', '-'),
+                allocator.arms(),
+                allocator.minExploration(),
+                allocator.state().stream()
+                        .map(b -> new AllocationBucketResponse(
+                                b.sizeBucket(),
+                                b.epsilon(),
+                                b.leader(),
+                                b.arms().stream()
+                                        .map(a -> new AllocationArmResponse(a.variant(), a.samples(), a.meanMicros(), a.share()))
+                                        .toList()))
+                        .toList()
         );
     }
 
+    /**
+     * Lists the registered solvers, the variants a request may force and
+     * {@code ab.allocation.arms} may split traffic over.
+     *
+     * @return one {@link SolverResponse} per solver, sorted by variant name
+     */
+    @Operation(
+            summary = "List registered solvers",
+            description = "Returns the variant name, native grid layout and implementing class of every registered solver.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Solvers retrieved successfully")
+            }
+    )
+    @GetMapping("/experiments/solvers")
+    public List<SolverResponse> solvers() {
+        return experimentService.solvers().stream()
+                .map(s -> new SolverResponse(s.name(), s.layout().name(), s.getClass().getName()))
+                .toList();
+    }
+
+    /**
+     * Retrieves the admission statistics of the small- and large-grid lanes.
+     * <p>
+     * For each lane: its limits, the tasks running and queued now, admitted,
+     * rejected and completed counters, and percentiles of the time admitted
+     * tasks waited for a thread. Small grids run inline and never wait.
+     * </p>
+     *
+     * @return one {@link LaneStatsResponse} per lane
+     */
+    @Operation(
+            summary = "Get admission lane statistics",
+            description = "Returns queue depth, concurrency, memory reservation, admission counters and queue wait percentiles of the small- and large-grid lanes.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Statistics retrieved successfully")
+            }
+    )
+    @GetMapping("/experiments/lanes")
+    public List<LaneStatsResponse> lanes() {
+        return experimentService.laneStats().stream()
+                .map(l -> new LaneStatsResponse(
+                        l.lane().name(),
+                        l.concurrency(),
+                        l.active(),
+                        l.queued(),
+                        l.queueCapacity(),
+                        l.memoryBudgetBytes(),
+                        l.memoryReservedBytes(),
+                        l.admitted(),
+                        l.rejected(),
+                        l.completed(),
+                        l.queueWait().quantile(0.50),
+                        l.queueWait().quantile(0.99),
+                        l.queueWait().max()))
+                .toList();
+    }
+
+    /**
+     * Retrieves the results of shadow mode.
+     * <p>
+     * A sample of served requests is re-solved off the request path with every
+     * variant in {@code ab.shadow.variants}. For each pair of the served variant
+     * and another variant: how many grids both solved, how many answers
+     * differed, and their paired latencies, timed back to back on the same grid.
+     * The most recent mismatches are listed in full.
+     * </p>
+     *
+     * @return a {@link ShadowResponse} with the counters, paired comparisons and recent mismatches
+     */
+    @Operation(
+            summary = "Get shadow comparison results",
+            description = "Returns paired latencies and result mismatches of served variants against the other variants on the same grids.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Results retrieved successfully",
+                            content = @Content(schema = @Schema(implementation = ShadowResponse.class)))
+            }
+    )
+    @GetMapping("/experiments/shadow")
+    public ShadowResponse shadow() {
+        var stats = experimentService.shadowStats();
+        return new ShadowResponse(
+                stats.enabled(),
+                stats.sampleRate(),
+                stats.variants(),
+                stats.sampled(),
+                stats.dropped(),
+                stats.completed(),
+                stats.mismatches(),
+                stats.pairs().stream()
+                        .map(p -> new ShadowPairResponse(p.served(), p.candidate(),
+                                p.comparisons(), p.mismatches(), p.timedComparisons(),
+                                p.meanServedMicros(), p.meanCandidateMicros(), p.candidateFasterShare()))
+                        .toList(),
+                stats.recent().stream()
+                        .map(m -> new ShadowMismatchResponse(m.at(), m.rows(), m.cols(), m.served(),
+                                m.servedResult(), m.candidate(), m.candidateResult(), m.error()))
+                        .toList()
+        );
+    }
+
+    /**
+     * Runs one pass of the stored-run maintenance right away.
+     * <p>
+     * The same pass runs every {@code ab.maintenance.interval-ms}: it creates the
+     * upcoming daily partitions of {@code experiment_run}, rolls finished days up
+     * into hourly summaries and drops raw partitions past the retention.
+     * </p>
+     *
+     * @return a {@link MaintenanceResponse} describing what the pass changed
+     */
+    @Operation(
+            summary = "Run stored-run maintenance now",
+            description = "Creates upcoming daily partitions, rolls finished days up into hourly summaries and drops expired raw partitions.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Maintenance pass completed",
+                            content = @Content(schema = @Schema(implementation = MaintenanceResponse.class)))
+            }
+    )
+    @PostMapping("/experiments/maintenance")
+    public MaintenanceResponse maintenance() {
+        var report = maintenance.run();
+        return new MaintenanceResponse(report.partitionsCreated(), report.rolledUpDays(), report.rolledUpRuns(), report.partitionsDropped());
+    }
+
+    /**
+     * Retrieves the statistics of the content-addressed result cache.
+     *
+     * @return a {@link CacheStatsResponse} with the cache size, hit/miss counters and hit rate
+     */
+    @Operation(
+            summary = "Get result cache statistics",
+            description = "Returns whether the result cache is enabled, its size and weight, and its hit, miss and eviction counters.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Statistics retrieved successfully",
+                            content = @Content(schema = @Schema(implementation = CacheStatsResponse.class)))
+            }
+    )
+    @GetMapping("/experiments/cache")
+    public CacheStatsResponse cache() {
+        var stats = experimentService.cacheStats();
+        long lookups = stats.hits() + stats.misses();
+        return new CacheStatsResponse(
+                stats.enabled(),
+                stats.entries(),
+                stats.weight(),
+                stats.hits(),
+                stats.misses(),
+                stats.evictions(),
+                lookups == 0 ? 0 : (double) stats.hits() / lookups
+        );
+    }
+
+    /**
+     * Retrieves the statistics of the write-behind persistence of runs.
+     * <p>
+     * {@code failed} counts runs that could not be inserted, after retries and
+     * after splitting their batch around rows the database rejected. They are
+     * missing from the database and from {@code reconcile=true} summaries.
+     * </p>
+     *
+     * @return a {@link PersistenceStatsResponse} with the queue depth and insert counters
+     */
+    @Operation(
+            summary = "Get run persistence statistics",
+            description = "Returns the runs waiting to be inserted and the written, synchronously written, retried, split and failed counters.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Statistics retrieved successfully",
+                            content = @Content(schema = @Schema(implementation = PersistenceStatsResponse.class)))
+            }
+    )
+    @GetMapping("/experiments/persistence")
+    public PersistenceStatsResponse persistence() {
+        var stats = experimentService.persistenceStats();
+        return new PersistenceStatsResponse(stats.pending(), stats.written(), stats.writtenSynchronously(),
+                stats.retried(), stats.split(), stats.failed());
+    }
+
+    /**
+     * Maps a lane rejection to 429 (queue full) or 503 (memory budget exhausted)
+     * with a {@code Retry-After} header, or to 413 when the grid can never fit.
+     *
+     * @param e the rejection
+     * @return a problem detail response
+     */
+    @ExceptionHandler(SolveLanes.RejectedException.class)
+    public ResponseEntity<ProblemDetail> rejected(SolveLanes.RejectedException e) {
+        HttpStatus status = switch (e.reason()) {
+            case QUEUE_FULL -> HttpStatus.TOO_MANY_REQUESTS;
+            case MEMORY_BUDGET -> HttpStatus.SERVICE_UNAVAILABLE;
+            case TOO_LARGE -> HttpStatus.PAYLOAD_TOO_LARGE;
+        };
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(status);
+        if (e.retryAfterSeconds() > 0) {
+            response.header(HttpHeaders.RETRY_AFTER, Long.toString(e.retryAfterSeconds()));
+        }
+        return response.body(ProblemDetail.forStatusAndDetail(status, e.getMessage()));
+    }
+
+    private static List<VariantSummaryResponse> toVariantSummaries(List<RunAggregates.Snapshot> snapshots) {
+        return snapshots.stream()
+                .map(s -> new VariantSummaryResponse(s.variant(), s.runs(), s.timedRuns(), s.avgMicros(), s.minMicros(), s.maxMicros()))
+                .toList();
+    }
+
+    private static long runsOf(List<RunAggregates.Snapshot> snapshots, String variant) {
+        return snapshots.stream().filter(s -> s.variant().equals(variant)).mapToLong(RunAggregates.Snapshot::runs).sum();
+    }
+
+    /**
+     * Rejects a forced variant that names no registered solver, including the file-only variant F.
+     *
+     * @param variant the forced variant, or null
+     */
+    private void requireSolver(String variant) {
+        if (variant == null) return;
+        try {
+            experimentService.solver(variant);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /**
+     * Validates a batch and returns a body that solves it while streaming results.
+     */
+    private ResponseEntity<StreamingResponseBody> streamBatch(List<int[][]> dungeons, String variant, HttpServletRequest httpReq) {
+        requireSolver(variant);
+        if (dungeons.size() > experimentService.maxBatchItems()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "A batch holds at most " + experimentService.maxBatchItems() + " dungeons");
+        }
+
+        String subject = subject(httpReq);
+        String clientIp = clientIp(httpReq);
+        StreamingResponseBody body = out -> {
+            Object lock = new Object();
+            try {
+                experimentService.runBatch(dungeons, variant, subject, clientIp, item -> {
+                    try {
+                        byte[] json = objectMapper.writeValueAsBytes(new BatchItemResponse(
+                                item.index(),
+                                item.result() != null ? toResponse(item.result(), null) : null,
+                                item.error()));
+                        synchronized (lock) {
+                            out.write(json);
+                            out.write('\n');
+                            out.flush();
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    /**
+     * Unwraps a response that is already complete, as it is for grids solved inline
+     * in the small lane, so that Spring writes it on the request thread instead of
+     * starting async processing and dispatching the request a second time.
+     *
+     * @param response the future response
+     * @return the response itself when it is complete, otherwise the future
+     */
+    private static Object synchronousIfDone(CompletableFuture<DungeonResponse> response) {
+        return response.isDone() && !response.isCompletedExceptionally() ? response.join() : response;
+    }
+
+    /**
+     * Maps an experiment result to its API representation.
+     *
+     * @param result      the experiment result
+     * @param parseMicros time spent decoding the request body, or {@code null} when it was not measured
+     * @return the corresponding {@link DungeonResponse}
+     */
+    private static DungeonResponse toResponse(ExperimentService.Result result, Long parseMicros) {
+        return new DungeonResponse(
+                result.variant(),
+                result.rows(),
+                result.cols(),
+                result.result(),
+                result.micros(),
+                result.storedId(),
+                parseMicros,
+                result.cached()
+        );
+    }
+
+    /**
+     * Resolves the subject used for sticky variant assignment: the
+     * {@code X-Subject-Id} header if present, otherwise the client IP.
+     *
+     * @param r the HTTP request
+     * @return the subject identifier
+     */
+    private static String subject(HttpServletRequest r) {
+        String id = r.getHeader("X-Subject-Id");
+        return id != null && !id.isBlank() ? id.trim() : clientIp(r);
+    }
+
     /**
      * Extracts the client IP address from the HTTP request.
      * <p>
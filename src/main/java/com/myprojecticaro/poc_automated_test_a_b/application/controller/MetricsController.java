@@ -0,0 +1,74 @@
+package com.myprojecticaro.poc_automated_test_a_b.application.controller;
+
+import com.myprojecticaro.poc_automated_test_a_b.infrastructure.metrics.PhaseMetrics;
+import com.myprojecticaro.poc_automated_test_a_b.infrastructure.repository.ExperimentRunWriter;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Prometheus scrape endpoint for the per-phase request metrics and the
+ * counters of the run persistence.
+ * <p>
+ * Served at {@code /metrics}, outside {@code /api/v1}, where Prometheus looks by default.
+ * </p>
+ */
+@RestController
+@Tag(name = "Metrics", description = "Prometheus scrape endpoint")
+public class MetricsController {
+
+    /**
+     * Content type of the Prometheus text exposition format.
+     */
+    static final String PROMETHEUS_TEXT = "text/plain;version=0.0.4;charset=utf-8";
+
+    private final PhaseMetrics metrics;
+    private final ExperimentRunWriter writer;
+
+    /**
+     * Constructs a new {@code MetricsController}.
+     *
+     * @param metrics the per-phase metrics of min-initial-health requests
+     * @param writer  the write-behind writer whose queue and insert counters are exported
+     */
+    public MetricsController(PhaseMetrics metrics, ExperimentRunWriter writer) {
+        this.metrics = metrics;
+        this.writer = writer;
+    }
+
+    /**
+     * Returns per-variant summaries of the phase timings, allocated bytes and
+     * grid dimensions of min-initial-health requests, followed by the queue
+     * depth and insert counters of the run persistence.
+     *
+     * @return the metrics in the Prometheus text format
+     */
+    @Operation(
+            summary = "Scrape request metrics",
+            description = "Per-variant summaries of phase timings, allocated bytes and grid dimensions " +
+                    "of min-initial-health requests, and the run persistence counters, in the Prometheus text exposition format.",
+            responses = @ApiResponse(responseCode = "200", description = "Metrics returned successfully")
+    )
+    @GetMapping(path = "/metrics", produces = PROMETHEUS_TEXT)
+    public String scrape() {
+        StringBuilder out = new StringBuilder(metrics.scrape());
+        ExperimentRunWriter.Stats stats = writer.stats();
+        metric(out, "dungeon_runs_pending", "gauge", "Runs queued for insertion.", stats.pending());
+        metric(out, "dungeon_runs_written_total", "counter", "Runs inserted.", stats.written());
+        metric(out, "dungeon_runs_written_synchronously_total", "counter",
+                "Runs inserted by their request because the queue was full.", stats.writtenSynchronously());
+        metric(out, "dungeon_runs_insert_retries_total", "counter", "Inserts attempted again after a failure.", stats.retried());
+        metric(out, "dungeon_runs_batch_splits_total", "counter",
+                "Failed batches split to isolate rows the database rejected.", stats.split());
+        metric(out, "dungeon_runs_failed_total", "counter", "Runs that could not be inserted and are lost.", stats.failed());
+        return out.toString();
+    }
+
+    private static void metric(StringBuilder out, String name, String type, String help, long value) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        out.append(name).append(' ').append(value).append('\n');
+    }
+}
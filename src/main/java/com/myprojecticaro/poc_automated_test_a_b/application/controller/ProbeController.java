@@ -0,0 +1,80 @@
+package com.myprojecticaro.poc_automated_test_a_b.application.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.LivenessState;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Kubernetes readiness and liveness probes.
+ * <p>
+ * Both report the availability states Spring Boot publishes. Readiness only
+ * turns to {@code ACCEPTING_TRAFFIC} once every application runner has
+ * returned, so a pod with {@code ab.warmup.enabled} gets no traffic until its
+ * solvers are warmed up.
+ * </p>
+ */
+@RestController
+@Tag(name = "Probes", description = "Readiness and liveness probes")
+public class ProbeController {
+
+    private final ApplicationAvailability availability;
+
+    /**
+     * Constructs a new {@code ProbeController}.
+     *
+     * @param availability the application's availability states
+     */
+    public ProbeController(ApplicationAvailability availability) {
+        this.availability = availability;
+    }
+
+    /**
+     * Reports whether the application accepts traffic.
+     *
+     * @return 200 with {@code ACCEPTING_TRAFFIC}, or 503 with {@code REFUSING_TRAFFIC}
+     */
+    @Operation(
+            summary = "Readiness probe",
+            description = "200 once startup, including the optional solver warm-up, is complete; 503 before.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Ready"),
+                    @ApiResponse(responseCode = "503", description = "Not ready yet")
+            }
+    )
+    @GetMapping(path = "/readyz", produces = MediaType.TEXT_PLAIN_VALUE)
+    public ResponseEntity<String> ready() {
+        ReadinessState state = availability.getReadinessState();
+        return probe(state == ReadinessState.ACCEPTING_TRAFFIC, state.name());
+    }
+
+    /**
+     * Reports whether the application is live.
+     *
+     * @return 200 with {@code CORRECT}, or 503 with {@code BROKEN}
+     */
+    @Operation(
+            summary = "Liveness probe",
+            description = "200 while the application's internal state is correct; 503 once it is broken.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Live"),
+                    @ApiResponse(responseCode = "503", description = "Broken")
+            }
+    )
+    @GetMapping(path = "/livez", produces = MediaType.TEXT_PLAIN_VALUE)
+    public ResponseEntity<String> live() {
+        LivenessState state = availability.getLivenessState();
+        return probe(state == LivenessState.CORRECT, state.name());
+    }
+
+    private static ResponseEntity<String> probe(boolean up, String state) {
+        return ResponseEntity.status(up ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE).body(state);
+    }
+}
@@ -0,0 +1,198 @@
+package com.myprojecticaro.poc_automated_test_a_b.application.controller;
+
+import com.myprojecticaro.poc_automated_test_a_b.application.dto.CellEdit;
+import com.myprojecticaro.poc_automated_test_a_b.application.dto.DungeonRequest;
+import com.myprojecticaro.poc_automated_test_a_b.application.dto.SessionEditRequest;
+import com.myprojecticaro.poc_automated_test_a_b.application.dto.SessionResponse;
+import com.myprojecticaro.poc_automated_test_a_b.application.dto.SessionStatsResponse;
+import com.myprojecticaro.poc_automated_test_a_b.infrastructure.service.DungeonSessions;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+/**
+ * REST controller for incremental editing sessions.
+ * <p>
+ * A level editor uploads a dungeon once, then sends only the cells it changes
+ * and gets the updated minimum initial health back. The server keeps the DP
+ * table of every session and recomputes only the region an edit invalidates.
+ * Sessions are not part of the A/B experiment and are not persisted.
+ * </p>
+ */
+@RestController
+@RequestMapping(path = "/api/v1/sessions", produces = MediaType.APPLICATION_JSON_VALUE)
+@Tag(name = "Dungeon Sessions", description = "Endpoints for re-solving a dungeon incrementally as its cells are edited")
+public class SessionController {
+
+    private final DungeonSessions sessions;
+
+    /**
+     * Constructs a new {@code SessionController} with the given session store.
+     *
+     * @param sessions the store holding the open sessions
+     */
+    public SessionController(DungeonSessions sessions) {
+        this.sessions = sessions;
+    }
+
+    /**
+     * Opens a session: solves the dungeon from scratch and keeps its DP table.
+     *
+     * @param request the dungeon grid input wrapped in a {@link DungeonRequest}
+     * @return a {@link SessionResponse} with the session id and the minimum initial health
+     */
+    @Operation(
+            summary = "Open an editing session",
+            description = "Solves the dungeon and keeps it on the server so later edits are re-solved incrementally.",
+            responses = {
+                    @ApiResponse(responseCode = "201", description = "Session opened",
+                            content = @Content(schema = @Schema(implementation = SessionResponse.class))),
+                    @ApiResponse(responseCode = "400", description = "Invalid request payload"),
+                    @ApiResponse(responseCode = "413", description = "Dungeon exceeds the session memory budget"),
+                    @ApiResponse(responseCode = "503", description = "Session memory budget is held by sessions being created; see Retry-After")
+            }
+    )
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<SessionResponse> open(@Valid @RequestBody DungeonRequest request) {
+        DungeonSessions.State state;
+        try {
+            state = sessions.create(request.dungeon());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE, e.getMessage());
+        }
+        return ResponseEntity.status(HttpStatus.CREATED).body(toResponse(state));
+    }
+
+    /**
+     * Applies cell edits to a session and returns the re-solved minimum initial health.
+     *
+     * @param id      the session id
+     * @param request the cells to change
+     * @return a {@link SessionResponse} with the new result and how many DP cells were recomputed
+     */
+    @Operation(
+            summary = "Edit cells of a session",
+            description = "Sets the given cells and recomputes only the part of the DP table they invalidate.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Edits applied",
+                            content = @Content(schema = @Schema(implementation = SessionResponse.class))),
+                    @ApiResponse(responseCode = "400", description = "A cell lies outside the dungeon"),
+                    @ApiResponse(responseCode = "404", description = "Unknown or evicted session")
+            }
+    )
+    @PatchMapping(path = "/{id}/cells", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public SessionResponse edit(@PathVariable String id, @Valid @RequestBody SessionEditRequest request) {
+        List<CellEdit> cells = request.cells();
+        int[] rows = new int[cells.size()];
+        int[] cols = new int[cells.size()];
+        int[] values = new int[cells.size()];
+        for (int i = 0; i < cells.size(); i++) {
+            rows[i] = cells.get(i).row();
+            cols[i] = cells.get(i).col();
+            values[i] = cells.get(i).value();
+        }
+
+        try {
+            return sessions.update(id, rows, cols, values)
+                    .map(SessionController::toResponse)
+                    .orElseThrow(() -> notFound(id));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /**
+     * Retrieves the current state of a session.
+     *
+     * @param id the session id
+     * @return a {@link SessionResponse} with the current minimum initial health
+     */
+    @Operation(
+            summary = "Get a session",
+            description = "Returns the current minimum initial health of the session's dungeon.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Session found",
+                            content = @Content(schema = @Schema(implementation = SessionResponse.class))),
+                    @ApiResponse(responseCode = "404", description = "Unknown or evicted session")
+            }
+    )
+    @GetMapping("/{id}")
+    public SessionResponse get(@PathVariable String id) {
+        return sessions.get(id).map(SessionController::toResponse).orElseThrow(() -> notFound(id));
+    }
+
+    /**
+     * Closes a session and releases its memory.
+     *
+     * @param id the session id
+     * @return 204 if the session was closed
+     */
+    @Operation(
+            summary = "Close a session",
+            responses = {
+                    @ApiResponse(responseCode = "204", description = "Session closed"),
+                    @ApiResponse(responseCode = "404", description = "Unknown or evicted session")
+            }
+    )
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> close(@PathVariable String id) {
+        if (!sessions.close(id)) throw notFound(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Retrieves the statistics of the session store.
+     *
+     * @return a {@link SessionStatsResponse} with the open sessions, their memory and the eviction counters
+     */
+    @Operation(
+            summary = "Get session statistics",
+            description = "Returns the number of open sessions, their memory against the budget, and how many were evicted.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Statistics retrieved successfully",
+                            content = @Content(schema = @Schema(implementation = SessionStatsResponse.class)))
+            }
+    )
+    @GetMapping
+    public SessionStatsResponse stats() {
+        var stats = sessions.stats();
+        return new SessionStatsResponse(stats.sessions(), stats.memoryBytes(), stats.budgetBytes(),
+                stats.evictedIdle(), stats.evictedBudget());
+    }
+
+    /**
+     * Maps a session store that is busy creating sessions to 503 with a {@code Retry-After} header.
+     *
+     * @param e the rejection
+     * @return a problem detail response
+     */
+    @ExceptionHandler(DungeonSessions.BusyException.class)
+    public ResponseEntity<ProblemDetail> busy(DungeonSessions.BusyException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(e.retryAfterSeconds()))
+                .body(ProblemDetail.forStatusAndDetail(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage()));
+    }
+
+    private static SessionResponse toResponse(DungeonSessions.State state) {
+        return new SessionResponse(state.id(), state.rows(), state.cols(), state.result(), state.micros(),
+                state.recomputed(), state.version(), state.memoryBytes());
+    }
+
+    private static ResponseStatusException notFound(String id) {
+        return new ResponseStatusException(HttpStatus.NOT_FOUND, "Session " + id + " does not exist or was evicted");
+    }
+}
@@ -0,0 +1,5 @@
+package com.myprojecticaro.poc_automated_test_a_b.application.dto;
+
+import java.util.List;
+
+public record AllocationResponse(String mode, List<String> arms, double minExploration, List<AllocationBucketResponse> buckets) {}
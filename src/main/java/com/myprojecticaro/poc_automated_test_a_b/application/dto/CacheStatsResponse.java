@@ -0,0 +1,3 @@
+package com.myprojecticaro.poc_automated_test_a_b.application.dto;
+
+public record CacheStatsResponse(boolean enabled, int entries, long weight, long hits, long misses, long evictions, double hitRate) {}
@@ -0,0 +1,8 @@
+package com.myprojecticaro.poc_automated_test_a_b.application.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+public record CellEdit(
+        @Schema(description = "Row of the cell, from 0", example = "1") int row,
+        @Schema(description = "Column of the cell, from 0", example = "2") int col,
+        @Schema(description = "New cell value", example = "-7") int value) {}
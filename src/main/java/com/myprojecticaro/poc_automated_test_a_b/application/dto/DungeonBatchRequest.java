@@ -0,0 +1,13 @@
+package com.myprojecticaro.poc_automated_test_a_b.application.dto;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+/**
+ * A JSON batch body: a bare array of {@link DungeonRequest} objects, wrapped so
+ * that each item is validated like a single request.
+ */
+public record DungeonBatchRequest(@JsonValue @NotNull List<@NotNull @Valid DungeonRequest> dungeons) {}
@@ -0,0 +1,56 @@
+package com.myprojecticaro.poc_automated_test_a_b.application.dto;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.myprojecticaro.poc_automated_test_a_b.infrastructure.config.AbConfig;
+import org.springframework.boot.jackson.JsonComponent;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads a {@link DungeonBatchRequest} item by item and refuses it with
+ * {@code 400} as soon as it holds more than {@code ab.batch.max-items} dungeons,
+ * the same way the NDJSON endpoint stops reading lines.
+ * <p>
+ * Each item goes through the mapper's {@link DungeonRequest} deserializer, so
+ * every grid is still capped at {@code ab.admission.max-cells} while it is read.
+ * </p>
+ */
+@JsonComponent
+public class DungeonBatchRequestDeserializer extends StdDeserializer<DungeonBatchRequest> {
+
+    private final int maxItems;
+
+    /**
+     * Constructs the deserializer from its configuration.
+     *
+     * @param cfg configuration object containing the largest batch accepted per request
+     */
+    public DungeonBatchRequestDeserializer(AbConfig cfg) {
+        super(DungeonBatchRequest.class);
+        this.maxItems = cfg.batchMaxItems;
+    }
+
+    @Override
+    public DungeonBatchRequest deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        if (!p.isExpectedStartArrayToken()) {
+            return (DungeonBatchRequest) ctxt.handleUnexpectedToken(DungeonBatchRequest.class, p);
+        }
+        List<DungeonRequest> dungeons = new ArrayList<>();
+        JsonToken token;
+        while ((token = p.nextToken()) != JsonToken.END_ARRAY) {
+            if (dungeons.size() == maxItems) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "A batch holds at most " + maxItems + " dungeons");
+            }
+            dungeons.add(token == JsonToken.VALUE_NULL ? null : ctxt.readValue(p, DungeonRequest.class));
+        }
+        return new DungeonBatchRequest(dungeons);
+    }
+}
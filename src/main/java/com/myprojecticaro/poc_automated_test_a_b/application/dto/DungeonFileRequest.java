@@ -0,0 +1,11 @@
+package com.myprojecticaro.poc_automated_test_a_b.application.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+
+public record DungeonFileRequest(
+        @Schema(
+                description = "Path of a binary dungeon file, relative to the configured dungeon directory",
+                example = "levels/seed-42.bin"
+        )
+        @NotBlank String path) {}
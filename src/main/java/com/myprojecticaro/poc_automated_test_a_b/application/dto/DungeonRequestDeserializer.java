@@ -0,0 +1,128 @@
+package com.myprojecticaro.poc_automated_test_a_b.application.dto;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.myprojecticaro.poc_automated_test_a_b.infrastructure.config.AbConfig;
+import org.springframework.boot.jackson.JsonComponent;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads a {@link DungeonRequest} token by token and refuses it with
+ * {@code 413} as soon as its grid passes {@code ab.admission.max-cells} cells.
+ * <p>
+ * Jackson's default binding builds the whole {@code int[][]} before anything
+ * can look at its size, so a large JSON body could exhaust the heap before the
+ * admission lanes ever see the grid. Here cells are counted while they are
+ * read, so at most {@code max-cells} of them are held when a grid is refused.
+ * Rows after the first are allocated at their final length. Empty rows and
+ * rows of a different length are rejected as malformed input ({@code 400}).
+ * </p>
+ */
+@JsonComponent
+public class DungeonRequestDeserializer extends StdDeserializer<DungeonRequest> {
+
+    private static final int FIRST_ROW_CAPACITY = 64;
+
+    private final long maxCells;
+
+    /**
+     * Constructs the deserializer from its configuration.
+     *
+     * @param cfg configuration object containing the largest grid accepted per request
+     */
+    public DungeonRequestDeserializer(AbConfig cfg) {
+        super(DungeonRequest.class);
+        this.maxCells = cfg.admissionMaxCells;
+    }
+
+    @Override
+    public DungeonRequest deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        return read(p, ctxt, maxCells);
+    }
+
+    /**
+     * Reads one request object whose grid may hold at most {@code maxCells} cells.
+     *
+     * @param p        parser positioned at the object's start
+     * @param ctxt     the deserialization context
+     * @param maxCells largest number of cells accepted
+     * @return the request; its dungeon is null when the property is missing or null
+     * @throws ResponseStatusException with {@code 413} once the grid passes {@code maxCells}
+     */
+    DungeonRequest read(JsonParser p, DeserializationContext ctxt, long maxCells) throws IOException {
+        JsonToken token = p.currentToken();
+        if (token == JsonToken.START_OBJECT) {
+            token = p.nextToken();
+        } else if (token != JsonToken.FIELD_NAME && token != JsonToken.END_OBJECT) {
+            return (DungeonRequest) ctxt.handleUnexpectedToken(DungeonRequest.class, p);
+        }
+
+        int[][] dungeon = null;
+        for (; token == JsonToken.FIELD_NAME; token = p.nextToken()) {
+            String name = p.currentName();
+            JsonToken value = p.nextToken();
+            if (!"dungeon".equals(name)) {
+                ctxt.handleUnknownProperty(p, this, DungeonRequest.class, name);
+            } else if (value != JsonToken.VALUE_NULL) {
+                dungeon = readGrid(p, ctxt, maxCells);
+            }
+        }
+        return new DungeonRequest(dungeon);
+    }
+
+    /**
+     * Reads a rectangular {@code int[][]}, counting its cells against {@code maxCells}.
+     */
+    private static int[][] readGrid(JsonParser p, DeserializationContext ctxt, long maxCells) throws IOException {
+        if (!p.isExpectedStartArrayToken()) {
+            return ctxt.reportInputMismatch(int[][].class, "Dungeon must be an array of rows");
+        }
+        int limit = (int) Math.min(maxCells, Integer.MAX_VALUE - 8);
+        List<int[]> rows = new ArrayList<>();
+        int cols = -1;
+        long cells = 0;
+
+        while (p.nextToken() != JsonToken.END_ARRAY) {
+            if (!p.isExpectedStartArrayToken()) {
+                return ctxt.reportInputMismatch(int[][].class, "Dungeon row %d must be an array of cells", rows.size());
+            }
+            // The first row sets the width, every later one is allocated at it
+            int[] row = new int[cols < 0 ? Math.min(FIRST_ROW_CAPACITY, limit) : cols];
+            int c = 0;
+            while (p.nextToken() != JsonToken.END_ARRAY) {
+                if (++cells > limit) {
+                    throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE, "Dungeon exceeds the limit of "
+                            + maxCells + " cells per request, use the binary layout or a dungeon file instead");
+                }
+                if (c == row.length) {
+                    if (cols >= 0) {
+                        return ctxt.reportInputMismatch(int[][].class, "Dungeon rows must all have %d columns", cols);
+                    }
+                    row = Arrays.copyOf(row, (int) Math.min(2L * row.length, limit));
+                }
+                if (p.currentToken() != JsonToken.VALUE_NUMBER_INT) {
+                    return ctxt.reportInputMismatch(int[][].class, "Dungeon cells must be integers");
+                }
+                row[c++] = p.getIntValue();
+            }
+
+            if (cols < 0) {
+                if (c == 0) return ctxt.reportInputMismatch(int[][].class, "Dungeon rows must not be empty");
+                cols = c;
+                row = c == row.length ? row : Arrays.copyOf(row, c);
+            } else if (c != cols) {
+                return ctxt.reportInputMismatch(int[][].class, "Dungeon rows must all have %d columns", cols);
+            }
+            rows.add(row);
+        }
+        return rows.toArray(new int[0][]);
+    }
+}
@@ -1,5 +1,3 @@
 package com.myprojecticaro.poc_automated_test_a_b.application.dto;
 
-import com.myprojecticaro.poc_automated_test_a_b.domain.model.Variant;
-
-public record DungeonResponse(Variant variant, int rows, int cols, int result, long micros, Long storedId) {}
+public record DungeonResponse(String variant, int rows, int cols, int result, long micros, Long storedId, Long parseMicros, boolean cached) {}
@@ -0,0 +1,6 @@
+package com.myprojecticaro.poc_automated_test_a_b.application.dto;
+
+public record LaneStatsResponse(String lane, int concurrency, int active, int queued, int queueCapacity,
+                                long memoryBudgetBytes, long memoryReservedBytes,
+                                long admitted, long rejected, long completed,
+                                long p50WaitMicros, long p99WaitMicros, long maxWaitMicros) {}
@@ -0,0 +1,4 @@
+package com.myprojecticaro.poc_automated_test_a_b.application.dto;
+
+public record LatencySummaryResponse(String variant, String sizeBucket, long count,
+                                     long p50Micros, long p90Micros, long p99Micros, long p999Micros, long maxMicros) {}
@@ -0,0 +1,6 @@
+package com.myprojecticaro.poc_automated_test_a_b.application.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public record MaintenanceResponse(int partitionsCreated, List<LocalDate> rolledUpDays, long rolledUpRuns, int partitionsDropped) {}
@@ -0,0 +1,3 @@
+package com.myprojecticaro.poc_automated_test_a_b.application.dto;
+
+public record PersistenceStatsResponse(int pending, long written, long writtenSynchronously, long retried, long split, long failed) {}
@@ -1,3 +1,6 @@
 package com.myprojecticaro.poc_automated_test_a_b.application.dto;
 
-public record RunSummaryResponse(long totalRuns, long variantACount, long variantBCount, double avgMicros) {}
+import java.util.List;
+
+public record RunSummaryResponse(long totalRuns, long variantACount, long variantBCount, double avgMicros,
+                                 List<VariantSummaryResponse> variants) {}
@@ -0,0 +1,10 @@
+package com.myprojecticaro.poc_automated_test_a_b.application.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+public record SessionEditRequest(
+        @Schema(description = "Cells to change, applied together")
+        @NotNull List<CellEdit> cells) {}
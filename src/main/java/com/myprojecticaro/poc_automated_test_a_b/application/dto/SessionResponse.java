@@ -0,0 +1,4 @@
+package com.myprojecticaro.poc_automated_test_a_b.application.dto;
+
+public record SessionResponse(String sessionId, int rows, int cols, int result, long micros,
+                              long recomputedCells, long version, long memoryBytes) {}
@@ -0,0 +1,3 @@
+package com.myprojecticaro.poc_automated_test_a_b.application.dto;
+
+public record SessionStatsResponse(int sessions, long memoryBytes, long budgetBytes, long evictedIdle, long evictedBudget) {}
@@ -0,0 +1,6 @@
+package com.myprojecticaro.poc_automated_test_a_b.application.dto;
+
+import java.time.Instant;
+
+public record ShadowMismatchResponse(Instant at, int rows, int cols, String served, int servedResult,
+                                     String candidate, Integer candidateResult, String error) {}
@@ -0,0 +1,4 @@
+package com.myprojecticaro.poc_automated_test_a_b.application.dto;
+
+public record ShadowPairResponse(String served, String candidate, long comparisons, long mismatches, long timedComparisons,
+                                 double meanServedMicros, double meanCandidateMicros, double candidateFasterShare) {}
@@ -0,0 +1,7 @@
+package com.myprojecticaro.poc_automated_test_a_b.application.dto;
+
+import java.util.List;
+
+public record ShadowResponse(boolean enabled, double sampleRate, List<String> variants,
+                             long sampled, long dropped, long completed, long mismatches,
+                             List<ShadowPairResponse> pairs, List<ShadowMismatchResponse> recentMismatches) {}
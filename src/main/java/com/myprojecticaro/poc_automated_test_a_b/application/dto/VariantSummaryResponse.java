@@ -0,0 +1,3 @@
+package com.myprojecticaro.poc_automated_test_a_b.application.dto;
+
+public record VariantSummaryResponse(String variant, long runs, long timedRuns, double avgMicros, long minMicros, long maxMicros) {}
@@ -1,7 +1,17 @@
 package com.myprojecticaro.poc_automated_test_a_b.domain;
 
+import com.myprojecticaro.poc_automated_test_a_b.domain.model.Grid;
+import com.myprojecticaro.poc_automated_test_a_b.domain.util.BinaryDungeon;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
 /**
  * Service class that provides algorithms to solve the "Dungeon Game" problem.
  * <p>
@@ -20,16 +30,87 @@ import org.springframework.stereotype.Service;
  * </p>
  *
  * <p>
- * This service provides two implementations:
+ * This service provides the following implementations:
  * <ul>
  *   <li><b>Bottom-up DP:</b> Iterative solution using a dynamic programming table.</li>
- *   <li><b>Top-down DP:</b> Recursive solution with memoization.</li>
+ *   <li><b>Top-down DP:</b> Depth-first solution with memoization and an explicit stack.</li>
+ *   <li><b>Rolling-array DP:</b> Bottom-up solution that keeps a single DP row.</li>
+ *   <li><b>Vectorized DP:</b> Rolling-array solution whose row update uses SIMD instructions.</li>
+ *   <li><b>Wavefront DP:</b> Bottom-up solution that solves independent tiles in parallel.</li>
+ *   <li><b>Tiled DP:</b> Cache-blocked bottom-up solution over a flat {@link Grid}.</li>
+ *   <li><b>Mapped DP:</b> Out-of-core bottom-up solution over a memory-mapped dungeon file.</li>
  * </ul>
  * </p>
+ *
+ * <p>
+ * Each in-memory implementation is exposed as an experiment variant by a
+ * {@link com.myprojecticaro.poc_automated_test_a_b.domain.solver.DungeonSolver}.
+ * </p>
  */
 @Service
 public class DungeonService {
 
+    /**
+     * Constant used to represent an "infinite" value in the DP rows.
+     * Kept at Integer.MAX_VALUE / 4 so subtracting a cell value never overflows.
+     */
+    private static final int INF = Integer.MAX_VALUE / 4;
+
+    /**
+     * Memo sentinel for cells that have not been solved yet. Every solved
+     * cell requires at least 1 health, so 0 can never be a real answer.
+     */
+    private static final int UNSOLVED = 0;
+
+    /**
+     * Side length of the square tiles solved by {@link #minHealthWavefront(int[][])}.
+     * A tile of dungeon cells plus its working row fits comfortably in L2.
+     */
+    public static final int WAVEFRONT_TILE = 256;
+
+    /**
+     * Grids with fewer cells than this are solved sequentially by
+     * {@link #minHealthWavefront(int[][])}, since fork/join overhead would
+     * outweigh the parallel speedup.
+     */
+    public static final long WAVEFRONT_THRESHOLD = 1L << 20;
+
+    /**
+     * Tile shape used by {@link #minHealthTiled(Grid)}. The working row of a
+     * tile ({@code TILED_COLS + 1} ints) stays in L1, and a tile's cells
+     * ({@code TILED_ROWS * TILED_COLS} ints, 4 MB) fit in a typical L3 slice.
+     */
+    public static final int TILED_ROWS = 512;
+    public static final int TILED_COLS = 2048;
+
+    /**
+     * Upper bound on the bytes mapped at once by
+     * {@link #minHealthMapped(FileChannel, BinaryDungeon.Header)}. A single
+     * mapping cannot exceed 2 GB, so larger files are swept window by window.
+     */
+    static final long MAPPED_WINDOW_BYTES = 1L << 30;
+
+    /**
+     * Int lanes per vector used by {@link #minHealthVectorized(int[][])}, or 0
+     * when the JVM was started without {@code --add-modules jdk.incubator.vector}
+     * or the CPU has no vector unit worth using.
+     */
+    private static final int VECTOR_LANES = probeVectorLanes();
+
+    /**
+     * Idle DP rows shared by {@link #minHealthRolling(int[][])} and
+     * {@link #minHealthVectorized(int[][])}, one slot per processor.
+     * <p>
+     * A solve takes any idle row and hands it back when done, so a row is
+     * reused whichever thread runs the next solve; batch items run on fresh
+     * virtual threads, which a per-thread buffer would never serve twice.
+     * Rows only grow, so after warm-up a solve performs no allocation unless
+     * more solves than slots run at once.
+     * </p>
+     */
+    private final AtomicReferenceArray<int[]> idleRows =
+            new AtomicReferenceArray<>(Runtime.getRuntime().availableProcessors());
+
     /**
      * Calculates the minimum initial health required using a bottom-up
      * dynamic programming approach.
@@ -86,52 +167,444 @@ public class DungeonService {
 
     /**
      * Calculates the minimum initial health required using a top-down
-     * recursive approach with memoization.
+     * approach with memoization.
      * <p>
-     * Starts at the beginning (0,0) and explores paths recursively,
-     * caching results to avoid recomputation.
+     * Starts at the beginning (0,0) and explores paths depth-first, caching
+     * results to avoid recomputation. The recursion is driven by an explicit
+     * work stack instead of the call stack, so grids of any size can be solved
+     * without a {@link StackOverflowError}, and the memo is a flat primitive
+     * array where {@link #UNSOLVED} marks cells that have not been computed.
      * </p>
      *
      * @param dungeon 2D integer grid representing the dungeon
      * @return the minimum initial health required to survive the dungeon
      */
     public int minHealthTopDown(int[][] dungeon) {
-        int m = dungeon.length, n = dungeon[0].length;
-        Integer[][] memo = new Integer[m][n];
-        return dfs(0,0,dungeon,m,n,memo);
+        int totalRows = dungeon.length;
+        int totalCols = dungeon[0].length;
+        int[] memo = new int[Math.multiplyExact(totalRows, totalCols)];
+
+        /*
+         * A path from (0,0) visits at most totalRows + totalCols - 1 cells and
+         * every cell on it pushes at most two neighbours, which bounds the
+         * stack size without ever having to grow it.
+         */
+        int[] stack = new int[2 * (totalRows + totalCols)];
+        int top = 0;
+        stack[top++] = 0;
+
+        while (top > 0) {
+            int cell = stack[top - 1];
+            if (memo[cell] != UNSOLVED) {
+                top--;
+                continue;
+            }
+
+            int row = cell / totalCols;
+            int col = cell - row * totalCols;
+
+            // Base case: bottom-right cell (destination)
+            if (row == totalRows - 1 && col == totalCols - 1) {
+                memo[cell] = Math.max(1, 1 - dungeon[row][col]);
+                top--;
+                continue;
+            }
+
+            // Solve the neighbours first; this cell is revisited once they are done
+            int down = cell + totalCols;
+            int right = cell + 1;
+            boolean hasDown = row + 1 < totalRows;
+            boolean hasRight = col + 1 < totalCols;
+            boolean pending = false;
+            if (hasDown && memo[down] == UNSOLVED) {
+                stack[top++] = down;
+                pending = true;
+            }
+            if (hasRight && memo[right] == UNSOLVED) {
+                stack[top++] = right;
+                pending = true;
+            }
+            if (pending) continue;
+
+            // Minimum health needed to move right or down; out of bounds paths are ignored
+            int minHealthNeeded = Math.min(
+                    hasDown ? memo[down] : INF,
+                    hasRight ? memo[right] : INF
+            ) - dungeon[row][col];
+
+            // Ensure at least 1 health is required
+            memo[cell] = minHealthNeeded <= 0 ? 1 : minHealthNeeded;
+            top--;
+        }
+
+        return memo[0];
+    }
+
+    /**
+     * Calculates the minimum initial health required using a bottom-up
+     * dynamic programming approach that keeps only one DP row in memory.
+     * <p>
+     * {@code row[c]} holds the value of the row below until it is overwritten
+     * with the value of the current row, so {@code row[c + 1]} is always the
+     * cell to the right. The row is borrowed from a small pool and reused
+     * across calls, giving O(cols) memory and no garbage per request.
+     * </p>
+     *
+     * @param dungeon 2D integer grid representing the dungeon
+     * @return the minimum initial health required to survive the dungeon
+     */
+    public int minHealthRolling(int[][] dungeon) {
+        int rows = dungeon.length;
+        int cols = dungeon[0].length;
+        int[] row = borrowRow(cols + 1);
+        try {
+            // Row below the dungeon: only the cell under the destination is reachable
+            Arrays.fill(row, 0, cols + 1, INF);
+            row[cols - 1] = 1;
+
+            for (int r = rows - 1; r >= 0; r--) {
+                int[] cells = dungeon[r];
+                // Column right of the dungeon: only reachable beside the destination
+                row[cols] = r == rows - 1 ? 1 : INF;
+                for (int c = cols - 1; c >= 0; c--) {
+                    int requiredHealth = Math.min(row[c], row[c + 1]) - cells[c];
+                    row[c] = requiredHealth <= 0 ? 1 : requiredHealth;
+                }
+            }
+
+            return row[0];
+        } finally {
+            returnRow(row);
+        }
+    }
+
+    /**
+     * Calculates the minimum initial health required like
+     * {@link #minHealthRolling(int[][])}, but updates each DP row with SIMD
+     * instructions through the Vector API, see {@link VectorRowKernel}.
+     * <p>
+     * When the Vector API is not available at runtime this is exactly
+     * {@link #minHealthRolling(int[][])}, so the result never depends on how
+     * the JVM was started, only the speed does.
+     * </p>
+     *
+     * @param dungeon 2D integer grid representing the dungeon
+     * @return the minimum initial health required to survive the dungeon
+     */
+    public int minHealthVectorized(int[][] dungeon) {
+        if (VECTOR_LANES == 0) return minHealthRolling(dungeon);
+
+        int rows = dungeon.length;
+        int cols = dungeon[0].length;
+        int[] row = borrowRow(cols + 1);
+        try {
+            // Same boundaries as the rolling row
+            Arrays.fill(row, 0, cols + 1, INF);
+            row[cols - 1] = 1;
+
+            for (int r = rows - 1; r >= 0; r--) {
+                row[cols] = r == rows - 1 ? 1 : INF;
+                VectorRowKernel.solveRow(dungeon[r], row, cols);
+            }
+
+            return row[0];
+        } finally {
+            returnRow(row);
+        }
+    }
+
+    /**
+     * Returns how wide the vectors of {@link #minHealthVectorized(int[][])} are.
+     *
+     * @return the int lanes per vector, or 0 if it falls back to scalar code
+     */
+    public static int vectorLanes() {
+        return VECTOR_LANES;
+    }
+
+    /**
+     * Probes the Vector API. {@link VectorRowKernel} is only touched once the
+     * module is known to be resolved, so its class never fails to load; below
+     * four lanes the API is emulated in software and slower than scalar code.
+     *
+     * @return the int lanes per vector, or 0 if the Vector API should not be used
+     */
+    private static int probeVectorLanes() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) return 0;
+        try {
+            int lanes = VectorRowKernel.lanes();
+            return lanes >= 4 ? lanes : 0;
+        } catch (LinkageError e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Takes an idle DP row from the pool, replacing it when it is too small.
+     * The caller must hand it back with {@link #returnRow(int[])}.
+     *
+     * @param length minimum number of cells required
+     * @return a buffer with at least {@code length} cells, owned by the caller
+     */
+    private int[] borrowRow(int length) {
+        for (int i = 0; i < idleRows.length(); i++) {
+            int[] row = idleRows.get(i);
+            if (row != null && idleRows.compareAndSet(i, row, null)) {
+                return row.length >= length ? row : new int[length];
+            }
+        }
+        return new int[length];
+    }
+
+    /**
+     * Puts a DP row back into the first free slot of the pool, or drops it when
+     * every slot is taken.
+     *
+     * @param row buffer obtained from {@link #borrowRow(int)}
+     */
+    private void returnRow(int[] row) {
+        for (int i = 0; i < idleRows.length(); i++) {
+            if (idleRows.get(i) == null && idleRows.compareAndSet(i, null, row)) return;
+        }
+    }
+
+    /**
+     * Calculates the minimum initial health required by solving the grid as a
+     * parallel wavefront of tiles.
+     * <p>
+     * Cell (r,c) depends only on (r+1,c) and (r,c+1), so the grid is split into
+     * {@link #WAVEFRONT_TILE}-sided tiles and every tile on the same
+     * anti-diagonal of tiles can be solved concurrently once the previous
+     * anti-diagonal is done. Tiles only exchange their boundary values through
+     * one array of {@code cols} and one of {@code rows} cells. Grids smaller than
+     * {@link #WAVEFRONT_THRESHOLD} cells fall back to {@link #minHealthRolling(int[][])}.
+     * </p>
+     *
+     * @param dungeon 2D integer grid representing the dungeon
+     * @return the minimum initial health required to survive the dungeon
+     */
+    public int minHealthWavefront(int[][] dungeon) {
+        int rows = dungeon.length;
+        int cols = dungeon[0].length;
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        if ((long) rows * cols < WAVEFRONT_THRESHOLD || pool.getParallelism() < 2) {
+            return minHealthRolling(dungeon);
+        }
+
+        /*
+         * below[c] is the DP value of the cell under the tile currently owning
+         * column c, and right[r] the value of the cell to the right of the tile
+         * owning row r. Each tile reads its boundary and overwrites it with its
+         * own top row / left column. A wave never holds two tiles sharing a
+         * row or column band, so tiles of one wave never touch the same cells.
+         */
+        int[] below = new int[cols];
+        int[] right = new int[rows];
+        Arrays.fill(below, INF);
+        Arrays.fill(right, INF);
+        below[cols - 1] = 1;
+        right[rows - 1] = 1;
+
+        int tileRows = (rows + WAVEFRONT_TILE - 1) / WAVEFRONT_TILE;
+        int tileCols = (cols + WAVEFRONT_TILE - 1) / WAVEFRONT_TILE;
+        for (int wave = tileRows + tileCols - 2; wave >= 0; wave--) {
+            int first = Math.max(0, wave - tileCols + 1);
+            int last = Math.min(wave, tileRows - 1);
+            pool.invoke(new WaveTask(dungeon, below, right, wave, first, last + 1));
+        }
+
+        return below[0];
+    }
+
+    /**
+     * Fork/join task that solves the tiles of one wave whose tile-row index
+     * lies in {@code [from, to)}, splitting the range in halves.
+     */
+    private static final class WaveTask extends RecursiveAction {
+        private final int[][] dungeon;
+        private final int[] below;
+        private final int[] right;
+        private final int wave;
+        private final int from;
+        private final int to;
+
+        WaveTask(int[][] dungeon, int[] below, int[] right, int wave, int from, int to) {
+            this.dungeon = dungeon;
+            this.below = below;
+            this.right = right;
+            this.wave = wave;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                int tileRow = from;
+                int tileCol = wave - tileRow;
+                int r0 = tileRow * WAVEFRONT_TILE;
+                int c0 = tileCol * WAVEFRONT_TILE;
+                solveTile(dungeon, below, right,
+                        r0, Math.min(r0 + WAVEFRONT_TILE, dungeon.length),
+                        c0, Math.min(c0 + WAVEFRONT_TILE, dungeon[0].length));
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new WaveTask(dungeon, below, right, wave, from, mid),
+                    new WaveTask(dungeon, below, right, wave, mid, to));
+        }
+    }
+
+    /**
+     * Solves the tile covering rows {@code [r0, r1)} and columns {@code [c0, c1)}
+     * with a rolling row, reading and then replacing its boundary values.
+     *
+     * @param dungeon dungeon grid
+     * @param below   DP values of the row under each column band
+     * @param right   DP values of the column right of each row band
+     */
+    private static void solveTile(int[][] dungeon, int[] below, int[] right,
+                                  int r0, int r1, int c0, int c1) {
+        int width = c1 - c0;
+        int[] line = new int[width + 1];
+        System.arraycopy(below, c0, line, 0, width);
+
+        for (int r = r1 - 1; r >= r0; r--) {
+            int[] cells = dungeon[r];
+            line[width] = right[r];
+            for (int j = width - 1; j >= 0; j--) {
+                int requiredHealth = Math.min(line[j], line[j + 1]) - cells[c0 + j];
+                line[j] = requiredHealth <= 0 ? 1 : requiredHealth;
+            }
+            right[r] = line[0];
+        }
+
+        System.arraycopy(line, 0, below, c0, width);
+    }
+
+    /**
+     * Calculates the minimum initial health required using a cache-blocked
+     * bottom-up approach over a flat row-major grid.
+     * <p>
+     * The grid is swept in {@link #TILED_ROWS} x {@link #TILED_COLS} tiles,
+     * bottom-right first. Within a tile the DP row is only
+     * {@code TILED_COLS + 1} ints, so it never leaves L1 even when a full grid
+     * row would not fit in cache; tiles hand their top row and left column to
+     * their neighbours through one boundary array per axis.
+     * </p>
+     *
+     * @param grid flat dungeon grid
+     * @return the minimum initial health required to survive the dungeon
+     */
+    public int minHealthTiled(Grid grid) {
+        int rows = grid.rows();
+        int cols = grid.cols();
+        int[] cells = grid.cells();
+
+        // Same boundary arrays as the wavefront: values below / right of the next tile
+        int[] below = new int[cols];
+        int[] right = new int[rows];
+        Arrays.fill(below, INF);
+        Arrays.fill(right, INF);
+        below[cols - 1] = 1;
+        right[rows - 1] = 1;
+
+        int[] line = new int[Math.min(cols, TILED_COLS) + 1];
+        for (int r1 = rows; r1 > 0; r1 -= TILED_ROWS) {
+            int r0 = Math.max(0, r1 - TILED_ROWS);
+            for (int c1 = cols; c1 > 0; c1 -= TILED_COLS) {
+                int c0 = Math.max(0, c1 - TILED_COLS);
+                solveTile(cells, cols, below, right, line, r0, r1, c0, c1);
+            }
+        }
+
+        return below[0];
     }
 
     /**
-     * Depth-first search helper function for the top-down recursive solution.
+     * Flat-grid counterpart of {@link #solveTile(int[][], int[], int[], int, int, int, int)}
+     * that works in a caller-supplied line buffer.
      *
-     * @param row   current row index
-     * @param col   current column index
-     * @param dungeon    dungeon grid
-     * @param totalRows    total number of rows
-     * @param totalCols    total number of columns
-     * @param memo memoization cache to store intermediate results
-     * @return the minimum health required at position (i,j)
-     */
-    private int dfs(int row, int col, int[][] dungeon, int totalRows, int totalCols, Integer[][] memo) {
-        // If out of bounds, return a very large value to ignore this path
-        if (row >= totalRows || col >= totalCols)
-            return Integer.MAX_VALUE / 4;
-
-        // Return previously computed result if available
-        if (memo[row][col] != null)
-            return memo[row][col];
-
-        // Base case: bottom-right cell (destination)
-        if (row == totalRows - 1 && col == totalCols - 1)
-            return memo[row][col] = Math.max(1, 1 - dungeon[row][col]);
-
-        // Minimum health needed to move right or down
-        int minHealthNeeded = Math.min(
-                dfs(row + 1, col, dungeon, totalRows, totalCols, memo),
-                dfs(row, col + 1, dungeon, totalRows, totalCols, memo)
-        ) - dungeon[row][col];
-
-        // Ensure at least 1 health is required
-        return memo[row][col] = minHealthNeeded <= 0 ? 1 : minHealthNeeded;
+     * @param cells row-major dungeon cells
+     * @param cols  number of columns of the grid
+     * @param below DP values of the row under each column band
+     * @param right DP values of the column right of each row band
+     * @param line  scratch row of at least {@code c1 - c0 + 1} ints
+     */
+    private static void solveTile(int[] cells, int cols, int[] below, int[] right, int[] line,
+                                  int r0, int r1, int c0, int c1) {
+        int width = c1 - c0;
+        System.arraycopy(below, c0, line, 0, width);
+
+        for (int r = r1 - 1; r >= r0; r--) {
+            int base = r * cols + c0;
+            line[width] = right[r];
+            for (int j = width - 1; j >= 0; j--) {
+                int requiredHealth = Math.min(line[j], line[j + 1]) - cells[base + j];
+                line[j] = requiredHealth <= 0 ? 1 : requiredHealth;
+            }
+            right[r] = line[0];
+        }
+
+        System.arraycopy(line, 0, below, c0, width);
+    }
+
+    /**
+     * Calculates the minimum initial health required for a dungeon stored in
+     * the {@link BinaryDungeon} file layout, without loading it on the heap.
+     * <p>
+     * The file is mapped with {@link FileChannel#map} in windows of whole rows,
+     * starting from the last row, and swept upward with a single DP row. Peak
+     * heap usage is two {@code int[cols]} buffers however large the file is;
+     * the cells themselves are paged in and out by the operating system.
+     * </p>
+     *
+     * @param channel channel over the dungeon file, opened for reading
+     * @param header  header previously read with {@link BinaryDungeon#readHeader(FileChannel)}
+     * @return the minimum initial health required to survive the dungeon
+     * @throws IOException if the file cannot be mapped
+     */
+    public int minHealthMapped(FileChannel channel, BinaryDungeon.Header header) throws IOException {
+        return minHealthMapped(channel, header, MAPPED_WINDOW_BYTES);
+    }
+
+    /**
+     * {@link #minHealthMapped(FileChannel, BinaryDungeon.Header)} with a given
+     * window size, so window boundaries can be exercised on small files.
+     */
+    int minHealthMapped(FileChannel channel, BinaryDungeon.Header header, long windowBytes) throws IOException {
+        int rows = header.rows();
+        int cols = header.cols();
+        long rowBytes = (long) cols * Integer.BYTES;
+        if (rowBytes > windowBytes) {
+            throw new IllegalArgumentException("Dungeon rows of " + cols + " cells exceed the mapping window");
+        }
+        int rowsPerWindow = (int) Math.min(rows, windowBytes / rowBytes);
+
+        int[] cells = new int[cols];
+        int[] row = new int[cols + 1];
+        Arrays.fill(row, INF);
+        row[cols - 1] = 1;
+
+        for (int end = rows; end > 0; end -= rowsPerWindow) {
+            int start = Math.max(0, end - rowsPerWindow);
+            IntBuffer window = channel
+                    .map(FileChannel.MapMode.READ_ONLY,
+                            BinaryDungeon.HEADER_BYTES + start * rowBytes,
+                            (end - start) * rowBytes)
+                    .order(BinaryDungeon.ORDER)
+                    .asIntBuffer();
+
+            for (int r = end - 1; r >= start; r--) {
+                window.get((r - start) * cols, cells, 0, cols);
+                row[cols] = r == rows - 1 ? 1 : INF;
+                for (int c = cols - 1; c >= 0; c--) {
+                    int requiredHealth = Math.min(row[c], row[c + 1]) - cells[c];
+                    row[c] = requiredHealth <= 0 ? 1 : requiredHealth;
+                }
+            }
+        }
+
+        return row[0];
     }
-}
\ No newline at end of file
+}
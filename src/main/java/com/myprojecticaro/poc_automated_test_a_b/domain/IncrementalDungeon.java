@@ -0,0 +1,168 @@
+package com.myprojecticaro.poc_automated_test_a_b.domain;
+
+import com.myprojecticaro.poc_automated_test_a_b.domain.model.Grid;
+
+import java.util.Arrays;
+
+/**
+ * Dungeon whose bottom-up DP table is kept up to date as single cells change.
+ * <p>
+ * {@code dp[r][c]} only depends on the cells below and to the right of
+ * {@code (r,c)}, so changing cell {@code (r,c)} can only invalidate the
+ * rectangle {@code [0..r] x [0..c]}. {@link #update} recomputes that rectangle
+ * row by row, from the changed row upward and from right to left, and stops
+ * early:
+ * <ul>
+ *   <li>within a row, once it is left of every column that changed in the row
+ *       below and the value just recomputed is unchanged;</li>
+ *   <li>across rows, once a whole row comes out unchanged and no edited cell lies above it.</li>
+ * </ul>
+ * A typical edit therefore touches a few rows and columns around the edited
+ * cell instead of the whole grid.
+ * </p>
+ *
+ * <p>
+ * The DP table has one extra row and column of sentinels, laid out like the
+ * table of {@link DungeonService#minHealthBottomUp(int[][])} but flat and row-major.
+ * Instances are not thread-safe.
+ * </p>
+ */
+public final class IncrementalDungeon {
+
+    private static final int INF = Integer.MAX_VALUE / 4;
+
+    private final int rows;
+    private final int cols;
+    private final int stride;
+    private final int[] cells;
+    private final int[] dp;
+
+    /**
+     * Solves a dungeon from scratch and keeps its DP table.
+     *
+     * @param grid the dungeon; its cell array is taken over, not copied
+     */
+    public IncrementalDungeon(Grid grid) {
+        this.rows = grid.rows();
+        this.cols = grid.cols();
+        this.stride = cols + 1;
+        this.cells = grid.cells();
+        this.dp = new int[Math.multiplyExact(rows + 1, stride)];
+
+        for (int c = 0; c <= cols; c++) dp[rows * stride + c] = INF;
+        for (int r = 0; r < rows; r++) dp[r * stride + cols] = INF;
+        dp[rows * stride + cols - 1] = 1;
+        dp[(rows - 1) * stride + cols] = 1;
+
+        for (int r = rows - 1; r >= 0; r--) {
+            for (int c = cols - 1; c >= 0; c--) {
+                dp[r * stride + c] = compute(r, c);
+            }
+        }
+    }
+
+    /**
+     * Estimates the heap held by a dungeon of the given size: its cells plus the DP table.
+     *
+     * @param rows number of rows
+     * @param cols number of columns
+     * @return estimated bytes
+     */
+    public static long bytesFor(int rows, int cols) {
+        return 4L * rows * cols + 4L * (rows + 1) * (cols + 1) + 32;
+    }
+
+    public int rows() { return rows; }
+    public int cols() { return cols; }
+
+    /**
+     * Returns the minimum initial health required to survive the current dungeon.
+     *
+     * @return the minimum initial health
+     */
+    public int minHealth() {
+        return dp[0];
+    }
+
+    /**
+     * Sets cells and brings the DP table up to date.
+     * <p>
+     * All cells are written first and the affected region is then recomputed
+     * once, so a batch of edits costs no more than its furthest-reaching one.
+     * The three arrays are parallel: the i-th edit sets
+     * {@code (rowIndexes[i], colIndexes[i])} to {@code values[i]}.
+     * </p>
+     *
+     * @param rowIndexes rows of the edited cells
+     * @param colIndexes columns of the edited cells
+     * @param values     new cell values
+     * @return number of DP cells recomputed
+     * @throws IllegalArgumentException if the arrays differ in length or a cell is outside the grid
+     */
+    public long update(int[] rowIndexes, int[] colIndexes, int[] values) {
+        if (rowIndexes.length != colIndexes.length || rowIndexes.length != values.length) {
+            throw new IllegalArgumentException("Edits need a row, a column and a value each");
+        }
+        for (int i = 0; i < rowIndexes.length; i++) {
+            if (rowIndexes[i] < 0 || rowIndexes[i] >= rows || colIndexes[i] < 0 || colIndexes[i] >= cols) {
+                throw new IllegalArgumentException("Cell (" + rowIndexes[i] + "," + colIndexes[i] + ") is outside the "
+                        + rows + "x" + cols + " dungeon");
+            }
+        }
+
+        // Per row, the leftmost and rightmost edited column; -1 / cols when none
+        int[] editLo = new int[rows];
+        int[] editHi = new int[rows];
+        Arrays.fill(editLo, cols);
+        Arrays.fill(editHi, -1);
+        int top = rows;
+        int bottom = -1;
+        for (int i = 0; i < rowIndexes.length; i++) {
+            int r = rowIndexes[i];
+            int c = colIndexes[i];
+            cells[r * cols + c] = values[i];
+            editLo[r] = Math.min(editLo[r], c);
+            editHi[r] = Math.max(editHi[r], c);
+            top = Math.min(top, r);
+            bottom = Math.max(bottom, r);
+        }
+
+        long recomputed = 0;
+        // Columns whose value changed in the row below; empty when lo > hi
+        int changedLo = cols;
+        int changedHi = -1;
+        for (int r = bottom; r >= 0; r--) {
+            int lo = Math.min(changedLo, editLo[r]);
+            int hi = Math.max(changedHi, editHi[r]);
+            if (hi < 0) {
+                if (r < top) break;
+                continue;
+            }
+
+            int rowLo = cols;
+            int rowHi = -1;
+            for (int c = hi; c >= 0; c--) {
+                int updated = compute(r, c);
+                recomputed++;
+                int at = r * stride + c;
+                if (updated != dp[at]) {
+                    dp[at] = updated;
+                    rowLo = c;
+                    rowHi = Math.max(rowHi, c);
+                } else if (c <= lo) {
+                    // Every cell further left depends only on unchanged values
+                    break;
+                }
+            }
+            changedLo = rowLo;
+            changedHi = rowHi;
+        }
+        return recomputed;
+    }
+
+    private int compute(int r, int c) {
+        int at = r * stride + c;
+        int requiredHealth = Math.min(dp[at + stride], dp[at + 1]) - cells[r * cols + c];
+        return requiredHealth <= 0 ? 1 : requiredHealth;
+    }
+}
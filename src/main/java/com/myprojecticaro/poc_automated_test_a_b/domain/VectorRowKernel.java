@@ -0,0 +1,88 @@
+package com.myprojecticaro.poc_automated_test_a_b.domain;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD row update of the rolling DP, written with the incubating Vector API.
+ * <p>
+ * The recurrence {@code row[c] = max(1, min(below[c], row[c + 1]) - cell[c])}
+ * carries a dependency along the row, but every step is a clamp of the value
+ * to its right: {@code row[c] = clamp(row[c + 1] + d, lo, hi)} with
+ * {@code d = -cell[c]}, {@code lo = 1} and {@code hi = max(1, below[c] - cell[c])}.
+ * The {@code hi} term of a whole vector of cells is computed in one pass, and
+ * because clamps compose into clamps, a log-step suffix scan turns a vector of
+ * single-cell clamps into the clamps from each lane to the vector's right edge.
+ * Each vector then only waits on the value of its right neighbour for one
+ * add, min and max instead of one dependent step per cell.
+ * </p>
+ *
+ * <p>
+ * This class must only be loaded when the {@code jdk.incubator.vector} module
+ * is resolved, see {@link DungeonService#minHealthVectorized(int[][])}.
+ * Results equal the scalar recurrence as long as no intermediate value
+ * overflows an int, the same assumption the scalar solvers make.
+ * </p>
+ */
+final class VectorRowKernel {
+
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+    private static final int LANES = SPECIES.length();
+
+    private VectorRowKernel() {}
+
+    /**
+     * Returns the number of int lanes of the preferred vector shape.
+     *
+     * @return lanes per vector on this CPU
+     */
+    static int lanes() {
+        return LANES;
+    }
+
+    /**
+     * Replaces the DP values of the row below with those of the current row.
+     *
+     * @param cells dungeon cells of the current row
+     * @param row   DP values of the row below in {@code [0, cols)}, and the value
+     *              right of the current row at {@code cols}
+     * @param cols  number of columns
+     */
+    static void solveRow(int[] cells, int[] row, int cols) {
+        IntVector one = IntVector.broadcast(SPECIES, 1);
+        IntVector zero = IntVector.zero(SPECIES);
+        int right = row[cols];
+
+        int c = cols;
+        for (; c >= LANES; c -= LANES) {
+            int base = c - LANES;
+            IntVector cell = IntVector.fromArray(SPECIES, cells, base);
+            IntVector d = cell.neg();
+            IntVector lo = one;
+            IntVector hi = IntVector.fromArray(SPECIES, row, base).sub(cell).max(one);
+
+            // Lane i composes its clamp with the one of lane i + s, doubling the span each step
+            for (int s = 1; s < LANES; s <<= 1) {
+                VectorMask<Integer> inner = SPECIES.indexInRange(0, LANES - s);
+                IntVector nextD = d.slice(s, zero);
+                IntVector nextLo = lo.slice(s, zero).add(d).min(hi).max(lo);
+                IntVector nextHi = hi.slice(s, zero).add(d).min(hi).max(lo);
+                d = d.add(nextD, inner);
+                lo = lo.blend(nextLo, inner);
+                hi = hi.blend(nextHi, inner);
+            }
+
+            IntVector out = IntVector.broadcast(SPECIES, right).add(d).min(hi).max(lo);
+            out.intoArray(row, base);
+            right = out.lane(0);
+        }
+
+        // Columns left of the last full vector
+        for (c--; c >= 0; c--) {
+            int requiredHealth = Math.min(row[c], right) - cells[c];
+            right = requiredHealth <= 0 ? 1 : requiredHealth;
+            row[c] = right;
+        }
+    }
+}
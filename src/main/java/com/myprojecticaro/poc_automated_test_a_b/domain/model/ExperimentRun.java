@@ -10,9 +10,8 @@ public class ExperimentRun {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Enumerated(EnumType.STRING)
-    @Column(nullable = false)
-    private Variant variant;
+    @Column(nullable = false, length = 64)
+    private String variant;
 
     @Column(nullable = false)
     private int rows;
@@ -26,6 +25,12 @@ public class ExperimentRun {
     @Column(nullable = false)
     private long micros;
 
+    @Column(nullable = false)
+    private boolean cached;
+
+    @Column(nullable = false)
+    private boolean warmup;
+
     @Column(nullable = false)
     private OffsetDateTime createdAt = OffsetDateTime.now();
 
@@ -33,20 +38,26 @@ public class ExperimentRun {
 
     protected ExperimentRun() {}
 
-    public ExperimentRun(Variant variant, int rows, int cols, int result, long micros, String clientIp) {
+    public ExperimentRun(Long id, String variant, int rows, int cols, int result, long micros, boolean cached, boolean warmup, String clientIp) {
+        this.id = id;
         this.variant = variant;
         this.rows = rows;
         this.cols = cols;
         this.result = result;
         this.micros = micros;
+        this.cached = cached;
+        this.warmup = warmup;
         this.clientIp = clientIp;
     }
 
     public Long getId() { return id; }
-    public Variant getVariant() { return variant; }
+    public String getVariant() { return variant; }
     public int getRows() { return rows; }
     public int getCols() { return cols; }
     public int getResult() { return result; }
     public long getMicros() { return micros; }
+    public boolean isCached() { return cached; }
+    public boolean isWarmup() { return warmup; }
+    public OffsetDateTime getCreatedAt() { return createdAt; }
     public String getClientIp() { return clientIp; }
 }
\ No newline at end of file
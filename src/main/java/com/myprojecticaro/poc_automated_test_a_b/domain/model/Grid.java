@@ -0,0 +1,59 @@
+package com.myprojecticaro.poc_automated_test_a_b.domain.model;
+
+/**
+ * Dungeon grid stored as a single row-major {@code int[]}.
+ * <p>
+ * Cell (r,c) lives at {@code cells[r * cols + c]}. Compared to {@code int[][]},
+ * walking the grid needs no per-row pointer dereference and consecutive rows
+ * are adjacent in memory.
+ * </p>
+ *
+ * @param rows  number of rows
+ * @param cols  number of columns
+ * @param cells row-major cell values, {@code rows * cols} long
+ */
+public record Grid(int rows, int cols, int[] cells) {
+
+    public Grid {
+        if (rows <= 0 || cols <= 0) {
+            throw new IllegalArgumentException("Grid must have at least one row and one column");
+        }
+        if (cells.length != (long) rows * cols) {
+            throw new IllegalArgumentException("Expected " + (long) rows * cols + " cells but got " + cells.length);
+        }
+    }
+
+    /**
+     * Copies a rectangular {@code int[][]} dungeon into a flat grid.
+     *
+     * @param dungeon 2D integer grid representing the dungeon
+     * @return the flat copy
+     * @throws IllegalArgumentException if the dungeon is empty or its rows differ in length
+     */
+    public static Grid of(int[][] dungeon) {
+        int rows = dungeon.length;
+        int cols = rows == 0 ? 0 : dungeon[0].length;
+        int[] cells = new int[Math.multiplyExact(rows, cols)];
+        for (int r = 0; r < rows; r++) {
+            if (dungeon[r].length != cols) {
+                throw new IllegalArgumentException("Dungeon rows must all have " + cols + " columns");
+            }
+            System.arraycopy(dungeon[r], 0, cells, r * cols, cols);
+        }
+        return new Grid(rows, cols, cells);
+    }
+
+    /**
+     * Copies this grid back into an {@code int[][]}.
+     *
+     * @return a new array of {@code rows} rows
+     */
+    public int[][] toArray() {
+        int[][] dungeon = new int[rows][];
+        for (int r = 0; r < rows; r++) {
+            dungeon[r] = new int[cols];
+            System.arraycopy(cells, r * cols, dungeon[r], 0, cols);
+        }
+        return dungeon;
+    }
+}
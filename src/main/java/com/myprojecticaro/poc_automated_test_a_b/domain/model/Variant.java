@@ -1,11 +0,0 @@
-package com.myprojecticaro.poc_automated_test_a_b.domain.model;
-
-/**
- * Represents the variant type used in A/B testing experiments.
- *
- * <p>
- * Variant.A corresponds to the "A" group and Variant.B corresponds to the "B" group.
- * These variants determine which algorithm or feature is applied during the experiment.
- * </p>
- */
-public enum Variant { A, B }
\ No newline at end of file
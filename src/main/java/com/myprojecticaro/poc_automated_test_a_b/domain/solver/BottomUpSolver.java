@@ -0,0 +1,37 @@
+package com.myprojecticaro.poc_automated_test_a_b.domain.solver;
+
+import com.myprojecticaro.poc_automated_test_a_b.domain.DungeonService;
+import org.springframework.stereotype.Component;
+
+/**
+ * Variant {@code A}: bottom-up DP with a full table, see {@link DungeonService#minHealthBottomUp(int[][])}.
+ */
+@Component
+public class BottomUpSolver implements DungeonSolver {
+
+    private final DungeonService dungeonService;
+
+    public BottomUpSolver(DungeonService dungeonService) {
+        this.dungeonService = dungeonService;
+    }
+
+    @Override
+    public String name() {
+        return "A";
+    }
+
+    @Override
+    public Layout layout() {
+        return Layout.ARRAY;
+    }
+
+    @Override
+    public int solve(DungeonInput dungeon) {
+        return dungeonService.minHealthBottomUp(dungeon.array());
+    }
+
+    @Override
+    public long workingSetBytes(int rows, int cols) {
+        return 4L * (rows + 1) * (cols + 1) + 16L * (rows + 1);
+    }
+}
@@ -0,0 +1,106 @@
+package com.myprojecticaro.poc_automated_test_a_b.domain.solver;
+
+import com.myprojecticaro.poc_automated_test_a_b.domain.model.Grid;
+
+/**
+ * A dungeon handed to a {@link DungeonSolver}, in either layout the solvers read.
+ * <p>
+ * It wraps the layout the dungeon arrived in: per-row arrays for JSON bodies, a
+ * flat {@link Grid} for binary ones. The other layout is built on first use and
+ * kept, so a dungeon solved by several solvers is converted at most once. The
+ * conversion is not synchronized; an input must be handed between threads
+ * through a happens-before edge such as an executor submission.
+ * </p>
+ */
+public final class DungeonInput {
+
+    private int[][] array;
+    private Grid grid;
+
+    private DungeonInput(int[][] array, Grid grid) {
+        this.array = array;
+        this.grid = grid;
+    }
+
+    /**
+     * Wraps a dungeon given as one array per row.
+     *
+     * @param dungeon the 2D dungeon grid
+     * @return the input
+     */
+    public static DungeonInput of(int[][] dungeon) {
+        return new DungeonInput(dungeon, null);
+    }
+
+    /**
+     * Wraps a dungeon given as a flat grid.
+     *
+     * @param grid the flat dungeon grid
+     * @return the input
+     */
+    public static DungeonInput of(Grid grid) {
+        return new DungeonInput(null, grid);
+    }
+
+    public int rows() {
+        return grid != null ? grid.rows() : array.length;
+    }
+
+    public int cols() {
+        return grid != null ? grid.cols() : array[0].length;
+    }
+
+    /**
+     * Returns the dungeon as one array per row, building it from the flat grid if needed.
+     *
+     * @return the 2D dungeon grid
+     */
+    public int[][] array() {
+        if (array == null) array = grid.toArray();
+        return array;
+    }
+
+    /**
+     * Returns the dungeon as a flat grid, building it from the row arrays if needed.
+     *
+     * @return the flat dungeon grid
+     */
+    public Grid grid() {
+        if (grid == null) grid = Grid.of(array);
+        return grid;
+    }
+
+    /**
+     * Returns whether the given layout is available without a conversion.
+     *
+     * @param layout the layout
+     * @return true if the dungeon arrived in that layout or it was already built
+     */
+    public boolean has(DungeonSolver.Layout layout) {
+        return layout == DungeonSolver.Layout.ARRAY ? array != null : grid != null;
+    }
+
+    /**
+     * Builds the given layout now if it is missing.
+     *
+     * @param layout the layout a solver is about to read
+     * @return this input
+     */
+    public DungeonInput prepare(DungeonSolver.Layout layout) {
+        if (layout == DungeonSolver.Layout.ARRAY) array();
+        else grid();
+        return this;
+    }
+
+    /**
+     * Estimates the heap {@link #prepare} allocates to build the given layout.
+     *
+     * @param layout the layout
+     * @return bytes allocated, or 0 if the layout is already available
+     */
+    public long conversionBytes(DungeonSolver.Layout layout) {
+        if (has(layout)) return 0;
+        long cells = (long) rows() * cols();
+        return layout == DungeonSolver.Layout.ARRAY ? 4 * cells + 16L * rows() : 4 * cells;
+    }
+}
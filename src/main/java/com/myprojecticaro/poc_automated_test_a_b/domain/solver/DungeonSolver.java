@@ -0,0 +1,61 @@
+package com.myprojecticaro.poc_automated_test_a_b.domain.solver;
+
+/**
+ * An algorithm computing the minimum initial health of a dungeon, pluggable as an experiment variant.
+ * <p>
+ * Implementations are Spring beans; every bean of this type is discovered at
+ * startup and becomes a variant named after {@link #name()}, which requests may
+ * force and {@code ab.allocation.arms} may split traffic over. The name is what
+ * is stored in the {@code variant} column of {@code experiment_run}, so it must
+ * stay the same once runs are recorded under it.
+ * </p>
+ *
+ * <p>
+ * Solvers are called concurrently from many threads and must not modify the dungeon.
+ * </p>
+ */
+public interface DungeonSolver {
+
+    /**
+     * Layout of the dungeon a solver reads.
+     */
+    enum Layout {
+        /** One {@code int[]} per row, see {@link DungeonInput#array()}. */
+        ARRAY,
+        /** A single row-major {@code int[]}, see {@link DungeonInput#grid()}. */
+        FLAT
+    }
+
+    /**
+     * Returns the variant name of this solver: 1 to 64 letters, digits, {@code _} or {@code -}.
+     *
+     * @return the unique name
+     */
+    String name();
+
+    /**
+     * Returns the layout this solver reads. It is built before the solve is
+     * timed, so layout conversions do not count as solve time.
+     *
+     * @return the native layout
+     */
+    Layout layout();
+
+    /**
+     * Computes the minimum initial health required to survive the dungeon.
+     *
+     * @param dungeon the dungeon, already available in {@link #layout()}
+     * @return the minimum initial health
+     */
+    int solve(DungeonInput dungeon);
+
+    /**
+     * Estimates the heap this solver allocates for a grid, on top of the grid itself.
+     * Used to admit large grids against the large-grid memory budget.
+     *
+     * @param rows number of rows of the grid
+     * @param cols number of columns of the grid
+     * @return estimated bytes allocated while solving
+     */
+    long workingSetBytes(int rows, int cols);
+}
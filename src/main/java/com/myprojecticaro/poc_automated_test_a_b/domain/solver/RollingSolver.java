@@ -0,0 +1,37 @@
+package com.myprojecticaro.poc_automated_test_a_b.domain.solver;
+
+import com.myprojecticaro.poc_automated_test_a_b.domain.DungeonService;
+import org.springframework.stereotype.Component;
+
+/**
+ * Variant {@code C}: bottom-up DP with a single reused row, see {@link DungeonService#minHealthRolling(int[][])}.
+ */
+@Component
+public class RollingSolver implements DungeonSolver {
+
+    private final DungeonService dungeonService;
+
+    public RollingSolver(DungeonService dungeonService) {
+        this.dungeonService = dungeonService;
+    }
+
+    @Override
+    public String name() {
+        return "C";
+    }
+
+    @Override
+    public Layout layout() {
+        return Layout.ARRAY;
+    }
+
+    @Override
+    public int solve(DungeonInput dungeon) {
+        return dungeonService.minHealthRolling(dungeon.array());
+    }
+
+    @Override
+    public long workingSetBytes(int rows, int cols) {
+        return 4L * (cols + 1);
+    }
+}
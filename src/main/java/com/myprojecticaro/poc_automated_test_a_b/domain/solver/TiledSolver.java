@@ -0,0 +1,37 @@
+package com.myprojecticaro.poc_automated_test_a_b.domain.solver;
+
+import com.myprojecticaro.poc_automated_test_a_b.domain.DungeonService;
+import org.springframework.stereotype.Component;
+
+/**
+ * Variant {@code E}: cache-blocked bottom-up DP over a flat grid, see {@link DungeonService#minHealthTiled}.
+ */
+@Component
+public class TiledSolver implements DungeonSolver {
+
+    private final DungeonService dungeonService;
+
+    public TiledSolver(DungeonService dungeonService) {
+        this.dungeonService = dungeonService;
+    }
+
+    @Override
+    public String name() {
+        return "E";
+    }
+
+    @Override
+    public Layout layout() {
+        return Layout.FLAT;
+    }
+
+    @Override
+    public int solve(DungeonInput dungeon) {
+        return dungeonService.minHealthTiled(dungeon.grid());
+    }
+
+    @Override
+    public long workingSetBytes(int rows, int cols) {
+        return 4L * (rows + cols) + 4L * (Math.min(cols, DungeonService.TILED_COLS) + 1);
+    }
+}
@@ -0,0 +1,37 @@
+package com.myprojecticaro.poc_automated_test_a_b.domain.solver;
+
+import com.myprojecticaro.poc_automated_test_a_b.domain.DungeonService;
+import org.springframework.stereotype.Component;
+
+/**
+ * Variant {@code B}: top-down DP with memoization, see {@link DungeonService#minHealthTopDown(int[][])}.
+ */
+@Component
+public class TopDownSolver implements DungeonSolver {
+
+    private final DungeonService dungeonService;
+
+    public TopDownSolver(DungeonService dungeonService) {
+        this.dungeonService = dungeonService;
+    }
+
+    @Override
+    public String name() {
+        return "B";
+    }
+
+    @Override
+    public Layout layout() {
+        return Layout.ARRAY;
+    }
+
+    @Override
+    public int solve(DungeonInput dungeon) {
+        return dungeonService.minHealthTopDown(dungeon.array());
+    }
+
+    @Override
+    public long workingSetBytes(int rows, int cols) {
+        return 4L * rows * cols + 8L * (rows + cols);
+    }
+}
@@ -0,0 +1,51 @@
+package com.myprojecticaro.poc_automated_test_a_b.domain.solver;
+
+import com.myprojecticaro.poc_automated_test_a_b.domain.DungeonService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Variant {@code G}: rolling-row DP with a SIMD row update, see {@link DungeonService#minHealthVectorized(int[][])}.
+ * <p>
+ * Without {@code --add-modules jdk.incubator.vector} it runs the scalar rolling
+ * row, which is logged at startup so the variant's latencies can be read correctly.
+ * </p>
+ */
+@Component
+public class VectorSolver implements DungeonSolver {
+
+    private static final Logger log = LoggerFactory.getLogger(VectorSolver.class);
+
+    private final DungeonService dungeonService;
+
+    public VectorSolver(DungeonService dungeonService) {
+        this.dungeonService = dungeonService;
+        int lanes = DungeonService.vectorLanes();
+        if (lanes > 0) {
+            log.info("Variant G uses the Vector API with {} int lanes", lanes);
+        } else {
+            log.warn("Variant G falls back to scalar code, start the JVM with --add-modules jdk.incubator.vector to vectorize it");
+        }
+    }
+
+    @Override
+    public String name() {
+        return "G";
+    }
+
+    @Override
+    public Layout layout() {
+        return Layout.ARRAY;
+    }
+
+    @Override
+    public int solve(DungeonInput dungeon) {
+        return dungeonService.minHealthVectorized(dungeon.array());
+    }
+
+    @Override
+    public long workingSetBytes(int rows, int cols) {
+        return 4L * (cols + 1);
+    }
+}
@@ -0,0 +1,39 @@
+package com.myprojecticaro.poc_automated_test_a_b.domain.solver;
+
+import com.myprojecticaro.poc_automated_test_a_b.domain.DungeonService;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Variant {@code D}: bottom-up DP solved as a parallel wavefront of tiles, see {@link DungeonService#minHealthWavefront(int[][])}.
+ */
+@Component
+public class WavefrontSolver implements DungeonSolver {
+
+    private final DungeonService dungeonService;
+
+    public WavefrontSolver(DungeonService dungeonService) {
+        this.dungeonService = dungeonService;
+    }
+
+    @Override
+    public String name() {
+        return "D";
+    }
+
+    @Override
+    public Layout layout() {
+        return Layout.ARRAY;
+    }
+
+    @Override
+    public int solve(DungeonInput dungeon) {
+        return dungeonService.minHealthWavefront(dungeon.array());
+    }
+
+    @Override
+    public long workingSetBytes(int rows, int cols) {
+        return 4L * (rows + cols) + 4L * (DungeonService.WAVEFRONT_TILE + 1) * ForkJoinPool.getCommonPoolParallelism();
+    }
+}
@@ -0,0 +1,202 @@
+package com.myprojecticaro.poc_automated_test_a_b.domain.util;
+
+import com.myprojecticaro.poc_automated_test_a_b.domain.model.Grid;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/**
+ * Binary layout of a dungeon: a header of two little-endian int32 values
+ * ({@code rows}, {@code cols}) followed by {@code rows * cols} little-endian
+ * int32 cells in row-major order.
+ * <p>
+ * Unlike JSON, the layout can be decoded straight into primitive buffers or
+ * memory-mapped, and its size is known from the header alone.
+ * </p>
+ */
+public final class BinaryDungeon {
+
+    /**
+     * Byte order of the header and of every cell.
+     */
+    public static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    /**
+     * Size of the {@code rows}/{@code cols} header in bytes.
+     */
+    public static final int HEADER_BYTES = 2 * Integer.BYTES;
+
+    /**
+     * Size of the chunks read from a stream by {@link #readGrid(InputStream)}.
+     */
+    private static final int READ_CHUNK_BYTES = 64 * 1024;
+
+    private BinaryDungeon() {}
+
+    /**
+     * Thrown when a header announces more cells than the caller accepts, or
+     * a body size that differs from the announced {@code Content-Length}.
+     * It is raised before the grid is allocated.
+     */
+    public static final class OversizedException extends IllegalArgumentException {
+        public OversizedException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Dimensions read from a binary dungeon header.
+     *
+     * @param rows number of rows
+     * @param cols number of columns
+     */
+    public record Header(int rows, int cols) {
+
+        public Header {
+            if (rows <= 0 || cols <= 0) {
+                throw new IllegalArgumentException("Dungeon header must have positive rows and cols, got " + rows + "x" + cols);
+            }
+        }
+
+        /**
+         * Returns the number of bytes taken by the cells after the header.
+         *
+         * @return {@code rows * cols * 4}
+         */
+        public long cellBytes() {
+            return (long) rows * cols * Integer.BYTES;
+        }
+    }
+
+    /**
+     * Decodes a header from the next {@link #HEADER_BYTES} of a buffer.
+     *
+     * @param buffer buffer positioned at the header
+     * @return the decoded header
+     * @throws IllegalArgumentException if the dimensions are not positive
+     */
+    public static Header readHeader(ByteBuffer buffer) {
+        ByteOrder previous = buffer.order();
+        buffer.order(ORDER);
+        try {
+            return new Header(buffer.getInt(), buffer.getInt());
+        } finally {
+            buffer.order(previous);
+        }
+    }
+
+    /**
+     * Reads the header of a dungeon file and checks that the file holds
+     * exactly the announced number of cells.
+     *
+     * @param channel channel over the dungeon file
+     * @return the decoded header
+     * @throws IOException              if the file cannot be read
+     * @throws IllegalArgumentException if the header or the file size is invalid
+     */
+    public static Header readHeader(FileChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, buffer.position()) < 0) {
+                throw new IllegalArgumentException("Dungeon file is shorter than its " + HEADER_BYTES + "-byte header");
+            }
+        }
+        buffer.flip();
+        Header header = readHeader(buffer);
+
+        long expected = HEADER_BYTES + header.cellBytes();
+        if (channel.size() != expected) {
+            throw new IllegalArgumentException("Dungeon file of " + header.rows() + "x" + header.cols()
+                    + " must be " + expected + " bytes but is " + channel.size());
+        }
+        return header;
+    }
+
+    /**
+     * Decodes a dungeon in this layout from a stream straight into a flat
+     * {@link Grid}.
+     * <p>
+     * The stream is read through one fixed-size chunk, and its cells are
+     * bulk-copied into the grid's {@code int[]}, so apart from the grid itself
+     * no per-row or per-cell objects are created.
+     * </p>
+     *
+     * <p>
+     * The grid is sized from the 8-byte header, so the header is checked
+     * against {@code maxCells} and the announced body length before anything
+     * is allocated: a small request cannot make the server reserve gigabytes.
+     * </p>
+     *
+     * @param in            stream positioned at the header; it is not closed
+     * @param contentLength announced length of the whole body in bytes, or -1 if unknown
+     * @param maxCells      largest number of cells accepted
+     * @return the decoded grid
+     * @throws IOException              if the stream cannot be read
+     * @throws OversizedException       if the header announces more than {@code maxCells} cells,
+     *                                  or a body size other than {@code contentLength}
+     * @throws IllegalArgumentException if the header is invalid, or the body is truncated or too long
+     */
+    public static Grid readGrid(InputStream in, long contentLength, long maxCells) throws IOException {
+        ByteBuffer chunk = ByteBuffer.allocate(READ_CHUNK_BYTES).order(ORDER);
+        fill(in, chunk, HEADER_BYTES);
+        chunk.flip();
+        Header header = readHeader(chunk);
+        long announced = (long) header.rows() * header.cols();
+        if (announced > Math.min(maxCells, Integer.MAX_VALUE - 8)) {
+            throw new OversizedException("Dungeon of " + header.rows() + "x" + header.cols()
+                    + " exceeds the limit of " + maxCells + " cells per request, use a dungeon file instead");
+        }
+        if (contentLength >= 0 && contentLength != HEADER_BYTES + header.cellBytes()) {
+            throw new OversizedException("Dungeon of " + header.rows() + "x" + header.cols() + " must be "
+                    + (HEADER_BYTES + header.cellBytes()) + " bytes but Content-Length is " + contentLength);
+        }
+
+        int[] cells = new int[header.rows() * header.cols()];
+        int filled = 0;
+        while (filled < cells.length) {
+            if (chunk.remaining() < Integer.BYTES) {
+                chunk.compact();
+                if (!read(in, chunk)) {
+                    throw new IllegalArgumentException("Dungeon body ended after " + filled + " of " + cells.length + " cells");
+                }
+                chunk.flip();
+                continue;
+            }
+            int count = Math.min(chunk.remaining() / Integer.BYTES, cells.length - filled);
+            chunk.asIntBuffer().get(cells, filled, count);
+            chunk.position(chunk.position() + count * Integer.BYTES);
+            filled += count;
+        }
+
+        if (chunk.hasRemaining() || in.read() >= 0) {
+            throw new IllegalArgumentException("Dungeon body is longer than its " + header.rows() + "x" + header.cols() + " header");
+        }
+        return new Grid(header.rows(), header.cols(), cells);
+    }
+
+    /**
+     * Reads into the buffer until it holds at least {@code bytes} bytes of header.
+     */
+    private static void fill(InputStream in, ByteBuffer buffer, int bytes) throws IOException {
+        while (buffer.position() < bytes) {
+            if (!read(in, buffer)) {
+                throw new IllegalArgumentException("Dungeon body is shorter than its " + HEADER_BYTES + "-byte header");
+            }
+        }
+    }
+
+    /**
+     * Reads as many bytes as are available into the buffer's remaining space.
+     *
+     * @return {@code false} once the stream is exhausted
+     */
+    private static boolean read(InputStream in, ByteBuffer buffer) throws IOException {
+        int n = in.read(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+        if (n < 0) return false;
+        buffer.position(buffer.position() + n);
+        return true;
+    }
+}
@@ -0,0 +1,159 @@
+package com.myprojecticaro.poc_automated_test_a_b.domain.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-memory, log-linear latency histogram in microseconds.
+ * <p>
+ * Values below {@value #SUB_BUCKETS} get one bucket each; above that, every
+ * power of two is split into {@value #SUB_BUCKETS} equal sub-buckets, so any
+ * recorded value is reported with a relative error under 1/{@value #SUB_BUCKETS}.
+ * Values up to 2^{@value #MAX_EXPONENT} µs (about 12 days) are resolved; larger
+ * ones land in the last bucket.
+ * </p>
+ *
+ * <p>
+ * {@link #record(long)} is lock-free and allocation-free: it increments one
+ * slot of a pre-sized {@link AtomicLongArray}. Histograms share the same bucket
+ * layout, so {@link Snapshot}s of several histograms can be merged exactly.
+ * </p>
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    static final int MAX_EXPONENT = 40;
+
+    /**
+     * Number of buckets: the linear range plus one group per power of two
+     * from {@code 2^SUB_BUCKET_BITS} to {@code 2^MAX_EXPONENT}.
+     */
+    static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Records one latency.
+     *
+     * @param micros latency in microseconds; negative values count as 0
+     */
+    public void record(long micros) {
+        long value = Math.max(0, micros);
+        counts.incrementAndGet(bucketOf(value));
+        long current = max.get();
+        while (value > current && !max.compareAndSet(current, value)) {
+            current = max.get();
+        }
+    }
+
+    /**
+     * Copies the current counts into an immutable snapshot.
+     *
+     * @return the snapshot
+     */
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts.get(i);
+        }
+        return new Snapshot(copy, max.get());
+    }
+
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) return (int) value;
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent > MAX_EXPONENT) return BUCKETS - 1;
+        int sub = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * Returns the largest value that falls into a bucket.
+     */
+    static long upperBoundOf(int bucket) {
+        if (bucket < SUB_BUCKETS) return bucket;
+        int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long sub = bucket % SUB_BUCKETS;
+        int shift = exponent - SUB_BUCKET_BITS;
+        return ((SUB_BUCKETS + sub + 1) << shift) - 1;
+    }
+
+    /**
+     * Point-in-time copy of a histogram.
+     */
+    public static final class Snapshot {
+        private final long[] counts;
+        private final long max;
+        private final long total;
+
+        private Snapshot(long[] counts, long max) {
+            this.counts = counts;
+            this.max = max;
+            long sum = 0;
+            for (long c : counts) sum += c;
+            this.total = sum;
+        }
+
+        /**
+         * Returns an empty snapshot, the identity of {@link #merge(Snapshot)}.
+         *
+         * @return a snapshot with no recorded values
+         */
+        public static Snapshot empty() {
+            return new Snapshot(new long[BUCKETS], 0);
+        }
+
+        /**
+         * Combines two snapshots as if all their values had been recorded in one histogram.
+         *
+         * @param other the snapshot to add
+         * @return a new merged snapshot
+         */
+        public Snapshot merge(Snapshot other) {
+            long[] merged = new long[BUCKETS];
+            for (int i = 0; i < BUCKETS; i++) {
+                merged[i] = counts[i] + other.counts[i];
+            }
+            return new Snapshot(merged, Math.max(max, other.max));
+        }
+
+        /**
+         * Returns the number of recorded values.
+         *
+         * @return the total count
+         */
+        public long count() {
+            return total;
+        }
+
+        /**
+         * Returns the largest recorded value.
+         *
+         * @return the exact maximum, or 0 if nothing was recorded
+         */
+        public long max() {
+            return max;
+        }
+
+        /**
+         * Returns the value below or at which the given fraction of values fall.
+         * The result is the upper bound of the matching bucket, capped at {@link #max()}.
+         * The last bucket also holds every out-of-range value, so it reports {@link #max()}.
+         *
+         * @param quantile fraction between 0 and 1, e.g. 0.99
+         * @return the estimated quantile, or 0 if nothing was recorded
+         */
+        public long quantile(double quantile) {
+            if (total == 0) return 0;
+            long rank = Math.max(1, (long) Math.ceil(quantile * total));
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts[i];
+                if (seen >= rank) return i == BUCKETS - 1 ? max : Math.min(upperBoundOf(i), max);
+            }
+            return max;
+        }
+    }
+}
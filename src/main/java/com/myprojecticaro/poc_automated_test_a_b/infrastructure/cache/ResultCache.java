@@ -0,0 +1,282 @@
+package com.myprojecticaro.poc_automated_test_a_b.infrastructure.cache;
+
+import com.myprojecticaro.poc_automated_test_a_b.domain.model.Grid;
+import com.myprojecticaro.poc_automated_test_a_b.infrastructure.config.AbConfig;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Content-addressed cache of dungeon results.
+ * <p>
+ * Entries are keyed by the grid dimensions plus a 128-bit hash of its
+ * cells, so resubmitting an identical grid (retries, replays, shared seed
+ * levels) returns the stored minimum health without solving it again. The
+ * grid itself is not retained, so a hit is a match of the dimensions and both
+ * hash halves.
+ * </p>
+ *
+ * <p>
+ * The hash is four independent multiply-fold lanes over the cells, two cells
+ * per step, and takes under half as long as a variant C solve, where SHA-256
+ * took longer than the solve. It is not cryptographic. All lanes start from
+ * secrets drawn once per process, and clients never see a key, so a grid
+ * sharing another grid's key cannot be computed offline; accidental collisions
+ * are bounded by the 128 bits.
+ * </p>
+ *
+ * <p>
+ * The cache is bounded both by entry count ({@code ab.cache.max-entries}) and
+ * by weight ({@code ab.cache.max-weight}), where an entry weighs the number of
+ * cells of its grid. Large grids therefore take a larger share of the budget,
+ * and least recently used entries are evicted until both bounds hold. Access
+ * is serialized on the cache; every operation is O(1) apart from eviction.
+ * </p>
+ */
+@Component
+public class ResultCache {
+
+    private static final long K1 = 0x9E3779B97F4A7C15L;
+    private static final long K2 = 0xC2B2AE3D27D4EB4FL;
+
+    /**
+     * Starting states of the four hash lanes, secret to this process.
+     */
+    private static final long[] SEEDS = new SecureRandom().longs(4).toArray();
+
+    /**
+     * Cache key: grid dimensions plus the 128-bit hash of its cells in
+     * row-major order, as two longs.
+     *
+     * @param rows number of rows
+     * @param cols number of columns
+     * @param h1   first half of the hash
+     * @param h2   second half of the hash
+     */
+    public record Key(int rows, int cols, long h1, long h2) {
+
+        long weight() {
+            return (long) rows * cols;
+        }
+    }
+
+    /**
+     * Point-in-time statistics of the cache.
+     *
+     * @param enabled   whether the cache is switched on
+     * @param entries   number of cached results
+     * @param weight    total weight (cells) of the cached results
+     * @param hits      lookups answered from the cache
+     * @param misses    lookups that had to be solved
+     * @param evictions entries dropped to respect the bounds
+     */
+    public record Stats(boolean enabled, int entries, long weight, long hits, long misses, long evictions) {}
+
+    private final boolean enabled;
+    private final int maxEntries;
+    private final long maxWeight;
+
+    private final LinkedHashMap<Key, Integer> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long weight;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Constructs the cache from its configuration.
+     *
+     * @param cfg configuration object containing the cache switch and bounds
+     */
+    public ResultCache(AbConfig cfg) {
+        this.enabled = cfg.cacheEnabled;
+        this.maxEntries = cfg.cacheMaxEntries;
+        this.maxWeight = cfg.cacheMaxWeight;
+    }
+
+    /**
+     * Returns whether the cache is switched on ({@code ab.cache.enabled}).
+     *
+     * @return {@code true} if lookups and stores are performed
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Computes the cache key of a 2D dungeon.
+     *
+     * @param dungeon 2D integer grid representing the dungeon
+     * @return the key, equal to {@link #keyOf(Grid)} of the same cells
+     */
+    public static Key keyOf(int[][] dungeon) {
+        Hasher hasher = new Hasher();
+        for (int[] row : dungeon) {
+            hasher.update(row);
+        }
+        return hasher.key(dungeon.length, dungeon[0].length);
+    }
+
+    /**
+     * Computes the cache key of a flat grid.
+     *
+     * @param grid flat dungeon grid
+     * @return the key, equal to {@link #keyOf(int[][])} of the same cells
+     */
+    public static Key keyOf(Grid grid) {
+        Hasher hasher = new Hasher();
+        hasher.update(grid.cells());
+        return hasher.key(grid.rows(), grid.cols());
+    }
+
+    /**
+     * Looks up a cached result and counts the hit or miss.
+     *
+     * @param key key of the grid
+     * @return the cached minimum health, or {@code null} if absent
+     */
+    public Integer get(Key key) {
+        Integer result;
+        synchronized (entries) {
+            result = entries.get(key);
+        }
+        (result != null ? hits : misses).increment();
+        return result;
+    }
+
+    /**
+     * Stores a result, evicting least recently used entries until the entry
+     * and weight bounds hold again. A grid heavier than the whole weight budget
+     * is not cached.
+     *
+     * @param key    key of the grid
+     * @param result minimum health computed for the grid
+     */
+    public void put(Key key, int result) {
+        if (key.weight() > maxWeight) return;
+        synchronized (entries) {
+            if (entries.put(key, result) == null) {
+                weight += key.weight();
+            }
+            Iterator<Map.Entry<Key, Integer>> eldest = entries.entrySet().iterator();
+            while (entries.size() > maxEntries || weight > maxWeight) {
+                Key evicted = eldest.next().getKey();
+                eldest.remove();
+                weight -= evicted.weight();
+                evictions.increment();
+            }
+        }
+    }
+
+    /**
+     * Returns the current cache statistics.
+     *
+     * @return a {@link Stats} snapshot
+     */
+    public Stats stats() {
+        synchronized (entries) {
+            return new Stats(enabled, entries.size(), weight, hits.sum(), misses.sum(), evictions.sum());
+        }
+    }
+
+    /**
+     * Four multiply-fold lanes over the cells, packed two per long and dealt
+     * to the lanes in turn, so the lanes' multiplications overlap. A cell left
+     * over at the end of a row is paired with the first cell of the next, so
+     * row arrays and a flat grid of the same cells hash alike.
+     */
+    private static final class Hasher {
+        private long l0 = SEEDS[0];
+        private long l1 = SEEDS[1];
+        private long l2 = SEEDS[2];
+        private long l3 = SEEDS[3];
+        private long words;
+        private long cells;
+        private boolean pending;
+        private int pendingCell;
+
+        void update(int[] row) {
+            int n = row.length;
+            if (n == 0) return;
+            cells += n;
+            int i = 0;
+            if (pending) {
+                word(pack(pendingCell, row[0]));
+                pending = false;
+                i = 1;
+            }
+            // One word at a time until the next word goes to the first lane
+            for (; (words & 3) != 0 && i + 1 < n; i += 2) {
+                word(pack(row[i], row[i + 1]));
+            }
+            long a = l0, b = l1, c = l2, d = l3;
+            int start = i;
+            for (; i + 7 < n; i += 8) {
+                a = fold(a ^ pack(row[i], row[i + 1]), K1);
+                b = fold(b ^ pack(row[i + 2], row[i + 3]), K1);
+                c = fold(c ^ pack(row[i + 4], row[i + 5]), K1);
+                d = fold(d ^ pack(row[i + 6], row[i + 7]), K1);
+            }
+            l0 = a;
+            l1 = b;
+            l2 = c;
+            l3 = d;
+            words += (i - start) / 2;
+            for (; i + 1 < n; i += 2) {
+                word(pack(row[i], row[i + 1]));
+            }
+            if (i < n) {
+                pending = true;
+                pendingCell = row[i];
+            }
+        }
+
+        Key key(int rows, int cols) {
+            if (pending) {
+                word(pack(pendingCell, 0));
+                pending = false;
+            }
+            long h1 = fmix64(l0 ^ fold(l1 ^ cells, K2));
+            long h2 = fmix64(l2 ^ fold(l3 ^ cells, K2));
+            h1 += h2;
+            h2 += h1;
+            return new Key(rows, cols, h1, h2);
+        }
+
+        private void word(long w) {
+            switch ((int) (words++ & 3)) {
+                case 0 -> l0 = fold(l0 ^ w, K1);
+                case 1 -> l1 = fold(l1 ^ w, K1);
+                case 2 -> l2 = fold(l2 ^ w, K1);
+                default -> l3 = fold(l3 ^ w, K1);
+            }
+        }
+
+        private static long pack(int high, int low) {
+            return ((long) high << 32) | (low & 0xFFFFFFFFL);
+        }
+
+        /**
+         * Full 128-bit product of {@code x} and {@code k}, folded to 64 bits.
+         */
+        private static long fold(long x, long k) {
+            return x * k ^ Math.multiplyHigh(x, k);
+        }
+
+        /**
+         * MurmurHash3 finalizer.
+         */
+        private static long fmix64(long h) {
+            h ^= h >>> 33;
+            h *= 0xFF51AFD7ED558CCDL;
+            h ^= h >>> 33;
+            h *= 0xC4CEB9FE1A85EC53L;
+            h ^= h >>> 33;
+            return h;
+        }
+    }
+}
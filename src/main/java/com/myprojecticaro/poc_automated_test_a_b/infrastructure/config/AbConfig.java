@@ -6,6 +6,133 @@ import org.springframework.context.annotation.Configuration;
 
 @Configuration
 public class AbConfig {
-    @Value("${ab.split.a:50}")
-    public int splitA;
-}
\ No newline at end of file
+    @Value("${ab.allocation.mode:fixed}")
+    public String allocationMode;
+
+    @Value("${ab.allocation.salt:min-initial-health-v1}")
+    public String allocationSalt;
+
+    @Value("${ab.allocation.arms:A:50,B:50}")
+    public String allocationArms;
+
+    /** Share of traffic for A in the former two-arm split, or null; see {@code TrafficAllocator#arms}. */
+    @Value("${ab.split.a:}")
+    public Integer splitA;
+
+    @Value("${ab.allocation.min-exploration:0.05}")
+    public double allocationMinExploration;
+
+    @Value("${ab.allocation.min-samples:20}")
+    public long allocationMinSamples;
+
+    @Value("${ab.mapped.dir:./dungeons}")
+    public String mappedDir;
+
+    @Value("${ab.cache.enabled:false}")
+    public boolean cacheEnabled;
+
+    @Value("${ab.cache.max-entries:10000}")
+    public int cacheMaxEntries;
+
+    @Value("${ab.cache.max-weight:100000000}")
+    public long cacheMaxWeight;
+
+    @Value("${ab.persistence.queue-capacity:10000}")
+    public int persistenceQueueCapacity;
+
+    @Value("${ab.persistence.batch-size:500}")
+    public int persistenceBatchSize;
+
+    @Value("${ab.persistence.flush-interval-ms:200}")
+    public long persistenceFlushIntervalMs;
+
+    @Value("${ab.persistence.offer-timeout-ms:50}")
+    public long persistenceOfferTimeoutMs;
+
+    @Value("${ab.persistence.id-block-size:50}")
+    public int persistenceIdBlockSize;
+
+    @Value("${ab.persistence.retries:3}")
+    public int persistenceRetries;
+
+    @Value("${ab.persistence.retry-backoff-ms:100}")
+    public long persistenceRetryBackoffMs;
+
+    @Value("${ab.admission.max-cells:16777216}")
+    public long admissionMaxCells;
+
+    @Value("${ab.admission.large-cells:1000000}")
+    public long admissionLargeCells;
+
+    @Value("${ab.admission.large.concurrency:2}")
+    public int admissionLargeConcurrency;
+
+    @Value("${ab.admission.large.queue-capacity:16}")
+    public int admissionLargeQueueCapacity;
+
+    @Value("${ab.admission.large.memory-budget-mb:1024}")
+    public long admissionLargeMemoryBudgetMb;
+
+    @Value("${ab.shadow.enabled:false}")
+    public boolean shadowEnabled;
+
+    @Value("${ab.shadow.sample-rate:0.01}")
+    public double shadowSampleRate;
+
+    @Value("${ab.shadow.variants:A,B,C,D,E,G}")
+    public String shadowVariants;
+
+    @Value("${ab.shadow.max-cells:1000000}")
+    public long shadowMaxCells;
+
+    @Value("${ab.shadow.threads:1}")
+    public int shadowThreads;
+
+    @Value("${ab.shadow.queue-capacity:32}")
+    public int shadowQueueCapacity;
+
+    @Value("${ab.sessions.idle-timeout-ms:600000}")
+    public long sessionsIdleTimeoutMs;
+
+    @Value("${ab.sessions.memory-budget-mb:256}")
+    public long sessionsMemoryBudgetMb;
+
+    @Value("${ab.maintenance.enabled:true}")
+    public boolean maintenanceEnabled;
+
+    @Value("${ab.maintenance.interval-ms:600000}")
+    public long maintenanceIntervalMs;
+
+    @Value("${ab.maintenance.partitions-ahead-days:7}")
+    public int maintenancePartitionsAheadDays;
+
+    @Value("${ab.maintenance.rollup-delay-minutes:10}")
+    public long maintenanceRollupDelayMinutes;
+
+    @Value("${ab.maintenance.raw-retention-days:30}")
+    public int maintenanceRawRetentionDays;
+
+    @Value("${ab.warmup.enabled:false}")
+    public boolean warmupEnabled;
+
+    @Value("${ab.warmup.rounds:100}")
+    public int warmupRounds;
+
+    @Value("${ab.warmup.max-duration-ms:30000}")
+    public long warmupMaxDurationMs;
+
+    @Value("${ab.warmup.max-cells:1048576}")
+    public long warmupMaxCells;
+
+    @Value("${ab.aggregates.seed-on-startup:true}")
+    public boolean aggregatesSeedOnStartup;
+
+    @Value("${ab.metrics.enabled:true}")
+    public boolean metricsEnabled;
+
+    @Value("${ab.batch.parallelism:64}")
+    public int batchParallelism;
+
+    @Value("${ab.batch.max-items:100000}")
+    public int batchMaxItems;
+}
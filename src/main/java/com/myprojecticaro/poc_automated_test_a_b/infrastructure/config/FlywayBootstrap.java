@@ -0,0 +1,66 @@
+package com.myprojecticaro.poc_automated_test_a_b.infrastructure.config;
+
+import org.flywaydb.core.Flyway;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.EncodedResource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Runs the Flyway migrations, giving an empty database the V1 schema first.
+ * <p>
+ * V1 was released with a markdown header as its first line, which PostgreSQL
+ * rejects, so Flyway has never applied it: every existing database was
+ * created by Hibernate and baselined at V1 ({@code spring.flyway.baseline-on-migrate}).
+ * V1 stays exactly as released, so its checksum never changes. On a database
+ * with neither a schema history nor an {@code experiment_run} table, this
+ * strategy runs V1 with the header treated as a comment and baselines at V1,
+ * which puts new databases on the same path as the existing ones.
+ * </p>
+ */
+@Component
+public class FlywayBootstrap implements FlywayMigrationStrategy {
+
+    private static final Logger log = LoggerFactory.getLogger(FlywayBootstrap.class);
+
+    static final String V1 = "db/migration/V1__create_experiment_run.sql";
+
+    @Override
+    public void migrate(Flyway flyway) {
+        DataSource dataSource = flyway.getConfiguration().getDataSource();
+        try (Connection connection = dataSource.getConnection()) {
+            if (isEmpty(connection, flyway.getConfiguration().getTable())) {
+                log.info("Empty database: creating the V1 schema and baselining at V1");
+                ScriptUtils.executeSqlScript(connection, new EncodedResource(new ClassPathResource(V1), StandardCharsets.UTF_8),
+                        false, false, new String[]{"--", "##"}, ScriptUtils.DEFAULT_STATEMENT_SEPARATOR,
+                        ScriptUtils.DEFAULT_BLOCK_COMMENT_START_DELIMITER, ScriptUtils.DEFAULT_BLOCK_COMMENT_END_DELIMITER);
+                flyway.baseline();
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not inspect the database before migrating", e);
+        }
+        flyway.migrate();
+    }
+
+    /**
+     * Returns whether the connection's schema has neither the schema history nor {@code experiment_run}.
+     */
+    private static boolean isEmpty(Connection connection, String historyTable) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(
+                     "select to_regclass('experiment_run') is null and to_regclass('" + historyTable + "') is null")) {
+            rs.next();
+            return rs.getBoolean(1);
+        }
+    }
+}
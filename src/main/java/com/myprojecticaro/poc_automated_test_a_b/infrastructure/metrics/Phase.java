@@ -0,0 +1,58 @@
+package com.myprojecticaro.poc_automated_test_a_b.infrastructure.metrics;
+
+/**
+ * The consecutive phases of a {@code POST /api/v1/dungeon/min-initial-health}
+ * request timed by {@link RequestTimings}.
+ * <p>
+ * Every phase runs from the end of the previous one, so the phases of a
+ * request add up to its {@link #TOTAL}. Phases that did not happen, such as
+ * {@link #SOLVE} on a cache hit, are not recorded.
+ * </p>
+ */
+public enum Phase {
+
+    /** Routing, reading and decoding the body (JSON or binary) and validation, up to the controller. */
+    PARSE("parse"),
+
+    /** Resolving the forced variant or letting the traffic allocator pick one. */
+    ASSIGN("assign"),
+
+    /** Admission by the solve lanes, including the wait in the large-grid lane's queue. */
+    QUEUE("queue"),
+
+    /** Hashing the grid and looking it up in the result cache, when it is enabled. */
+    CACHE("cache"),
+
+    /** Converting the grid to the solver's layout. */
+    PREPARE("prepare"),
+
+    /** The solver itself, the time stored in {@code experiment_run.micros}. */
+    SOLVE("solve"),
+
+    /** Shadow sampling, aggregates, histograms, allocator and queueing the run for the database. */
+    RECORD("record"),
+
+    /** Building the response and handing it back to the servlet container. */
+    DISPATCH("dispatch"),
+
+    /** Serializing and writing the response body. */
+    SERIALIZE("serialize"),
+
+    /** The whole request, from the timing filter to the written response. */
+    TOTAL("total");
+
+    private final String label;
+
+    Phase(String label) {
+        this.label = label;
+    }
+
+    /**
+     * Returns the value of the {@code phase} label in the exported metrics.
+     *
+     * @return the lower-case phase name
+     */
+    public String label() {
+        return label;
+    }
+}
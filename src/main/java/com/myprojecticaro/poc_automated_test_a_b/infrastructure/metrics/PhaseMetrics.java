@@ -0,0 +1,153 @@
+package com.myprojecticaro.poc_automated_test_a_b.infrastructure.metrics;
+
+import com.myprojecticaro.poc_automated_test_a_b.domain.util.LatencyHistogram;
+import com.myprojecticaro.poc_automated_test_a_b.infrastructure.config.AbConfig;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-variant distributions of the {@link RequestTimings} of finished requests,
+ * rendered in the Prometheus text exposition format.
+ * <p>
+ * The series of a variant are created on its first request. Recording a
+ * request after that only looks them up by the variant name and increments
+ * pre-sized {@link LatencyHistogram} buckets and sums, so it never allocates.
+ * Each distribution is exported as a summary with the same quantiles as
+ * {@code /api/v1/experiments/latency}; the histograms reset on restart.
+ * </p>
+ */
+@Component
+public class PhaseMetrics {
+
+    private static final Phase[] PHASES = Phase.values();
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    /**
+     * One exported distribution: its histogram plus the exact sum Prometheus expects.
+     */
+    private static final class Summary {
+        final LatencyHistogram values = new LatencyHistogram();
+        final LongAdder sum = new LongAdder();
+
+        void record(long value) {
+            values.record(value);
+            sum.add(value);
+        }
+    }
+
+    /**
+     * Every distribution of one variant.
+     */
+    private static final class Series {
+        final Summary[] phases = new Summary[PHASES.length];
+        final Summary allocated = new Summary();
+        final Summary rows = new Summary();
+        final Summary cols = new Summary();
+
+        Series() {
+            for (int i = 0; i < phases.length; i++) phases[i] = new Summary();
+        }
+    }
+
+    private final boolean enabled;
+    private final Map<String, Series> series = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs the metrics from their configuration.
+     *
+     * @param cfg configuration object containing whether requests are instrumented
+     */
+    public PhaseMetrics(AbConfig cfg) {
+        this.enabled = cfg.metricsEnabled;
+    }
+
+    /**
+     * Returns whether requests are timed at all ({@code ab.metrics.enabled}).
+     *
+     * @return true if {@link PhaseTimingFilter} instruments requests
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Records a finished request under its variant.
+     *
+     * @param timings the request's timings; ignored if it was never assigned a variant
+     */
+    public void record(RequestTimings timings) {
+        String variant = timings.variant();
+        if (variant == null) return;
+        Series s = series.get(variant);
+        if (s == null) s = series.computeIfAbsent(variant, v -> new Series());
+
+        for (int i = 0; i < PHASES.length; i++) {
+            long micros = timings.micros(PHASES[i]);
+            if (micros >= 0) s.phases[i].record(micros);
+        }
+        long allocated = timings.allocated();
+        if (allocated >= 0) s.allocated.record(allocated);
+        s.rows.record(timings.rows());
+        s.cols.record(timings.cols());
+    }
+
+    /**
+     * Renders every series in the Prometheus text exposition format, version 0.0.4.
+     *
+     * @return the scrape body
+     */
+    public String scrape() {
+        Map<String, Series> sorted = new TreeMap<>(series);
+        StringBuilder out = new StringBuilder(4096);
+
+        header(out, "dungeon_request_phase_seconds",
+                "Time spent in each phase of a min-initial-health request.");
+        sorted.forEach((variant, s) -> {
+            for (Phase phase : PHASES) {
+                summary(out, "dungeon_request_phase_seconds",
+                        "variant=\"" + variant + "\",phase=\"" + phase.label() + "\"",
+                        s.phases[phase.ordinal()], 1e-6);
+            }
+        });
+
+        header(out, "dungeon_request_allocated_bytes",
+                "Heap allocated by a min-initial-health request, on every thread it ran on.");
+        sorted.forEach((variant, s) ->
+                summary(out, "dungeon_request_allocated_bytes", "variant=\"" + variant + "\"", s.allocated, 1));
+
+        header(out, "dungeon_request_grid_rows", "Rows of the dungeon grids of min-initial-health requests.");
+        sorted.forEach((variant, s) ->
+                summary(out, "dungeon_request_grid_rows", "variant=\"" + variant + "\"", s.rows, 1));
+
+        header(out, "dungeon_request_grid_cols", "Columns of the dungeon grids of min-initial-health requests.");
+        sorted.forEach((variant, s) ->
+                summary(out, "dungeon_request_grid_cols", "variant=\"" + variant + "\"", s.cols, 1));
+
+        return out.toString();
+    }
+
+    private static void header(StringBuilder out, String name, String help) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(" summary\n");
+    }
+
+    /**
+     * Appends the quantiles, sum and count of one distribution, with every
+     * value multiplied by {@code scale} (1e-6 turns microseconds into seconds).
+     */
+    private static void summary(StringBuilder out, String name, String labels, Summary summary, double scale) {
+        LatencyHistogram.Snapshot snapshot = summary.values.snapshot();
+        if (snapshot.count() == 0) return;
+        for (double q : QUANTILES) {
+            out.append(name).append('{').append(labels).append(",quantile=\"").append(q).append("\"} ")
+                    .append(snapshot.quantile(q) * scale).append('\n');
+        }
+        out.append(name).append("_sum{").append(labels).append("} ").append(summary.sum.sum() * scale).append('\n');
+        out.append(name).append("_count{").append(labels).append("} ").append(snapshot.count()).append('\n');
+    }
+}
@@ -0,0 +1,33 @@
+package com.myprojecticaro.poc_automated_test_a_b.infrastructure.metrics;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Ends the {@link Phase#DISPATCH} phase of an instrumented request right before
+ * its body is serialized, so {@link PhaseTimingFilter} can time the serialization.
+ */
+@ControllerAdvice
+public class PhaseTimingAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (request instanceof ServletServerHttpRequest servlet) {
+            PhaseTimingFilter.timingsOf(servlet.getServletRequest()).mark(Phase.DISPATCH);
+        }
+        return body;
+    }
+}
@@ -0,0 +1,84 @@
+package com.myprojecticaro.poc_automated_test_a_b.infrastructure.metrics;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Attaches {@link RequestTimings} to {@code POST /api/v1/dungeon/min-initial-health}
+ * requests and records them in {@link PhaseMetrics} once the response is written.
+ * <p>
+ * The filter wraps every dispatch of the request, including the async dispatch
+ * that writes the response of a {@link java.util.concurrent.CompletableFuture},
+ * and adds the heap each dispatch allocated on its thread. Only successful
+ * requests are recorded, so rejected grids do not skew the phases of their variant.
+ * </p>
+ */
+@Component
+public class PhaseTimingFilter extends OncePerRequestFilter {
+
+    static final String PATH = "/api/v1/dungeon/min-initial-health";
+
+    private final PhaseMetrics metrics;
+
+    /**
+     * Constructs the filter.
+     *
+     * @param metrics the metrics finished requests are recorded in
+     */
+    public PhaseTimingFilter(PhaseMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Returns the timings of an instrumented request.
+     *
+     * @param request the request
+     * @return its timings, or {@link RequestTimings#NONE} if it is not instrumented
+     */
+    public static RequestTimings timingsOf(ServletRequest request) {
+        return request.getAttribute(RequestTimings.ATTRIBUTE) instanceof RequestTimings timings
+                ? timings
+                : RequestTimings.NONE;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !metrics.isEnabled()
+                || !"POST".equals(request.getMethod())
+                || !request.getRequestURI().endsWith(PATH);
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestTimings timings = timingsOf(request);
+        if (timings == RequestTimings.NONE) {
+            timings = new RequestTimings();
+            request.setAttribute(RequestTimings.ATTRIBUTE, timings);
+        }
+
+        long allocated = RequestTimings.allocatedBytes();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            timings.addRequestThreadBytes(RequestTimings.allocatedBytes() - allocated);
+            // The last dispatch is the one that wrote the response
+            if (!isAsyncStarted(request) && response.getStatus() < 400 && timings.micros(Phase.DISPATCH) >= 0) {
+                timings.finish();
+                metrics.record(timings);
+            }
+        }
+    }
+}
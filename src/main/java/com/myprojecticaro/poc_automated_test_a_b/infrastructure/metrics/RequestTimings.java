@@ -0,0 +1,172 @@
+package com.myprojecticaro.poc_automated_test_a_b.infrastructure.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+
+/**
+ * Phase timings, grid dimensions and allocated bytes of one request.
+ * <p>
+ * Created by {@link PhaseTimingFilter} and filled in as the request moves
+ * through the controller and the
+ * {@link com.myprojecticaro.poc_automated_test_a_b.infrastructure.service.ExperimentService}:
+ * each {@link #mark(Phase)} closes a phase at the current time and opens the
+ * next one. A request may hop threads (the large-grid lane, the async
+ * dispatch), but its phases never run concurrently and every hop is a
+ * hand-off through a future or the servlet container, so plain fields are
+ * enough.
+ * </p>
+ *
+ * <p>
+ * Code that can also run outside an instrumented request takes {@link #NONE},
+ * whose methods do nothing.
+ * </p>
+ */
+public final class RequestTimings {
+
+    /** Request attribute holding the timings of an instrumented request. */
+    static final String ATTRIBUTE = RequestTimings.class.getName();
+
+    private static final Phase[] PHASES = Phase.values();
+
+    private static final com.sun.management.ThreadMXBean THREADS = allocationCounter();
+
+    /** Timings of requests that are not instrumented; declared after the fields its constructor reads. */
+    public static final RequestTimings NONE = new RequestTimings(false);
+
+    private final boolean enabled;
+    private final long start;
+    private long lastMark;
+    private final long[] micros = new long[PHASES.length];
+    private String variant;
+    private int rows;
+    private int cols;
+    private long requestThreadBytes;
+    private long offThreadBytes;
+
+    RequestTimings() {
+        this(true);
+    }
+
+    private RequestTimings(boolean enabled) {
+        this.enabled = enabled;
+        this.start = enabled ? System.nanoTime() : 0;
+        this.lastMark = start;
+        Arrays.fill(micros, -1);
+    }
+
+    /**
+     * Ends the current phase now and starts the next one.
+     *
+     * @param phase the phase that just ended
+     */
+    public void mark(Phase phase) {
+        if (!enabled) return;
+        long now = System.nanoTime();
+        micros[phase.ordinal()] = (now - lastMark) / 1_000;
+        lastMark = now;
+    }
+
+    /**
+     * Ends the {@link Phase#ASSIGN} phase and sets the dimensions the request is tagged with.
+     *
+     * @param variant name of the solver assigned to the request
+     * @param rows    number of rows in the dungeon grid
+     * @param cols    number of columns in the dungeon grid
+     */
+    public void assigned(String variant, int rows, int cols) {
+        if (!enabled) return;
+        mark(Phase.ASSIGN);
+        this.variant = variant;
+        this.rows = rows;
+        this.cols = cols;
+    }
+
+    /**
+     * Adds bytes allocated for the request by a thread other than the request
+     * threads, such as a large-grid lane.
+     *
+     * @param bytes the difference of two {@link #allocatedBytes()} readings
+     */
+    public void addOffThreadBytes(long bytes) {
+        if (enabled) offThreadBytes += bytes;
+    }
+
+    void addRequestThreadBytes(long bytes) {
+        requestThreadBytes += bytes;
+    }
+
+    /**
+     * Ends the {@link Phase#SERIALIZE} phase and the request.
+     */
+    void finish() {
+        mark(Phase.SERIALIZE);
+        micros[Phase.TOTAL.ordinal()] = (lastMark - start) / 1_000;
+    }
+
+    /**
+     * Returns the duration of a phase.
+     *
+     * @param phase the phase
+     * @return the phase's microseconds, or -1 if it did not happen
+     */
+    public long micros(Phase phase) {
+        return micros[phase.ordinal()];
+    }
+
+    /**
+     * Returns the variant the request was assigned.
+     *
+     * @return the solver name, or null if the request failed before assignment
+     */
+    public String variant() {
+        return variant;
+    }
+
+    /**
+     * Returns the number of rows in the dungeon grid.
+     *
+     * @return the rows, or 0 before assignment
+     */
+    public int rows() {
+        return rows;
+    }
+
+    /**
+     * Returns the number of columns in the dungeon grid.
+     *
+     * @return the columns, or 0 before assignment
+     */
+    public int cols() {
+        return cols;
+    }
+
+    /**
+     * Returns the heap bytes allocated for the request on every thread it ran on.
+     *
+     * @return the allocated bytes, or -1 if the JVM does not count allocations per thread
+     */
+    public long allocated() {
+        return THREADS != null ? requestThreadBytes + offThreadBytes : -1;
+    }
+
+    /**
+     * Returns the bytes allocated by the calling thread so far. The call itself
+     * does not allocate.
+     *
+     * @return the thread's allocated bytes, or -1 if the JVM does not count allocations per thread
+     */
+    public static long allocatedBytes() {
+        return THREADS != null ? THREADS.getCurrentThreadAllocatedBytes() : -1;
+    }
+
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean counter
+                && counter.isThreadAllocatedMemorySupported()
+                && counter.isThreadAllocatedMemoryEnabled()) {
+            return counter;
+        }
+        return null;
+    }
+}
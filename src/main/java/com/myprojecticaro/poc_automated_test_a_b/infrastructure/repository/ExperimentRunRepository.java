@@ -1,14 +1,46 @@
 package com.myprojecticaro.poc_automated_test_a_b.infrastructure.repository;
 
 import com.myprojecticaro.poc_automated_test_a_b.domain.model.ExperimentRun;
-import com.myprojecticaro.poc_automated_test_a_b.domain.model.Variant;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 
+import java.util.List;
+
 public interface ExperimentRunRepository extends JpaRepository<ExperimentRun, Long> {
-    long countByVariant(Variant v);
 
-    @Query("select avg(e.micros) from ExperimentRun e")
-    Double avgMicros();
+    /**
+     * Per-variant totals of every stored run: the hourly rollups of the
+     * rolled-up days plus the raw runs after the last rolled-up day.
+     * <p>
+     * This is the database fallback for the in-memory aggregates: it seeds them
+     * at startup and answers {@code reconcile=true} summaries, whose average is
+     * derived from these sums. An average over {@code experiment_run} alone
+     * would miss every run whose partition was dropped after being rolled up.
+     * </p>
+     */
+    @Query(value = """
+            select variant as "variant",
+                   sum(runs)::bigint as "runs",
+                   sum(timed_runs)::bigint as "timedRuns",
+                   sum(sum_micros)::bigint as "sumMicros",
+                   min(min_micros) as "minMicros",
+                   max(max_micros) as "maxMicros"
+            from (
+                select variant, runs, timed_runs, sum_micros, min_micros, max_micros
+                from experiment_run_rollup
+                union all
+                select variant,
+                       count(*),
+                       count(*) filter (where not cached and not warmup),
+                       coalesce(sum(micros) filter (where not cached and not warmup), 0),
+                       min(micros) filter (where not cached and not warmup),
+                       max(micros) filter (where not cached and not warmup)
+                from experiment_run
+                where created_at >= (select coalesce(max(range_end), '-infinity') from experiment_run_rollup_log)
+                group by variant
+            ) t
+            group by variant
+            """, nativeQuery = true)
+    List<VariantTotals> totalsByVariant();
 }
@@ -0,0 +1,315 @@
+package com.myprojecticaro.poc_automated_test_a_b.infrastructure.repository;
+
+import com.myprojecticaro.poc_automated_test_a_b.domain.model.ExperimentRun;
+import com.myprojecticaro.poc_automated_test_a_b.infrastructure.config.AbConfig;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Write-behind persistence for {@link ExperimentRun}s.
+ * <p>
+ * Runs are given an id from the table's sequence up front and put on a
+ * bounded queue, so a request never waits for an INSERT. A single background
+ * flusher drains the queue and batch-inserts it through JDBC as soon as
+ * {@code ab.persistence.batch-size} runs are pending or
+ * {@code ab.persistence.flush-interval-ms} has passed since the oldest one.
+ * </p>
+ *
+ * <p>
+ * When the queue is full, callers wait up to {@code ab.persistence.offer-timeout-ms}
+ * for space and then insert their own runs synchronously, which slows producers
+ * down to the database's pace instead of dropping data. Pending runs are
+ * flushed on shutdown, including runs queued while the flusher was exiting.
+ * </p>
+ *
+ * <p>
+ * A batch that fails is not dropped. When the database rejects one of its rows
+ * (a {@link DataIntegrityViolationException}), the batch is split in halves and
+ * each half is inserted again, so only the offending rows are lost. Any other
+ * failure, such as a lost connection, is retried up to
+ * {@code ab.persistence.retries} times, with a backoff starting at
+ * {@code ab.persistence.retry-backoff-ms} and doubling. Runs that still cannot
+ * be inserted are counted in {@link Stats#failed()} and logged with their ids.
+ * </p>
+ */
+@Component
+public class ExperimentRunWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(ExperimentRunWriter.class);
+
+    private static final String INSERT_SQL = """
+            insert into experiment_run (id, variant, rows, cols, result, micros, cached, warmup, created_at, client_ip)
+            values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    /**
+     * Resolves the sequence the migrations own by {@code experiment_run.id},
+     * and fetches a whole block in one round trip.
+     */
+    private static final String NEXT_IDS_SQL =
+            "select nextval(pg_get_serial_sequence('experiment_run', 'id')) from generate_series(1, ?)";
+
+    private final JdbcTemplate jdbc;
+    private final BlockingQueue<ExperimentRun> queue;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final long offerTimeoutMs;
+    private final int idBlockSize;
+    private final int retries;
+    private final long retryBackoffMs;
+
+    private final Thread flusher = new Thread(this::flushLoop, "experiment-run-writer");
+    private volatile boolean running = true;
+
+    private long[] idBlock = new long[0];
+    private int idCursor;
+
+    private final LongAdder written = new LongAdder();
+    private final LongAdder writtenSynchronously = new LongAdder();
+    private final LongAdder retried = new LongAdder();
+    private final LongAdder split = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    /**
+     * Point-in-time statistics of the writer.
+     *
+     * @param pending              runs waiting in the queue
+     * @param written              runs inserted so far
+     * @param writtenSynchronously runs inserted by their caller because the queue was full
+     * @param retried              inserts attempted again after a failure other than a rejected row
+     * @param split                failed batches split in halves to isolate rejected rows
+     * @param failed               runs lost because they could not be inserted
+     */
+    public record Stats(int pending, long written, long writtenSynchronously, long retried, long split, long failed) {}
+
+    /**
+     * Constructs the writer from its configuration.
+     *
+     * @param jdbc JDBC access to the experiment database
+     * @param cfg  configuration object containing the queue and batching limits
+     */
+    public ExperimentRunWriter(JdbcTemplate jdbc, AbConfig cfg) {
+        this.jdbc = jdbc;
+        this.queue = new ArrayBlockingQueue<>(cfg.persistenceQueueCapacity);
+        this.batchSize = cfg.persistenceBatchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(cfg.persistenceFlushIntervalMs);
+        this.offerTimeoutMs = cfg.persistenceOfferTimeoutMs;
+        this.idBlockSize = cfg.persistenceIdBlockSize;
+        this.retries = cfg.persistenceRetries;
+        this.retryBackoffMs = cfg.persistenceRetryBackoffMs;
+        this.flusher.setDaemon(true);
+    }
+
+    @PostConstruct
+    void start() {
+        flusher.start();
+    }
+
+    /**
+     * Stops the flusher and blocks until every pending run has been inserted.
+     * Runs written after this point are inserted synchronously.
+     */
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        flusher.join();
+        drainQueue();
+    }
+
+    /**
+     * Allocates the id of the next run from the table's sequence.
+     * <p>
+     * Ids are fetched in blocks of {@code ab.persistence.id-block-size}, so only
+     * one call in a block touches the database.
+     * </p>
+     *
+     * @return a fresh, unique run id
+     */
+    public synchronized long nextId() {
+        if (idCursor == idBlock.length) {
+            idBlock = jdbc.queryForList(NEXT_IDS_SQL, Long.class, idBlockSize)
+                    .stream().mapToLong(Long::longValue).toArray();
+            idCursor = 0;
+        }
+        return idBlock[idCursor++];
+    }
+
+    /**
+     * Allocates {@code count} run ids from the table's sequence in one round trip,
+     * bypassing the block used by {@link #nextId()}.
+     *
+     * @param count number of ids to allocate
+     * @return fresh, unique run ids
+     */
+    public long[] nextIds(int count) {
+        if (count == 0) return new long[0];
+        return jdbc.queryForList(NEXT_IDS_SQL, Long.class, count)
+                .stream().mapToLong(Long::longValue).toArray();
+    }
+
+    /**
+     * Inserts a group of runs right away as one JDBC batch, bypassing the queue.
+     * Meant for callers that already collected many runs, such as batch requests.
+     *
+     * @param runs the runs to persist; their ids must come from this writer
+     */
+    public void writeAll(List<ExperimentRun> runs) {
+        if (runs.isEmpty()) return;
+        insert(runs);
+    }
+
+    /**
+     * Queues a run for insertion. Returns immediately unless the queue is full,
+     * in which case the run is inserted by the caller after the offer timeout.
+     *
+     * @param run the run to persist; its id must come from {@link #nextId()}
+     */
+    public void write(ExperimentRun run) {
+        try {
+            if (running && queue.offer(run, offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                // The flusher may have exited between the check and the offer; then nobody else drains the queue
+                if (!running) drainQueue();
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        insert(List.of(run));
+        writtenSynchronously.increment();
+    }
+
+    /**
+     * Returns the current writer statistics.
+     *
+     * @return a {@link Stats} snapshot
+     */
+    public Stats stats() {
+        return new Stats(queue.size(), written.sum(), writtenSynchronously.sum(), retried.sum(), split.sum(), failed.sum());
+    }
+
+    /**
+     * Inserts whatever is left in the queue once the flusher is stopping or gone.
+     * Each run is removed from the queue by exactly one thread, so none is inserted twice.
+     */
+    private void drainQueue() {
+        List<ExperimentRun> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            insert(batch);
+            batch.clear();
+        }
+    }
+
+    private void flushLoop() {
+        List<ExperimentRun> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                ExperimentRun first = queue.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+                if (first == null) continue;
+                batch.add(first);
+
+                // Fill the batch until it is full or the oldest run has waited long enough
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                while (batch.size() < batchSize && running) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) break;
+                    ExperimentRun next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) break;
+                    batch.add(next);
+                }
+                queue.drainTo(batch, batchSize - batch.size());
+
+                insert(batch);
+            } catch (InterruptedException e) {
+                // The flusher owns its thread: an interrupt only means drain what is left and exit
+                running = false;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Inserts runs as one JDBC batch, splitting it around rejected rows and
+     * retrying other failures, see the class documentation.
+     */
+    private void insert(List<ExperimentRun> runs) {
+        for (int attempt = 0; ; attempt++) {
+            try {
+                insertBatch(runs);
+                written.add(runs.size());
+                return;
+            } catch (DataIntegrityViolationException e) {
+                // A batch is one transaction, so none of its rows were stored
+                if (runs.size() > 1) {
+                    split.increment();
+                    int half = runs.size() / 2;
+                    insert(runs.subList(0, half));
+                    insert(runs.subList(half, runs.size()));
+                } else {
+                    failed.increment();
+                    log.error("Could not insert experiment run {}, the database rejected it", runs.getFirst().getId(), e);
+                }
+                return;
+            } catch (RuntimeException e) {
+                if (attempt < retries && backOff(attempt)) {
+                    retried.increment();
+                    log.warn("Could not insert {} experiment runs, retrying: {}", runs.size(), e.toString());
+                    continue;
+                }
+                failed.add(runs.size());
+                log.error("Could not insert {} experiment runs with ids {} to {}", runs.size(),
+                        runs.getFirst().getId(), runs.getLast().getId(), e);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Waits before retry {@code attempt + 1}.
+     *
+     * @return {@code false} if the thread was interrupted and should give up
+     */
+    private boolean backOff(int attempt) {
+        try {
+            Thread.sleep(retryBackoffMs << Math.min(attempt, 16));
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void insertBatch(List<ExperimentRun> runs) {
+        jdbc.batchUpdate(INSERT_SQL, runs, runs.size(), (ps, run) -> {
+            ps.setLong(1, run.getId());
+            ps.setString(2, run.getVariant());
+            ps.setInt(3, run.getRows());
+            ps.setInt(4, run.getCols());
+            ps.setInt(5, run.getResult());
+            ps.setLong(6, run.getMicros());
+            ps.setBoolean(7, run.isCached());
+            ps.setBoolean(8, run.isWarmup());
+            ps.setTimestamp(9, Timestamp.from(run.getCreatedAt().toInstant()));
+            if (run.getClientIp() != null) {
+                ps.setString(10, run.getClientIp());
+            } else {
+                ps.setNull(10, Types.VARCHAR);
+            }
+        });
+    }
+}
@@ -0,0 +1,16 @@
+package com.myprojecticaro.poc_automated_test_a_b.infrastructure.repository;
+
+/**
+ * Projection of the per-variant totals stored in {@code experiment_run} and its rollups.
+ * Latency columns only cover runs that were actually solved after the warm-up
+ * (neither cached nor warm-up runs);
+ * min and max are {@code null} when a variant has no such run.
+ */
+public interface VariantTotals {
+    String getVariant();
+    long getRuns();
+    long getTimedRuns();
+    long getSumMicros();
+    Long getMinMicros();
+    Long getMaxMicros();
+}
@@ -0,0 +1,267 @@
+package com.myprojecticaro.poc_automated_test_a_b.infrastructure.service;
+
+import com.myprojecticaro.poc_automated_test_a_b.domain.IncrementalDungeon;
+import com.myprojecticaro.poc_automated_test_a_b.domain.model.Grid;
+import com.myprojecticaro.poc_automated_test_a_b.domain.util.Stopwatch;
+import com.myprojecticaro.poc_automated_test_a_b.infrastructure.config.AbConfig;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Service;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Stateful editing sessions over {@link IncrementalDungeon}s.
+ * <p>
+ * A client uploads a dungeon once and then sends cell edits; each edit only
+ * recomputes the part of the DP table it invalidates. Sessions live in memory
+ * and are evicted when idle for {@code ab.sessions.idle-timeout-ms}, and,
+ * least recently used first, when a new session would push the total past
+ * {@code ab.sessions.memory-budget-mb}. If nothing is left to evict because
+ * the budget is held by sessions still being created, a new session is
+ * refused with a {@link BusyException} rather than waiting for them. Edits to
+ * one session are serialized; different sessions are independent.
+ * </p>
+ */
+@Service
+public class DungeonSessions {
+
+    /**
+     * Current state of a session after it was created or edited.
+     *
+     * @param id          session id
+     * @param rows        number of rows
+     * @param cols        number of columns
+     * @param result      minimum initial health of the current dungeon
+     * @param micros      time spent solving or re-solving, in microseconds
+     * @param recomputed  DP cells computed by the last operation
+     * @param version     number of edit batches applied so far
+     * @param memoryBytes heap held by the session
+     */
+    public record State(String id, int rows, int cols, int result, long micros, long recomputed, long version, long memoryBytes) {}
+
+    /**
+     * Point-in-time statistics of the session store.
+     *
+     * @param sessions     live sessions
+     * @param memoryBytes  heap held by them
+     * @param budgetBytes  {@code ab.sessions.memory-budget-mb} in bytes
+     * @param evictedIdle  sessions evicted for being idle
+     * @param evictedBudget sessions evicted to make room for new ones
+     */
+    public record Stats(int sessions, long memoryBytes, long budgetBytes, long evictedIdle, long evictedBudget) {}
+
+    /**
+     * Thrown when the memory budget is taken by sessions still being created,
+     * so there is nothing to evict yet.
+     */
+    public static final class BusyException extends RuntimeException {
+        BusyException(String message) {
+            super(message);
+        }
+
+        /**
+         * Returns how long the client should wait before retrying.
+         *
+         * @return seconds to wait
+         */
+        public long retryAfterSeconds() {
+            return BUSY_RETRY_AFTER_SECONDS;
+        }
+    }
+
+    /**
+     * Retry hint for a {@link BusyException}: pending sessions are solved and stored, or fail, within moments.
+     */
+    private static final long BUSY_RETRY_AFTER_SECONDS = 1;
+
+    private static final class Session {
+        final String id;
+        final IncrementalDungeon dungeon;
+        final long bytes;
+        long version;
+        volatile long lastAccessNanos = System.nanoTime();
+
+        Session(String id, IncrementalDungeon dungeon, long bytes) {
+            this.id = id;
+            this.dungeon = dungeon;
+            this.bytes = bytes;
+        }
+    }
+
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    private final AtomicLong memoryBytes = new AtomicLong();
+    private final LongAdder evictedIdle = new LongAdder();
+    private final LongAdder evictedBudget = new LongAdder();
+    private final long idleTimeoutNanos;
+    private final long budgetBytes;
+
+    private final ScheduledExecutorService sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "dungeon-session-sweeper");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /**
+     * Constructs the session store from its configuration.
+     *
+     * @param cfg configuration object containing the idle timeout and memory budget
+     */
+    public DungeonSessions(AbConfig cfg) {
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(cfg.sessionsIdleTimeoutMs);
+        this.budgetBytes = cfg.sessionsMemoryBudgetMb << 20;
+    }
+
+    @PostConstruct
+    void start() {
+        long period = Math.max(1_000, TimeUnit.NANOSECONDS.toMillis(idleTimeoutNanos) / 4);
+        sweeper.scheduleWithFixedDelay(this::evictIdle, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        sweeper.shutdownNow();
+    }
+
+    /**
+     * Solves a dungeon from scratch and opens a session on it.
+     *
+     * @param dungeon the 2D dungeon grid
+     * @return the state of the new session
+     * @throws IllegalArgumentException if the dungeon is not rectangular
+     * @throws IllegalStateException    if the dungeon alone exceeds the memory budget
+     * @throws BusyException            if the budget is held by sessions still being created
+     */
+    public State create(int[][] dungeon) {
+        int rows = dungeon.length;
+        int cols = rows == 0 ? 0 : dungeon[0].length;
+        long bytes = IncrementalDungeon.bytesFor(rows, cols);
+        if (bytes > budgetBytes) {
+            throw new IllegalStateException("A " + rows + "x" + cols + " session needs about " + (bytes >> 20)
+                    + " MB, more than the session budget of " + (budgetBytes >> 20) + " MB");
+        }
+        makeRoom(bytes);
+
+        Stopwatch sw = new Stopwatch();
+        IncrementalDungeon incremental;
+        try {
+            incremental = new IncrementalDungeon(Grid.of(dungeon));
+        } catch (RuntimeException e) {
+            memoryBytes.addAndGet(-bytes);
+            throw e;
+        }
+        long micros = sw.micros();
+
+        Session session = new Session(UUID.randomUUID().toString(), incremental, bytes);
+        sessions.put(session.id, session);
+        return stateOf(session, micros, (long) rows * cols);
+    }
+
+    /**
+     * Applies a batch of cell edits to a session and re-solves the affected region.
+     *
+     * @param id         session id
+     * @param rowIndexes rows of the edited cells
+     * @param colIndexes columns of the edited cells
+     * @param values     new cell values
+     * @return the updated state, or empty if the session does not exist or was evicted
+     * @throws IllegalArgumentException if an edit lies outside the dungeon
+     */
+    public Optional<State> update(String id, int[] rowIndexes, int[] colIndexes, int[] values) {
+        Session session = sessions.get(id);
+        if (session == null) return Optional.empty();
+        synchronized (session) {
+            session.lastAccessNanos = System.nanoTime();
+            Stopwatch sw = new Stopwatch();
+            long recomputed = session.dungeon.update(rowIndexes, colIndexes, values);
+            long micros = sw.micros();
+            session.version++;
+            return Optional.of(stateOf(session, micros, recomputed));
+        }
+    }
+
+    /**
+     * Returns the current state of a session.
+     *
+     * @param id session id
+     * @return the state, or empty if the session does not exist or was evicted
+     */
+    public Optional<State> get(String id) {
+        Session session = sessions.get(id);
+        if (session == null) return Optional.empty();
+        synchronized (session) {
+            session.lastAccessNanos = System.nanoTime();
+            return Optional.of(stateOf(session, 0, 0));
+        }
+    }
+
+    /**
+     * Closes a session and releases its memory.
+     *
+     * @param id session id
+     * @return whether the session existed
+     */
+    public boolean close(String id) {
+        return remove(id) != null;
+    }
+
+    /**
+     * Returns the current statistics of the session store.
+     *
+     * @return a {@link Stats} snapshot
+     */
+    public Stats stats() {
+        return new Stats(sessions.size(), memoryBytes.get(), budgetBytes, evictedIdle.sum(), evictedBudget.sum());
+    }
+
+    /**
+     * Reserves room for a new session, evicting the least recently used ones while the budget is exceeded.
+     * The caller owns the reservation and must release it if the session is not stored.
+     *
+     * @throws BusyException if the budget is exceeded with no stored session left to evict
+     */
+    void makeRoom(long bytes) {
+        evictIdle();
+        while (memoryBytes.addAndGet(bytes) > budgetBytes) {
+            memoryBytes.addAndGet(-bytes);
+            Session lru = sessions.values().stream()
+                    .min(Comparator.comparingLong(s -> s.lastAccessNanos))
+                    .orElse(null);
+            if (lru == null) {
+                // Only sessions still being created hold the budget
+                throw new BusyException("The session budget of " + (budgetBytes >> 20)
+                        + " MB is held by sessions still being created");
+            }
+            if (remove(lru.id) != null) evictedBudget.increment();
+        }
+    }
+
+    private void evictIdle() {
+        long now = System.nanoTime();
+        for (Session s : sessions.values()) {
+            if (now - s.lastAccessNanos > idleTimeoutNanos && remove(s.id) != null) {
+                evictedIdle.increment();
+            }
+        }
+    }
+
+    private Session remove(String id) {
+        Session removed = sessions.remove(id);
+        if (removed != null) memoryBytes.addAndGet(-removed.bytes);
+        return removed;
+    }
+
+    private static State stateOf(Session session, long micros, long recomputed) {
+        IncrementalDungeon d = session.dungeon;
+        return new State(session.id, d.rows(), d.cols(), d.minHealth(), micros, recomputed, session.version, session.bytes);
+    }
+}
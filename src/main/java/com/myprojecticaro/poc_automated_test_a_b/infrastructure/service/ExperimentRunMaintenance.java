@@ -0,0 +1,158 @@
+package com.myprojecticaro.poc_automated_test_a_b.infrastructure.service;
+
+import com.myprojecticaro.poc_automated_test_a_b.infrastructure.config.AbConfig;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the partitioned {@code experiment_run} table bounded.
+ * <p>
+ * {@code experiment_run} is range-partitioned into one partition per UTC day
+ * (see the {@code V3} and {@code V4} migrations). Every
+ * {@code ab.maintenance.interval-ms} this job:
+ * <ol>
+ *   <li>creates the partitions of today and the next {@code ab.maintenance.partitions-ahead-days} days,
+ *       and of any day whose runs ended up in the default partition, moving those runs over;</li>
+ *   <li>rolls every finished day, oldest first, up into hourly per-variant, per-size-bucket rows of
+ *       {@code experiment_run_rollup} once {@code ab.maintenance.rollup-delay-minutes} have passed
+ *       since the day ended;</li>
+ *   <li>drops rolled-up partitions older than {@code ab.maintenance.raw-retention-days}.</li>
+ * </ol>
+ * Summary queries read the rollups plus the raw runs after the last rolled-up
+ * day, so their cost no longer grows with the table. The SQL functions doing
+ * the work take an advisory lock, so several instances can run this job at once.
+ * </p>
+ */
+@Service
+public class ExperimentRunMaintenance {
+
+    private static final Logger log = LoggerFactory.getLogger(ExperimentRunMaintenance.class);
+
+    private static final String UNROLLED_DAYS_SQL = """
+            select to_date(substr(c.relname, 17), 'YYYYMMDD')
+            from pg_inherits i
+            join pg_class c on c.oid = i.inhrelid
+            where i.inhparent = 'experiment_run'::regclass
+              and c.relname ~ '^experiment_run_p[0-9]{8}$'
+              and not exists (select 1 from experiment_run_rollup_log l where l.partition_name = c.relname)
+            order by 1
+            """;
+
+    private static final String DEFAULT_PARTITION_DAYS_SQL =
+            "select distinct (created_at at time zone 'UTC')::date from experiment_run_default order by 1";
+
+    private final JdbcTemplate jdbc;
+    private final boolean enabled;
+    private final long intervalMs;
+    private final int partitionsAheadDays;
+    private final long rollupDelayMinutes;
+    private final int rawRetentionDays;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "experiment-run-maintenance");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /**
+     * Outcome of one maintenance pass.
+     *
+     * @param partitionsCreated daily partitions created
+     * @param rolledUpDays      days rolled up into {@code experiment_run_rollup}, oldest first
+     * @param rolledUpRuns      runs covered by those days
+     * @param partitionsDropped raw partitions dropped by the retention
+     */
+    public record Report(int partitionsCreated, List<LocalDate> rolledUpDays, long rolledUpRuns, int partitionsDropped) {}
+
+    /**
+     * Constructs the maintenance job from its configuration.
+     *
+     * @param jdbc JDBC access to the experiment database
+     * @param cfg  configuration object containing the schedule, look-ahead and retention
+     */
+    public ExperimentRunMaintenance(JdbcTemplate jdbc, AbConfig cfg) {
+        this.jdbc = jdbc;
+        this.enabled = cfg.maintenanceEnabled;
+        this.intervalMs = cfg.maintenanceIntervalMs;
+        this.partitionsAheadDays = cfg.maintenancePartitionsAheadDays;
+        this.rollupDelayMinutes = cfg.maintenanceRollupDelayMinutes;
+        this.rawRetentionDays = cfg.maintenanceRawRetentionDays;
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) return;
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                Report report = run();
+                if (report.partitionsCreated() > 0 || !report.rolledUpDays().isEmpty() || report.partitionsDropped() > 0) {
+                    log.info("Experiment run maintenance: {}", report);
+                }
+            } catch (RuntimeException e) {
+                log.error("Experiment run maintenance failed", e);
+            }
+        }, 0, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Runs one maintenance pass right away, independently of the schedule.
+     *
+     * @return what the pass changed
+     */
+    public Report run() {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+
+        List<LocalDate> days = new ArrayList<>(jdbc.queryForList(DEFAULT_PARTITION_DAYS_SQL, LocalDate.class));
+        for (int i = 0; i <= partitionsAheadDays; i++) {
+            days.add(today.plusDays(i));
+        }
+        int created = 0;
+        for (LocalDate day : days) {
+            Boolean c = jdbc.queryForObject("select experiment_run_create_partition(?)", Boolean.class, Date.valueOf(day));
+            if (Boolean.TRUE.equals(c)) created++;
+        }
+
+        // Oldest first: summaries treat everything before the last rolled-up day as rolled up
+        Instant rollableBefore = Instant.now().minus(rollupDelayMinutes, ChronoUnit.MINUTES);
+        List<LocalDate> rolledUp = new ArrayList<>();
+        long runs = 0;
+        for (LocalDate day : jdbc.queryForList(UNROLLED_DAYS_SQL, LocalDate.class)) {
+            if (day.plusDays(1).atStartOfDay().toInstant(ZoneOffset.UTC).isAfter(rollableBefore)) break;
+            Long n = jdbc.queryForObject("select experiment_run_roll_up(?)", Long.class, Date.valueOf(day));
+            if (n == null) continue;
+            rolledUp.add(day);
+            runs += n;
+        }
+
+        int dropped = 0;
+        if (rawRetentionDays > 0) {
+            Instant cutoff = today.minusDays(rawRetentionDays).atStartOfDay().toInstant(ZoneOffset.UTC);
+            Integer d = jdbc.queryForObject("select experiment_run_drop_partitions(?)", Integer.class,
+                    Timestamp.from(cutoff));
+            dropped = d != null ? d : 0;
+        }
+
+        return new Report(created, rolledUp, runs, dropped);
+    }
+}
@@ -2,118 +2,427 @@ package com.myprojecticaro.poc_automated_test_a_b.infrastructure.service;
 
 import com.myprojecticaro.poc_automated_test_a_b.domain.DungeonService;
 import com.myprojecticaro.poc_automated_test_a_b.domain.model.ExperimentRun;
-import com.myprojecticaro.poc_automated_test_a_b.domain.model.Variant;
+import com.myprojecticaro.poc_automated_test_a_b.domain.model.Grid;
+import com.myprojecticaro.poc_automated_test_a_b.domain.solver.DungeonInput;
+import com.myprojecticaro.poc_automated_test_a_b.domain.solver.DungeonSolver;
+import com.myprojecticaro.poc_automated_test_a_b.domain.util.BinaryDungeon;
 import com.myprojecticaro.poc_automated_test_a_b.domain.util.Stopwatch;
+import com.myprojecticaro.poc_automated_test_a_b.infrastructure.cache.ResultCache;
 import com.myprojecticaro.poc_automated_test_a_b.infrastructure.config.AbConfig;
+import com.myprojecticaro.poc_automated_test_a_b.infrastructure.metrics.Phase;
+import com.myprojecticaro.poc_automated_test_a_b.infrastructure.metrics.RequestTimings;
 import com.myprojecticaro.poc_automated_test_a_b.infrastructure.repository.ExperimentRunRepository;
+import com.myprojecticaro.poc_automated_test_a_b.infrastructure.repository.ExperimentRunWriter;
 import org.springframework.stereotype.Service;
 
-import java.security.SecureRandom;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
 
 /**
  * Service class responsible for managing dungeon experiments and A/B testing logic.
  * <p>
- * This service runs experiments using different algorithms (variants A and B) to
- * calculate the minimum initial health required in a dungeon. It stores the results
+ * This service runs experiments using different algorithms, the {@link DungeonSolver}s
+ * of the {@link SolverRegistry}, to calculate the minimum initial health required in a dungeon. It stores the results
  * in the database and provides summary statistics such as counts and average execution time.
  * </p>
  *
  * Dependencies:
- * - {@link DungeonService} to compute minimum health using different strategies.
- * - {@link ExperimentRunRepository} to persist experiment results.
- * - {@link AbConfig} to configure the percentage split for variant A in A/B testing.
+ * - {@link SolverRegistry} to look up the solver of every variant.
+ * - {@link DungeonService} to solve dungeon files out of core.
+ * - {@link ExperimentRunRepository} to query experiment results.
+ * - {@link ExperimentRunWriter} to persist experiment results without waiting for the database.
+ * - {@link RunAggregates} to keep summary statistics without scanning the database.
+ * - {@link LatencyHistograms} to keep latency percentiles per variant and grid size.
+ * - {@link ResultCache} to answer repeated grids without solving them again.
+ * - {@link TrafficAllocator} to pick the variant of requests that do not force one.
+ * - {@link SolveLanes} to run large grids on a bounded lane of their own.
+ * - {@link ShadowRunner} to compare a sample of served results against the other variants.
+ * - {@link SolverWarmup} to flag runs served before the JIT warm-up finished.
+ * - {@link AbConfig} to configure the mapped file directory and batch limits.
  */
 @Service
 public class ExperimentService {
 
+    private final SolverRegistry solvers;
     private final DungeonService dungeonService;
     private final ExperimentRunRepository repo;
-    private final SecureRandom rng = new SecureRandom();
-    private final int splitA;
+    private final ExperimentRunWriter writer;
+    private final RunAggregates aggregates;
+    private final LatencyHistograms histograms;
+    private final ResultCache resultCache;
+    private final TrafficAllocator allocator;
+    private final SolveLanes lanes;
+    private final ShadowRunner shadow;
+    private final SolverWarmup warmup;
+    private final Path mappedDir;
+    private final int batchParallelism;
+    private final int batchMaxItems;
 
     /**
      * Constructs an ExperimentService with required dependencies.
      *
-     * @param dungeonService the service responsible for dungeon calculations
-     * @param repo the repository to persist experiment runs
-     * @param cfg configuration object containing A/B split percentages
+     * @param solvers the registered solvers, one per variant
+     * @param dungeonService the service solving dungeon files
+     * @param repo the repository to query experiment runs
+     * @param writer the write-behind writer persisting experiment runs
+     * @param aggregates the running per-variant aggregates
+     * @param histograms the per-variant, per-size latency histograms
+     * @param resultCache the cache of previously solved grids
+     * @param allocator the allocator choosing variants for unforced requests
+     * @param lanes the admission control separating large grids from small ones
+     * @param shadow the shadow runner re-solving sampled requests off the request path
+     * @param warmup the startup warm-up, whose runs are stored flagged and left out of latency stats
+     * @param cfg configuration object containing the mapped file directory and batch limits
      */
-    public ExperimentService(DungeonService dungeonService,
+    public ExperimentService(SolverRegistry solvers,
+                             DungeonService dungeonService,
                              ExperimentRunRepository repo,
+                             ExperimentRunWriter writer,
+                             RunAggregates aggregates,
+                             LatencyHistograms histograms,
+                             ResultCache resultCache,
+                             TrafficAllocator allocator,
+                             SolveLanes lanes,
+                             ShadowRunner shadow,
+                             SolverWarmup warmup,
                              AbConfig cfg) {
+        this.solvers = solvers;
         this.dungeonService = dungeonService;
         this.repo = repo;
-        this.splitA = cfg.splitA;
+        this.writer = writer;
+        this.aggregates = aggregates;
+        this.histograms = histograms;
+        this.resultCache = resultCache;
+        this.allocator = allocator;
+        this.lanes = lanes;
+        this.shadow = shadow;
+        this.warmup = warmup;
+        this.mappedDir = Path.of(cfg.mappedDir).toAbsolutePath().normalize();
+        this.batchParallelism = cfg.batchParallelism;
+        this.batchMaxItems = cfg.batchMaxItems;
     }
 
     /**
      * Immutable record representing the result of an experiment run.
      *
-     * @param variant the algorithm variant used (A or B)
+     * @param variant name of the solver used
      * @param rows number of rows in the dungeon grid
      * @param cols number of columns in the dungeon grid
      * @param result the computed minimum initial health
      * @param micros execution time in microseconds
      * @param storedId database ID of the persisted experiment run
+     * @param cached whether the result came from the {@link ResultCache}; micros is then the lookup time
      */
-    public record Result(Variant variant, int rows, int cols, int result, long micros, Long storedId) {}
+    public record Result(String variant, int rows, int cols, int result, long micros, Long storedId, boolean cached) {}
 
     /**
      * Executes an experiment on a dungeon grid, choosing a variant
      * based on A/B testing rules or a forced variant.
      * <p>
      * The chosen algorithm computes the minimum health required to survive the dungeon,
-     * measures the execution time, and saves the result in the database.
+     * measures the execution time, and queues the result for the database. When the
+     * {@link ResultCache} is enabled and already holds the grid, the cached result is
+     * returned and the run is saved flagged as cached.
+     * </p>
+     *
+     * <p>
+     * Small grids are solved on the calling thread and the returned future is
+     * already complete. Grids of at least {@code ab.admission.large-cells} cells are
+     * queued on the bounded large-grid lane of {@link SolveLanes}, or rejected
+     * right away if it cannot take them.
+     * </p>
+     *
+     * <p>
+     * Every phase, from assignment to recording, is marked on {@code timings}
+     * as it ends, whichever thread it runs on.
      * </p>
      *
      * @param dungeon the 2D dungeon grid
-     * @param forced optional forced variant (A or B); if null, variant is chosen randomly based on splitA
+     * @param forced optional forced variant; if null, the {@link TrafficAllocator} picks one
+     * @param subject stable identifier of the client used for sticky assignment, such as a subject id or its IP
      * @param clientIp the IP of the client requesting the experiment
-     * @return a {@link Result} object containing variant, dungeon size, result, execution time, and stored ID
+     * @param timings phase timings of the request, or {@link RequestTimings#NONE}
+     * @return the future {@link Result} containing variant, dungeon size, result, execution time, and stored ID
+     * @throws IllegalArgumentException if the forced variant names no registered solver
+     * @throws SolveLanes.RejectedException if the grid is large and its lane cannot admit it
+     */
+    public CompletableFuture<Result> run(int[][] dungeon, String forced, String subject, String clientIp,
+                                         RequestTimings timings) {
+        return run(DungeonInput.of(dungeon), forced, subject, clientIp, timings);
+    }
+
+    /**
+     * Executes an experiment on a flat dungeon grid, choosing a variant
+     * based on A/B testing rules or a forced variant.
+     * <p>
+     * Behaves like {@link #run(int[][], String, String, String, RequestTimings)} for grids that were
+     * decoded straight into a flat buffer, such as binary request bodies.
+     * </p>
+     *
+     * @param grid the flat dungeon grid
+     * @param forced optional forced variant; if null, the {@link TrafficAllocator} picks one
+     * @param subject stable identifier of the client used for sticky assignment, such as a subject id or its IP
+     * @param clientIp the IP of the client requesting the experiment
+     * @param timings phase timings of the request, or {@link RequestTimings#NONE}
+     * @return the future {@link Result} containing variant, dungeon size, result, execution time, and stored ID
+     * @throws IllegalArgumentException if the forced variant names no registered solver
+     * @throws SolveLanes.RejectedException if the grid is large and its lane cannot admit it
+     */
+    public CompletableFuture<Result> run(Grid grid, String forced, String subject, String clientIp,
+                                         RequestTimings timings) {
+        return run(DungeonInput.of(grid), forced, subject, clientIp, timings);
+    }
+
+    /**
+     * Immutable record of one executed dungeon solve, before it is persisted.
+     */
+    private record Solved(String variant, int rows, int cols, int result, long micros, boolean cached) {}
+
+    /**
+     * Outcome of one item of {@link #runBatch}: either a {@link Result} or an error message.
+     *
+     * @param index position of the dungeon in the batch
+     * @param result the experiment result, or null if the item failed
+     * @param error why the item failed, or null if it succeeded
+     */
+    public record BatchItem(int index, Result result, String error) {}
+
+    /**
+     * Executes an experiment on each dungeon of a batch concurrently on virtual threads.
+     * <p>
+     * Every item gets its own variant exactly as {@link #run(int[][], String, String, String, RequestTimings)}
+     * would choose it, or the forced one. At most {@code ab.batch.parallelism} items are
+     * solved at once, and large items go through the same {@link SolveLanes} admission as
+     * single requests, so a rejected item reports the rejection as its error. Each outcome is passed to {@code listener} as soon as it is known,
+     * from the solving thread, so the listener must be thread-safe. Ids for the whole batch
+     * are allocated up front, and once every item is done all runs are inserted in a single
+     * batched write.
+     * </p>
+     *
+     * @param dungeons the 2D dungeon grids
+     * @param forced optional forced variant for every item; if null, each item is assigned separately
+     * @param subject stable identifier of the client used for sticky assignment, such as a subject id or its IP
+     * @param clientIp the IP of the client requesting the experiments
+     * @param listener receives one {@link BatchItem} per dungeon, in completion order
+     * @throws IllegalArgumentException if the forced variant names no registered solver
+     * @throws InterruptedException if the calling thread is interrupted while waiting for a free slot
+     */
+    public void runBatch(List<int[][]> dungeons, String forced, String subject, String clientIp,
+                         Consumer<BatchItem> listener) throws InterruptedException {
+        if (forced != null) solvers.get(forced);
+        long[] ids = writer.nextIds(dungeons.size());
+        ExperimentRun[] runs = new ExperimentRun[dungeons.size()];
+        Semaphore slots = new Semaphore(batchParallelism);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < dungeons.size(); i++) {
+                int index = i;
+                slots.acquire();
+                executor.submit(() -> {
+                    try {
+                        DungeonInput dungeon = DungeonInput.of(dungeons.get(index));
+                        Solved solved = admit(dungeon, assign(forced, dungeon, subject), RequestTimings.NONE).join();
+                        runs[index] = account(solved, ids[index], clientIp);
+                        listener.accept(new BatchItem(index, toResult(solved, ids[index]), null));
+                    } catch (RuntimeException e) {
+                        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                        String error = cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+                        listener.accept(new BatchItem(index, null, error));
+                    } finally {
+                        slots.release();
+                    }
+                });
+            }
+        }
+
+        writer.writeAll(Arrays.stream(runs).filter(Objects::nonNull).toList());
+    }
+
+    /**
+     * Returns the largest number of dungeons accepted in one batch ({@code ab.batch.max-items}).
+     *
+     * @return the batch size limit
+     */
+    public int maxBatchItems() {
+        return batchMaxItems;
+    }
+
+    /**
+     * Shared implementation of both {@code run} overloads.
+     */
+    private CompletableFuture<Result> run(DungeonInput dungeon, String forced, String subject, String clientIp,
+                                          RequestTimings timings) {
+        DungeonSolver solver = assign(forced, dungeon, subject);
+        timings.assigned(solver.name(), dungeon.rows(), dungeon.cols());
+        return admit(dungeon, solver, timings).thenApply(solved -> {
+            Result result = record(solved, clientIp);
+            timings.mark(Phase.RECORD);
+            return result;
+        });
+    }
+
+    /**
+     * Solves a dungeon in the {@link SolveLanes} lane of its size, reserving the
+     * solver's working set plus the layout conversion {@link #solve} may perform.
+     */
+    private CompletableFuture<Solved> admit(DungeonInput dungeon, DungeonSolver solver, RequestTimings timings) {
+        long cells = (long) dungeon.rows() * dungeon.cols();
+        long bytes = solver.workingSetBytes(dungeon.rows(), dungeon.cols()) + dungeon.conversionBytes(solver.layout());
+        Thread caller = Thread.currentThread();
+        return lanes.submit(cells, bytes, () -> {
+            timings.mark(Phase.QUEUE);
+            // The request thread's allocations are counted by the timing filter, a large-grid lane's are counted here
+            long allocated = Thread.currentThread() != caller ? RequestTimings.allocatedBytes() : -1;
+            Solved solved = solve(dungeon, solver, timings);
+            // A cache hit was not solved by its variant, so there is nothing to compare it with
+            if (!solved.cached()) shadow.offer(dungeon, solved.variant(), solved.result());
+            if (allocated >= 0) timings.addOffThreadBytes(RequestTimings.allocatedBytes() - allocated);
+            return solved;
+        });
+    }
+
+    /**
+     * Returns the solver of the forced variant, or lets the {@link TrafficAllocator}
+     * pick one for the grid's size and subject.
+     */
+    private DungeonSolver assign(String forced, DungeonInput dungeon, String subject) {
+        return solvers.get(forced != null ? forced : allocator.choose(dungeon.rows(), dungeon.cols(), subject));
+    }
+
+    /**
+     * Solves a dungeon with the given solver, or answers it from the cache.
      */
-    public Result run(int[][] dungeon, Variant forced, String clientIp) {
-        Variant variant = forced != null
-                ? forced
-                : (rng.nextInt(100) < splitA ? Variant.A : Variant.B);
+    private Solved solve(DungeonInput dungeon, DungeonSolver solver, RequestTimings timings) {
+        int rows = dungeon.rows();
+        int cols = dungeon.cols();
+
+        // Cache hits are still recorded, flagged so their lookup time is kept out of latency stats
+        ResultCache.Key key = null;
+        if (resultCache.isEnabled()) {
+            Stopwatch lookup = new Stopwatch();
+            key = dungeon.has(DungeonSolver.Layout.FLAT)
+                    ? ResultCache.keyOf(dungeon.grid())
+                    : ResultCache.keyOf(dungeon.array());
+            Integer cached = resultCache.get(key);
+            timings.mark(Phase.CACHE);
+            if (cached != null) {
+                return new Solved(solver.name(), rows, cols, cached, lookup.micros(), true);
+            }
+        }
+
+        // Each solver gets its native layout up front so micros only covers the solve
+        dungeon.prepare(solver.layout());
+        timings.mark(Phase.PREPARE);
 
         Stopwatch sw = new Stopwatch();
-        int res = switch (variant) {
-            case A -> dungeonService.minHealthBottomUp(dungeon);
-            case B -> dungeonService.minHealthTopDown(dungeon);
-        };
+        int res = solver.solve(dungeon);
         long micros = sw.micros();
+        timings.mark(Phase.SOLVE);
 
-        var saved = repo.save(new ExperimentRun(
-                variant,
-                dungeon.length,
-                dungeon[0].length,
-                res,
-                micros,
+        if (key != null) {
+            resultCache.put(key, res);
+        }
+        return new Solved(solver.name(), rows, cols, res, micros, false);
+    }
+
+    /**
+     * Queues an experiment run for persistence and builds its {@link Result}.
+     * The id is allocated immediately; the row is inserted in the background.
+     */
+    private Result record(Solved solved, String clientIp) {
+        long id = writer.nextId();
+        writer.write(account(solved, id, clientIp));
+        return toResult(solved, id);
+    }
+
+    /**
+     * Adds a solve to the in-memory statistics and builds its {@link ExperimentRun}.
+     * Cache hits and runs served during the warm-up are counted but not timed.
+     */
+    private ExperimentRun account(Solved solved, long id, String clientIp) {
+        boolean warmingUp = warmup.isWarmingUp();
+        boolean untimed = solved.cached() || warmingUp;
+        aggregates.record(solved.variant(), solved.micros(), untimed);
+        if (!untimed) {
+            histograms.record(solved.variant(), solved.rows(), solved.cols(), solved.micros());
+            allocator.observe(solved.variant(), solved.rows(), solved.cols(), solved.micros());
+        }
+        return new ExperimentRun(
+                id,
+                solved.variant(),
+                solved.rows(),
+                solved.cols(),
+                solved.result(),
+                solved.micros(),
+                solved.cached(),
+                warmingUp,
                 clientIp
-        ));
+        );
+    }
 
-        return new Result(variant, dungeon.length, dungeon[0].length, res, micros, saved.getId());
+    private static Result toResult(Solved solved, long id) {
+        return new Result(solved.variant(), solved.rows(), solved.cols(), solved.result(), solved.micros(), id, solved.cached());
     }
 
     /**
-     * Returns the total number of experiments stored in the repository.
+     * Executes an experiment on a dungeon stored in the {@link BinaryDungeon}
+     * file layout, always recorded as variant {@value SolverRegistry#FILE_VARIANT}.
+     * <p>
+     * The file is memory-mapped and swept row by row, so it may be far larger
+     * than the heap. The run is measured and persisted like any other run.
+     * </p>
+     *
+     * @param relativePath path of the file, relative to the configured dungeon directory ({@code ab.mapped.dir})
+     * @param clientIp the IP of the client requesting the experiment
+     * @return a {@link Result} object containing variant, dungeon size, result, execution time, and stored ID
+     * @throws IOException if the file does not exist or cannot be read
+     * @throws IllegalArgumentException if the path escapes the dungeon directory or the file is malformed
+     */
+    public Result runFile(String relativePath, String clientIp) throws IOException {
+        Path file = mappedDir.resolve(relativePath).normalize();
+        if (!file.startsWith(mappedDir)) {
+            throw new IllegalArgumentException("Dungeon file must be inside " + mappedDir);
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            BinaryDungeon.Header header = BinaryDungeon.readHeader(channel);
+
+            Stopwatch sw = new Stopwatch();
+            int res = dungeonService.minHealthMapped(channel, header);
+            long micros = sw.micros();
+
+            return record(new Solved(SolverRegistry.FILE_VARIANT, header.rows(), header.cols(), res, micros, false), clientIp);
+        }
+    }
+
+    /**
+     * Returns the total number of experiments recorded.
      *
      * @return the count of all experiment runs
      */
     public long count() {
-        return repo.count();
+        return aggregates.snapshots().stream().mapToLong(RunAggregates.Snapshot::runs).sum();
     }
 
-
-
     /**
      * Returns the number of experiments that used variant A.
      *
      * @return the count of variant A runs
      */
     public long countA() {
-        return repo.countByVariant(Variant.A);
+        return aggregates.snapshot("A").runs();
     }
 
     /**
@@ -122,17 +431,143 @@ public class ExperimentService {
      * @return the count of variant B runs
      */
     public long countB() {
-        return repo.countByVariant(Variant.B);
+        return aggregates.snapshot("B").runs();
     }
 
     /**
-     * Calculates the average execution time (in microseconds) of all experiment runs.
+     * Calculates the average execution time (in microseconds) of all experiment runs
+     * that were actually solved; cached runs are left out.
      *
      * @return the average execution time, or 0 if no runs exist
      */
     public double avgMicros() {
-        List<ExperimentRun> runs = repo.findAll();
-        if (runs.isEmpty()) return 0;
-        return runs.stream().mapToLong(ExperimentRun::getMicros).average().orElse(0);
+        long timed = 0;
+        long sum = 0;
+        for (RunAggregates.Snapshot s : aggregates.snapshots()) {
+            timed += s.timedRuns();
+            sum += s.sumMicros();
+        }
+        return timed == 0 ? 0 : (double) sum / timed;
+    }
+
+    /**
+     * Returns the running aggregates of every registered solver, of file runs,
+     * and of any variant with stored runs whose solver is no longer registered.
+     *
+     * @return one {@link RunAggregates.Snapshot} per variant, sorted by name
+     */
+    public List<RunAggregates.Snapshot> variantSummaries() {
+        TreeSet<String> names = new TreeSet<>(solvers.names());
+        names.add(SolverRegistry.FILE_VARIANT);
+        aggregates.snapshots().forEach(s -> names.add(s.variant()));
+        return names.stream().map(aggregates::snapshot).toList();
+    }
+
+    /**
+     * Returns the solver of a variant.
+     *
+     * @param variant the variant name
+     * @return the registered {@link DungeonSolver}
+     * @throws IllegalArgumentException if no solver has that name
+     */
+    public DungeonSolver solver(String variant) {
+        return solvers.get(variant);
+    }
+
+    /**
+     * Returns every registered solver.
+     *
+     * @return the solvers, sorted by name
+     */
+    public List<DungeonSolver> solvers() {
+        return solvers.solvers();
+    }
+
+    /**
+     * Computes the per-variant aggregates from the database instead of memory.
+     * <p>
+     * This reads the hourly rollups plus the raw runs not rolled up yet (see
+     * {@link ExperimentRunMaintenance}) and is only meant to reconcile the
+     * in-memory aggregates; runs still queued for insertion are not included.
+     * </p>
+     *
+     * @return one {@link RunAggregates.Snapshot} per variant that has stored runs
+     */
+    public List<RunAggregates.Snapshot> storedVariantSummaries() {
+        return repo.totalsByVariant().stream()
+                .map(t -> new RunAggregates.Snapshot(
+                        t.getVariant(),
+                        t.getRuns(),
+                        t.getTimedRuns(),
+                        t.getSumMicros(),
+                        t.getMinMicros() != null ? t.getMinMicros() : 0,
+                        t.getMaxMicros() != null ? t.getMaxMicros() : 0))
+                .toList();
+    }
+
+    /**
+     * Calculates the average execution time of the stored, non-cached runs in the database.
+     *
+     * @param stored the stored aggregates, see {@link #storedVariantSummaries()}
+     * @return the average execution time, or 0 if no runs are stored
+     */
+    public double storedAvgMicros(List<RunAggregates.Snapshot> stored) {
+        long timedRuns = stored.stream().mapToLong(RunAggregates.Snapshot::timedRuns).sum();
+        long sumMicros = stored.stream().mapToLong(RunAggregates.Snapshot::sumMicros).sum();
+        return timedRuns == 0 ? 0 : (double) sumMicros / timedRuns;
+    }
+
+    /**
+     * Returns the latency distributions of every variant, overall and per grid-size bucket.
+     *
+     * @return the histogram entries, see {@link LatencyHistograms#entries()}
+     */
+    public List<LatencyHistograms.Entry> latencyHistograms() {
+        return histograms.entries();
+    }
+
+    /**
+     * Returns the allocator choosing variants for unforced requests, for reporting its state.
+     *
+     * @return the {@link TrafficAllocator}
+     */
+    public TrafficAllocator allocator() {
+        return allocator;
+    }
+
+    /**
+     * Returns the statistics of the small- and large-grid lanes.
+     *
+     * @return one {@link SolveLanes.Stats} per lane
+     */
+    public List<SolveLanes.Stats> laneStats() {
+        return lanes.stats();
+    }
+
+    /**
+     * Returns the statistics of shadow mode.
+     *
+     * @return the current {@link ShadowRunner.Stats}
+     */
+    public ShadowRunner.Stats shadowStats() {
+        return shadow.stats();
+    }
+
+    /**
+     * Returns the statistics of the result cache.
+     *
+     * @return the current {@link ResultCache.Stats}
+     */
+    public ResultCache.Stats cacheStats() {
+        return resultCache.stats();
+    }
+
+    /**
+     * Returns the statistics of the write-behind persistence of runs.
+     *
+     * @return the current {@link ExperimentRunWriter.Stats}
+     */
+    public ExperimentRunWriter.Stats persistenceStats() {
+        return writer.stats();
     }
 }
\ No newline at end of file
@@ -0,0 +1,109 @@
+package com.myprojecticaro.poc_automated_test_a_b.infrastructure.service;
+
+import com.myprojecticaro.poc_automated_test_a_b.domain.util.LatencyHistogram;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Latency histograms of solved runs per variant name and grid-size bucket.
+ * <p>
+ * Grids are bucketed by their cell count ({@code rows * cols}) in decades, so
+ * a 3x3 grid is never compared with a 5000x5000 one. The histograms of a
+ * variant are created on its first run; after that, recording a run only
+ * looks them up and increments a counter, without allocating. Cached runs are
+ * not recorded.
+ * </p>
+ */
+@Component
+public class LatencyHistograms {
+
+    /**
+     * Inclusive upper cell-count limit of every size bucket but the last.
+     */
+    private static final long[] SIZE_LIMITS = {100, 1_000, 10_000, 100_000, 1_000_000, 10_000_000};
+
+    /**
+     * Labels of the size buckets, one more than {@link #SIZE_LIMITS}.
+     */
+    public static final List<String> SIZE_BUCKETS = List.of("<=100", "<=1K", "<=10K", "<=100K", "<=1M", "<=10M", ">10M");
+
+    /**
+     * Label used for the merge of all size buckets of a variant.
+     */
+    public static final String ALL_SIZES = "all";
+
+    /**
+     * Distribution of one variant within one size bucket.
+     *
+     * @param variant    the variant
+     * @param sizeBucket one of {@link #SIZE_BUCKETS}, or {@link #ALL_SIZES}
+     * @param histogram  snapshot of the latencies
+     */
+    public record Entry(String variant, String sizeBucket, LatencyHistogram.Snapshot histogram) {}
+
+    private final Map<String, LatencyHistogram[]> histograms = new ConcurrentHashMap<>();
+
+    /**
+     * Records the solve time of one run.
+     *
+     * @param variant the variant that solved the grid
+     * @param rows    number of rows of the grid
+     * @param cols    number of columns of the grid
+     * @param micros  solve time in microseconds
+     */
+    public void record(String variant, int rows, int cols, long micros) {
+        LatencyHistogram[] bySize = histograms.get(variant);
+        if (bySize == null) bySize = histograms.computeIfAbsent(variant, v -> newBySize());
+        bySize[sizeBucketOf((long) rows * cols)].record(micros);
+    }
+
+    /**
+     * Returns, for every variant with recorded runs, its merged distribution
+     * followed by the distribution of each non-empty size bucket.
+     *
+     * @return the histogram entries, sorted by variant name
+     */
+    public List<Entry> entries() {
+        List<Entry> entries = new ArrayList<>();
+        for (String v : histograms.keySet().stream().sorted().toList()) {
+            LatencyHistogram[] bySize = histograms.get(v);
+            LatencyHistogram.Snapshot all = LatencyHistogram.Snapshot.empty();
+            List<Entry> buckets = new ArrayList<>();
+            for (int i = 0; i < bySize.length; i++) {
+                LatencyHistogram.Snapshot snapshot = bySize[i].snapshot();
+                if (snapshot.count() == 0) continue;
+                all = all.merge(snapshot);
+                buckets.add(new Entry(v, SIZE_BUCKETS.get(i), snapshot));
+            }
+            if (all.count() == 0) continue;
+            entries.add(new Entry(v, ALL_SIZES, all));
+            entries.addAll(buckets);
+        }
+        return entries;
+    }
+
+    /**
+     * Returns the index in {@link #SIZE_BUCKETS} of a grid with the given number of cells.
+     *
+     * @param cells {@code rows * cols}
+     * @return the size bucket index
+     */
+    public static int sizeBucketOf(long cells) {
+        for (int i = 0; i < SIZE_LIMITS.length; i++) {
+            if (cells <= SIZE_LIMITS[i]) return i;
+        }
+        return SIZE_LIMITS.length;
+    }
+
+    private static LatencyHistogram[] newBySize() {
+        LatencyHistogram[] bySize = new LatencyHistogram[SIZE_BUCKETS.size()];
+        for (int i = 0; i < bySize.length; i++) {
+            bySize[i] = new LatencyHistogram();
+        }
+        return bySize;
+    }
+}
@@ -0,0 +1,144 @@
+package com.myprojecticaro.poc_automated_test_a_b.infrastructure.service;
+
+import com.myprojecticaro.poc_automated_test_a_b.infrastructure.config.AbConfig;
+import com.myprojecticaro.poc_automated_test_a_b.infrastructure.repository.ExperimentRunRepository;
+import com.myprojecticaro.poc_automated_test_a_b.infrastructure.repository.VariantTotals;
+import jakarta.annotation.PostConstruct;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free running aggregates of experiment runs per variant name.
+ * <p>
+ * The aggregates are seeded once from the database at startup (unless
+ * {@code ab.aggregates.seed-on-startup} is off) and then
+ * updated on every recorded run, so summaries are O(1) and never scan
+ * {@code experiment_run}. Counters are {@link LongAdder}s and min/max are
+ * {@link LongAccumulator}s, which keep contention low when many request
+ * threads record at once. A variant's aggregate is created on its first
+ * run, so solvers added later need no registration here.
+ * </p>
+ *
+ * <p>
+ * Latency figures ({@code sum}, {@code min}, {@code max}) only include runs
+ * that were actually solved after the warm-up; cached runs and runs served
+ * during the warm-up are counted but not timed.
+ * </p>
+ */
+@Component
+public class RunAggregates {
+
+    /**
+     * Snapshot of the aggregates of one variant.
+     *
+     * @param variant   the variant
+     * @param runs      all recorded runs, cached or not
+     * @param timedRuns runs that were actually solved
+     * @param sumMicros total solve time of the timed runs
+     * @param minMicros fastest timed run, or 0 if there is none
+     * @param maxMicros slowest timed run, or 0 if there is none
+     */
+    public record Snapshot(String variant, long runs, long timedRuns, long sumMicros, long minMicros, long maxMicros) {
+
+        public double avgMicros() {
+            return timedRuns == 0 ? 0 : (double) sumMicros / timedRuns;
+        }
+    }
+
+    private static final class Aggregate {
+        final LongAdder runs = new LongAdder();
+        final LongAdder timedRuns = new LongAdder();
+        final LongAdder sumMicros = new LongAdder();
+        final LongAccumulator minMicros = new LongAccumulator(Math::min, Long.MAX_VALUE);
+        final LongAccumulator maxMicros = new LongAccumulator(Math::max, Long.MIN_VALUE);
+    }
+
+    private final ExperimentRunRepository repo;
+    private final boolean seedOnStartup;
+    private final Map<String, Aggregate> aggregates = new ConcurrentHashMap<>();
+
+    /** Stands in for variants without runs; never recorded into. */
+    private static final Aggregate EMPTY = new Aggregate();
+
+    /**
+     * Constructs the aggregates, empty until they are seeded.
+     *
+     * @param repo the repository used to seed the aggregates
+     * @param cfg  configuration object containing whether to seed at startup
+     */
+    public RunAggregates(ExperimentRunRepository repo, AbConfig cfg) {
+        this.repo = repo;
+        this.seedOnStartup = cfg.aggregatesSeedOnStartup;
+    }
+
+    /**
+     * Seeds the aggregates with the runs already stored, before any request is served.
+     */
+    @PostConstruct
+    void seed() {
+        if (!seedOnStartup) return;
+        for (VariantTotals totals : repo.totalsByVariant()) {
+            Aggregate a = aggregate(totals.getVariant());
+            a.runs.add(totals.getRuns());
+            a.timedRuns.add(totals.getTimedRuns());
+            a.sumMicros.add(totals.getSumMicros());
+            if (totals.getMinMicros() != null) a.minMicros.accumulate(totals.getMinMicros());
+            if (totals.getMaxMicros() != null) a.maxMicros.accumulate(totals.getMaxMicros());
+        }
+    }
+
+    /**
+     * Adds one run to the aggregates of its variant.
+     *
+     * @param variant the variant that served the run
+     * @param micros  solve time in microseconds
+     * @param untimed whether the run is left out of the latency figures: a cache hit, or a run served during the warm-up
+     */
+    public void record(String variant, long micros, boolean untimed) {
+        Aggregate a = aggregate(variant);
+        a.runs.increment();
+        if (untimed) return;
+        a.timedRuns.increment();
+        a.sumMicros.add(micros);
+        a.minMicros.accumulate(micros);
+        a.maxMicros.accumulate(micros);
+    }
+
+    /**
+     * Returns the aggregates of every variant with recorded runs.
+     *
+     * @return one {@link Snapshot} per variant, sorted by name
+     */
+    public List<Snapshot> snapshots() {
+        return aggregates.keySet().stream().sorted().map(this::snapshot).toList();
+    }
+
+    /**
+     * Returns the aggregates of one variant.
+     *
+     * @param variant the variant name
+     * @return a {@link Snapshot} of its aggregates, all zero if it has no runs
+     */
+    public Snapshot snapshot(String variant) {
+        Aggregate a = aggregates.getOrDefault(variant, EMPTY);
+        long timed = a.timedRuns.sum();
+        return new Snapshot(
+                variant,
+                a.runs.sum(),
+                timed,
+                a.sumMicros.sum(),
+                timed == 0 ? 0 : a.minMicros.get(),
+                timed == 0 ? 0 : a.maxMicros.get()
+        );
+    }
+
+    private Aggregate aggregate(String variant) {
+        Aggregate a = aggregates.get(variant);
+        return a != null ? a : aggregates.computeIfAbsent(variant, v -> new Aggregate());
+    }
+}
@@ -0,0 +1,287 @@
+package com.myprojecticaro.poc_automated_test_a_b.infrastructure.service;
+
+import com.myprojecticaro.poc_automated_test_a_b.domain.solver.DungeonInput;
+import com.myprojecticaro.poc_automated_test_a_b.domain.solver.DungeonSolver;
+import com.myprojecticaro.poc_automated_test_a_b.domain.util.Stopwatch;
+import com.myprojecticaro.poc_automated_test_a_b.infrastructure.config.AbConfig;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Shadow mode: re-solves a sample of served requests with every configured
+ * variant and checks that they agree with the answer that was served.
+ * <p>
+ * The served response never waits for it. {@link #offer} draws the sample and
+ * hands the grid to a small pool of minimum-priority daemon threads with a
+ * bounded queue; when the queue is full the sample is dropped and counted,
+ * never queued on the request thread. Grids of {@code ab.shadow.max-cells}
+ * cells or more are not sampled, so shadow work cannot pin large grids in memory.
+ * </p>
+ *
+ * <p>
+ * A shadow job solves the grid with every solver in {@code ab.shadow.variants}
+ * (weights, if any, are ignored), the served one included, back to back on the same thread and in a random
+ * order. Every pair of variants is therefore timed on the same input under the
+ * same load, which makes the comparison paired rather than a comparison of two
+ * unrelated latency distributions. Latencies are kept per ordered pair
+ * (served variant, other variant). A result that differs from the served one is
+ * counted as a mismatch, logged, and kept in a short list of recent mismatches.
+ * </p>
+ *
+ * <p>
+ * Shadow solves are not experiment runs: they bypass the {@link
+ * com.myprojecticaro.poc_automated_test_a_b.infrastructure.cache.ResultCache},
+ * and are kept out of the database, the aggregates, the latency histograms and
+ * the {@link TrafficAllocator}.
+ * </p>
+ */
+@Component
+public class ShadowRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(ShadowRunner.class);
+
+    /** Number of recent mismatches kept for {@link #stats()}. */
+    private static final int RECENT_MISMATCHES = 20;
+
+    /**
+     * Paired comparison of the served variant against another variant on the same grids.
+     *
+     * @param served                variant that answered the request
+     * @param candidate             variant it was compared with
+     * @param comparisons           grids both were solved on
+     * @param mismatches            grids where the candidate's result differed from the served one
+     * @param timedComparisons      comparisons where both variants returned a result; the latencies cover only these
+     * @param meanServedMicros      mean shadow solve time of the served variant, or 0 without timed comparisons
+     * @param meanCandidateMicros   mean shadow solve time of the candidate, or 0 without timed comparisons
+     * @param candidateFasterShare  share of the timed comparisons where the candidate was faster
+     */
+    public record Pair(String served, String candidate, long comparisons, long mismatches, long timedComparisons,
+                       double meanServedMicros, double meanCandidateMicros, double candidateFasterShare) {}
+
+    /**
+     * A shadow result that disagreed with the served one.
+     *
+     * @param at              when the shadow job finished
+     * @param rows            number of rows in the dungeon grid
+     * @param cols            number of columns in the dungeon grid
+     * @param served          variant that answered the request
+     * @param servedResult    result that was served
+     * @param candidate       variant that disagreed
+     * @param candidateResult result it computed, or null if it failed
+     * @param error           why the candidate failed, or null if it returned a result
+     */
+    public record Mismatch(Instant at, int rows, int cols, String served, int servedResult,
+                           String candidate, Integer candidateResult, String error) {}
+
+    /**
+     * Point-in-time statistics of shadow mode.
+     *
+     * @param enabled     whether requests are sampled at all
+     * @param sampleRate  share of eligible requests that are sampled
+     * @param variants    variants every sample is solved with
+     * @param sampled     samples accepted by the pool
+     * @param dropped     samples dropped because the pool's queue was full
+     * @param completed   samples fully compared
+     * @param mismatches  variant results that differed from the served result
+     * @param pairs       paired comparisons per (served, candidate) variant
+     * @param recent      the most recent mismatches, newest first
+     */
+    public record Stats(boolean enabled, double sampleRate, List<String> variants,
+                        long sampled, long dropped, long completed, long mismatches,
+                        List<Pair> pairs, List<Mismatch> recent) {}
+
+    private record PairKey(String served, String candidate) {}
+
+    private static final class PairCounters {
+        final LongAdder comparisons = new LongAdder();
+        final LongAdder mismatches = new LongAdder();
+        final LongAdder timed = new LongAdder();
+        final LongAdder servedMicros = new LongAdder();
+        final LongAdder candidateMicros = new LongAdder();
+        final LongAdder candidateFaster = new LongAdder();
+    }
+
+    private final boolean enabled;
+    private final double sampleRate;
+    private final long maxCells;
+    private final SolverRegistry registry;
+    private final List<DungeonSolver> variants;
+    private final ThreadPoolExecutor executor;
+
+    private final Map<PairKey, PairCounters> pairs = new ConcurrentHashMap<>();
+    private final LongAdder sampled = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder mismatches = new LongAdder();
+    private final Deque<Mismatch> recent = new ArrayDeque<>();
+
+    /**
+     * Constructs the shadow runner from its configuration.
+     *
+     * @param registry the registered solvers the shadow variants are chosen from
+     * @param cfg configuration object containing the sample rate, variants and pool limits
+     * @throws IllegalArgumentException if {@code ab.shadow.variants} names fewer than two registered solvers
+     */
+    public ShadowRunner(SolverRegistry registry, AbConfig cfg) {
+        this.enabled = cfg.shadowEnabled;
+        this.sampleRate = cfg.shadowSampleRate;
+        this.maxCells = cfg.shadowMaxCells;
+        this.registry = registry;
+        this.variants = registry.parseArms(cfg.shadowVariants, "ab.shadow.variants").stream()
+                .map(SolverRegistry.Arm::solver)
+                .toList();
+        if (variants.size() < 2) {
+            throw new IllegalArgumentException("ab.shadow.variants must list at least two solvers, got " + cfg.shadowVariants);
+        }
+
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(cfg.shadowThreads, cfg.shadowThreads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(cfg.shadowQueueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "shadow-" + threads.incrementAndGet());
+                    t.setDaemon(true);
+                    t.setPriority(Thread.MIN_PRIORITY);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Samples a served solve for shadow comparison.
+     * <p>
+     * Returns immediately. The dungeon is shared with the shadow job, not
+     * copied, so the caller must not modify it afterwards.
+     * </p>
+     *
+     * @param dungeon      the dungeon that was solved
+     * @param served       variant that answered the request
+     * @param servedResult result that was served
+     */
+    public void offer(DungeonInput dungeon, String served, int servedResult) {
+        if (!enabled || !registry.contains(served)) return;
+        if ((long) dungeon.rows() * dungeon.cols() >= maxCells) return;
+        if (ThreadLocalRandom.current().nextDouble() >= sampleRate) return;
+
+        try {
+            executor.execute(() -> compare(dungeon, served, servedResult));
+            sampled.increment();
+        } catch (RejectedExecutionException e) {
+            dropped.increment();
+        }
+    }
+
+    /**
+     * Returns the current statistics of shadow mode.
+     *
+     * @return the {@link Stats}
+     */
+    public Stats stats() {
+        List<Pair> result = pairs.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey(Comparator.comparing(PairKey::served).thenComparing(PairKey::candidate)))
+                .map(e -> {
+                    PairCounters p = e.getValue();
+                    // A failed solve adds no time, so the means are over the pairs where both solved
+                    long timed = p.timed.sum();
+                    return new Pair(e.getKey().served(), e.getKey().candidate(), p.comparisons.sum(), p.mismatches.sum(),
+                            timed,
+                            timed == 0 ? 0 : (double) p.servedMicros.sum() / timed,
+                            timed == 0 ? 0 : (double) p.candidateMicros.sum() / timed,
+                            timed == 0 ? 0 : (double) p.candidateFaster.sum() / timed);
+                })
+                .filter(p -> p.comparisons() > 0)
+                .toList();
+        List<Mismatch> latest;
+        synchronized (recent) {
+            latest = List.copyOf(recent);
+        }
+        return new Stats(enabled, sampleRate, variants.stream().map(DungeonSolver::name).toList(),
+                sampled.sum(), dropped.sum(), completed.sum(), mismatches.sum(), result, latest);
+    }
+
+    private void compare(DungeonInput dungeon, String served, int servedResult) {
+        // The served variant is always re-solved, even when it is not one of ab.shadow.variants
+        List<DungeonSolver> order = new ArrayList<>(variants);
+        if (variants.stream().noneMatch(v -> v.name().equals(served))) order.add(registry.get(served));
+        Collections.shuffle(order, ThreadLocalRandom.current());
+
+        // Both layouts are built before timing, so micros only covers the solves
+        dungeon.prepare(DungeonSolver.Layout.ARRAY).prepare(DungeonSolver.Layout.FLAT);
+
+        Map<String, Long> micros = new HashMap<>();
+        Map<String, Integer> results = new HashMap<>();
+        Map<String, String> errors = new HashMap<>();
+        for (DungeonSolver solver : order) {
+            Stopwatch sw = new Stopwatch();
+            try {
+                results.put(solver.name(), solver.solve(dungeon));
+            } catch (RuntimeException | StackOverflowError e) {
+                errors.put(solver.name(), e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+            }
+            micros.put(solver.name(), sw.micros());
+        }
+
+        // Served latencies come from this job too, not from the request, so both sides ran under the same load
+        int rows = dungeon.rows();
+        int cols = dungeon.cols();
+        Integer servedAgain = results.get(served);
+        for (DungeonSolver solver : variants) {
+            String candidate = solver.name();
+            if (candidate.equals(served)) continue;
+            Integer result = results.get(candidate);
+            PairCounters p = pairs.computeIfAbsent(new PairKey(served, candidate), k -> new PairCounters());
+            p.comparisons.increment();
+            if (servedAgain != null && result != null) {
+                p.timed.increment();
+                p.servedMicros.add(micros.get(served));
+                p.candidateMicros.add(micros.get(candidate));
+                if (micros.get(candidate) < micros.get(served)) p.candidateFaster.increment();
+            }
+            if (result == null || result != servedResult) {
+                p.mismatches.increment();
+                mismatch(new Mismatch(Instant.now(), rows, cols, served, servedResult,
+                        candidate, result, errors.get(candidate)));
+            }
+        }
+        if (servedAgain == null || servedAgain != servedResult) {
+            mismatch(new Mismatch(Instant.now(), rows, cols, served, servedResult,
+                    served, servedAgain, errors.get(served)));
+        }
+        completed.increment();
+    }
+
+    private void mismatch(Mismatch m) {
+        mismatches.increment();
+        log.warn("Shadow mismatch on a {}x{} dungeon: {} served {}, {} computed {}",
+                m.rows(), m.cols(), m.served(), m.servedResult(), m.candidate(),
+                m.error() != null ? "an error: " + m.error() : m.candidateResult());
+        synchronized (recent) {
+            recent.addFirst(m);
+            if (recent.size() > RECENT_MISMATCHES) recent.removeLast();
+        }
+    }
+}
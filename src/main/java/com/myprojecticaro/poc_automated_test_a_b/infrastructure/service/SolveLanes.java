@@ -0,0 +1,260 @@
+package com.myprojecticaro.poc_automated_test_a_b.infrastructure.service;
+
+import com.myprojecticaro.poc_automated_test_a_b.domain.util.LatencyHistogram;
+import com.myprojecticaro.poc_automated_test_a_b.infrastructure.config.AbConfig;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Admission control that keeps large grids from starving small ones.
+ * <p>
+ * Work is classified by {@code rows * cols}. Grids below
+ * {@code ab.admission.large-cells} run in the {@link Lane#SMALL} lane, inline
+ * on the calling thread. Larger grids go to the {@link Lane#LARGE} lane, a
+ * fixed pool of {@code ab.admission.large.concurrency} threads with a bounded
+ * queue of {@code ab.admission.large.queue-capacity} and a heap budget of
+ * {@code ab.admission.large.memory-budget-mb}. A large task reserves its
+ * estimated working set when it is admitted and returns it when it finishes.
+ * </p>
+ *
+ * <p>
+ * Admission never blocks. A task that does not fit is rejected immediately
+ * with a {@link RejectedException}:
+ * <ul>
+ *   <li>{@link Reason#QUEUE_FULL} when the queue is full;</li>
+ *   <li>{@link Reason#MEMORY_BUDGET} when the budget is taken by tasks already admitted;</li>
+ *   <li>{@link Reason#TOO_LARGE} when the task alone exceeds the whole budget.</li>
+ * </ul>
+ * The first two carry a retry hint, estimated from the lane's backlog and its
+ * mean service time.
+ * </p>
+ */
+@Component
+public class SolveLanes {
+
+    /**
+     * Execution lane of a task.
+     */
+    public enum Lane { SMALL, LARGE }
+
+    /**
+     * Why a task was not admitted.
+     */
+    public enum Reason { QUEUE_FULL, MEMORY_BUDGET, TOO_LARGE }
+
+    /**
+     * Thrown when a task is not admitted to its lane.
+     */
+    public static final class RejectedException extends RuntimeException {
+        private final Reason reason;
+        private final long retryAfterSeconds;
+
+        RejectedException(Reason reason, long retryAfterSeconds, String message) {
+            super(retryAfterSeconds > 0 ? message + ", retry after " + retryAfterSeconds + " s" : message);
+            this.reason = reason;
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+
+        /**
+         * Returns why the task was rejected.
+         *
+         * @return the reason
+         */
+        public Reason reason() {
+            return reason;
+        }
+
+        /**
+         * Returns how long the client should wait before retrying.
+         *
+         * @return seconds to wait, or 0 if retrying cannot succeed
+         */
+        public long retryAfterSeconds() {
+            return retryAfterSeconds;
+        }
+    }
+
+    /**
+     * Point-in-time statistics of one lane.
+     *
+     * @param lane                the lane
+     * @param concurrency         tasks that may run at once, or 0 if unbounded
+     * @param active              tasks running now
+     * @param queued              tasks waiting for a thread
+     * @param queueCapacity       largest number of waiting tasks
+     * @param memoryBudgetBytes   heap budget of the lane, or 0 if unbounded
+     * @param memoryReservedBytes heap reserved by admitted tasks
+     * @param admitted            tasks admitted so far
+     * @param rejected            tasks rejected so far
+     * @param completed           tasks finished so far
+     * @param queueWait           time admitted tasks waited for a thread, in microseconds
+     */
+    public record Stats(Lane lane, int concurrency, int active, int queued, int queueCapacity,
+                        long memoryBudgetBytes, long memoryReservedBytes,
+                        long admitted, long rejected, long completed, LatencyHistogram.Snapshot queueWait) {}
+
+    private final long largeCells;
+    private final int concurrency;
+    private final int queueCapacity;
+    private final long memoryBudgetBytes;
+    private final ThreadPoolExecutor largeExecutor;
+    private final AtomicLong reserved = new AtomicLong();
+
+    private final LaneCounters small = new LaneCounters();
+    private final LaneCounters large = new LaneCounters();
+
+    private static final class LaneCounters {
+        final AtomicInteger active = new AtomicInteger();
+        final LongAdder admitted = new LongAdder();
+        final LongAdder rejected = new LongAdder();
+        final LongAdder completed = new LongAdder();
+        final LongAdder serviceMicros = new LongAdder();
+        final LatencyHistogram queueWait = new LatencyHistogram();
+    }
+
+    /**
+     * Constructs the lanes from their configuration.
+     *
+     * @param cfg configuration object containing the size threshold and the large lane's limits
+     */
+    public SolveLanes(AbConfig cfg) {
+        this.largeCells = cfg.admissionLargeCells;
+        this.concurrency = cfg.admissionLargeConcurrency;
+        this.queueCapacity = cfg.admissionLargeQueueCapacity;
+        this.memoryBudgetBytes = cfg.admissionLargeMemoryBudgetMb << 20;
+        AtomicInteger threads = new AtomicInteger();
+        this.largeExecutor = new ThreadPoolExecutor(concurrency, concurrency, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "solve-large-" + threads.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    void stop() {
+        largeExecutor.shutdownNow();
+    }
+
+    /**
+     * Returns the lane a grid with the given number of cells runs in.
+     *
+     * @param cells {@code rows * cols}
+     * @return the lane
+     */
+    public Lane laneOf(long cells) {
+        return cells >= largeCells ? Lane.LARGE : Lane.SMALL;
+    }
+
+    /**
+     * Runs a task in the lane of its grid.
+     * <p>
+     * Small tasks run before this method returns, and their exceptions are thrown
+     * directly. Large tasks are queued, and their exceptions complete the future.
+     * </p>
+     *
+     * @param cells {@code rows * cols} of the grid the task solves
+     * @param bytes heap the task is estimated to allocate
+     * @param task  the work to run
+     * @param <T>   the task's result type
+     * @return the future result of the task
+     * @throws RejectedException if the large lane cannot admit the task
+     */
+    public <T> CompletableFuture<T> submit(long cells, long bytes, Supplier<T> task) {
+        if (laneOf(cells) == Lane.SMALL) {
+            small.admitted.increment();
+            return CompletableFuture.completedFuture(runCounted(small, task));
+        }
+
+        if (bytes > memoryBudgetBytes) {
+            large.rejected.increment();
+            throw new RejectedException(Reason.TOO_LARGE, 0,
+                    "Grid needs about " + (bytes >> 20) + " MB, more than the large-grid budget of " + (memoryBudgetBytes >> 20) + " MB");
+        }
+        if (!reserve(bytes)) {
+            large.rejected.increment();
+            throw new RejectedException(Reason.MEMORY_BUDGET, retryAfterSeconds(),
+                    "Large-grid memory budget is exhausted");
+        }
+
+        CompletableFuture<T> future = new CompletableFuture<>();
+        long admittedAt = System.nanoTime();
+        try {
+            largeExecutor.execute(() -> {
+                try {
+                    large.queueWait.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - admittedAt));
+                    future.complete(runCounted(large, task));
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                } finally {
+                    reserved.addAndGet(-bytes);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            reserved.addAndGet(-bytes);
+            large.rejected.increment();
+            throw new RejectedException(Reason.QUEUE_FULL, retryAfterSeconds(), "Large-grid lane is full");
+        }
+        large.admitted.increment();
+        return future;
+    }
+
+    /**
+     * Returns the current statistics of both lanes.
+     *
+     * @return one {@link Stats} per lane
+     */
+    public List<Stats> stats() {
+        return List.of(
+                new Stats(Lane.SMALL, 0, small.active.get(), 0, 0, 0, 0,
+                        small.admitted.sum(), small.rejected.sum(), small.completed.sum(), small.queueWait.snapshot()),
+                new Stats(Lane.LARGE, concurrency, large.active.get(), largeExecutor.getQueue().size(), queueCapacity,
+                        memoryBudgetBytes, reserved.get(),
+                        large.admitted.sum(), large.rejected.sum(), large.completed.sum(), large.queueWait.snapshot()));
+    }
+
+    private static <T> T runCounted(LaneCounters lane, Supplier<T> task) {
+        lane.active.incrementAndGet();
+        long start = System.nanoTime();
+        try {
+            return task.get();
+        } finally {
+            lane.serviceMicros.add(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+            lane.completed.increment();
+            lane.active.decrementAndGet();
+        }
+    }
+
+    private boolean reserve(long bytes) {
+        long current;
+        do {
+            current = reserved.get();
+            if (current + bytes > memoryBudgetBytes) return false;
+        } while (!reserved.compareAndSet(current, current + bytes));
+        return true;
+    }
+
+    /**
+     * Time for the lane to work through its backlog at its mean service time, at least one second.
+     */
+    private long retryAfterSeconds() {
+        long completed = large.completed.sum();
+        if (completed == 0) return 1;
+        double meanMicros = (double) large.serviceMicros.sum() / completed;
+        double backlog = largeExecutor.getQueue().size() + large.active.get();
+        return Math.max(1, (long) Math.ceil(backlog * meanMicros / concurrency / 1_000_000));
+    }
+}
@@ -0,0 +1,149 @@
+package com.myprojecticaro.poc_automated_test_a_b.infrastructure.service;
+
+import com.myprojecticaro.poc_automated_test_a_b.domain.solver.DungeonSolver;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * The experiment variants: every {@link DungeonSolver} bean, by name.
+ * <p>
+ * Adding a variant only takes a new {@link DungeonSolver} bean; it can then be
+ * forced with {@code ?variant=<name>}, listed in {@code ab.allocation.arms} and
+ * {@code ab.shadow.variants}, and its runs are stored and aggregated under its
+ * name. The name {@value #FILE_VARIANT} is reserved for runs over dungeon
+ * files, which are not solved by a registered solver.
+ * </p>
+ */
+@Component
+public class SolverRegistry {
+
+    /**
+     * Variant name recorded for runs over memory-mapped dungeon files.
+     */
+    public static final String FILE_VARIANT = "F";
+
+    private static final Pattern NAME = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+
+    /**
+     * One arm of a traffic split.
+     *
+     * @param solver the solver serving the arm
+     * @param weight relative share of traffic, at least 1
+     */
+    public record Arm(DungeonSolver solver, int weight) {}
+
+    private final Map<String, DungeonSolver> solvers = new LinkedHashMap<>();
+
+    /**
+     * Constructs the registry from the solver beans.
+     *
+     * @param solvers every {@link DungeonSolver} in the context
+     * @throws IllegalStateException if a name is invalid, reserved or used twice
+     */
+    public SolverRegistry(List<DungeonSolver> solvers) {
+        for (DungeonSolver solver : solvers.stream().sorted(Comparator.comparing(DungeonSolver::name)).toList()) {
+            String name = solver.name();
+            if (name == null || !NAME.matcher(name).matches()) {
+                throw new IllegalStateException("Invalid solver name '" + name + "' of " + solver.getClass().getName());
+            }
+            if (FILE_VARIANT.equals(name)) {
+                throw new IllegalStateException("Solver name " + FILE_VARIANT + " is reserved for dungeon files");
+            }
+            DungeonSolver previous = this.solvers.putIfAbsent(name, solver);
+            if (previous != null) {
+                throw new IllegalStateException("Solver name " + name + " is used by both "
+                        + previous.getClass().getName() + " and " + solver.getClass().getName());
+            }
+        }
+        if (this.solvers.isEmpty()) {
+            throw new IllegalStateException("No DungeonSolver is registered");
+        }
+    }
+
+    /**
+     * Returns the solver of a variant.
+     *
+     * @param name the variant name
+     * @return the solver
+     * @throws IllegalArgumentException if no solver has that name
+     */
+    public DungeonSolver get(String name) {
+        DungeonSolver solver = solvers.get(name);
+        if (solver != null) return solver;
+        if (FILE_VARIANT.equals(name)) {
+            throw new IllegalArgumentException("Variant F only solves dungeon files, use /dungeon/min-initial-health/file");
+        }
+        throw new IllegalArgumentException("Unknown variant " + name + ", registered solvers are " + names());
+    }
+
+    /**
+     * Returns whether a solver has the given name.
+     *
+     * @param name the variant name
+     * @return true if {@link #get} would find it
+     */
+    public boolean contains(String name) {
+        return solvers.containsKey(name);
+    }
+
+    /**
+     * Returns the names of all registered solvers.
+     *
+     * @return the names, sorted
+     */
+    public List<String> names() {
+        return List.copyOf(solvers.keySet());
+    }
+
+    /**
+     * Returns all registered solvers.
+     *
+     * @return the solvers, sorted by name
+     */
+    public List<DungeonSolver> solvers() {
+        return List.copyOf(solvers.values());
+    }
+
+    /**
+     * Parses a comma-separated list of {@code name} or {@code name:weight}
+     * entries from the configuration. A missing weight counts as 1.
+     *
+     * @param value    the configured value, such as {@code A:50,B:30,D:20}
+     * @param property the property name, for error messages
+     * @return the arms in configuration order, without duplicates
+     * @throws IllegalArgumentException if an entry names no solver or has a weight below 1
+     */
+    public List<Arm> parseArms(String value, String property) {
+        List<Arm> arms = new ArrayList<>();
+        for (String entry : value.split(",")) {
+            if (entry.isBlank()) continue;
+            String[] parts = entry.trim().split(":", 2);
+            String name = parts[0].trim();
+            int weight;
+            try {
+                weight = parts.length == 2 ? Integer.parseInt(parts[1].trim()) : 1;
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(property + " has an invalid weight in '" + entry.trim() + "'");
+            }
+            if (weight < 1) {
+                throw new IllegalArgumentException(property + " has a weight below 1 in '" + entry.trim() + "'");
+            }
+            if (!solvers.containsKey(name)) {
+                throw new IllegalArgumentException(property + " lists " + name + ", registered solvers are " + names());
+            }
+            if (arms.stream().noneMatch(a -> a.solver().name().equals(name))) {
+                arms.add(new Arm(solvers.get(name), weight));
+            }
+        }
+        if (arms.isEmpty()) {
+            throw new IllegalArgumentException(property + " must list at least one solver");
+        }
+        return arms;
+    }
+}
@@ -0,0 +1,145 @@
+package com.myprojecticaro.poc_automated_test_a_b.infrastructure.service;
+
+import com.myprojecticaro.poc_automated_test_a_b.domain.solver.DungeonInput;
+import com.myprojecticaro.poc_automated_test_a_b.domain.solver.DungeonSolver;
+import com.myprojecticaro.poc_automated_test_a_b.domain.util.Stopwatch;
+import com.myprojecticaro.poc_automated_test_a_b.infrastructure.config.AbConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Optional JIT warm-up that solves synthetic grids with every registered
+ * solver before the application reports itself ready.
+ * <p>
+ * A fresh JVM runs the DP loops interpreted or C1-compiled for its first
+ * thousands of solves, so the latencies of a new instance are both slow and
+ * unrepresentative. With {@code ab.warmup.enabled}, this runner solves square
+ * grids from 4x4 up to {@code ab.warmup.max-cells} cells, plus one wide and one
+ * tall grid, with every solver for {@code ab.warmup.rounds} rounds or
+ * {@code ab.warmup.max-duration-ms}, whichever ends first. Spring Boot only
+ * publishes {@code ReadinessState.ACCEPTING_TRAFFIC} once every
+ * {@link ApplicationRunner} has returned, so {@code /readyz} keeps answering
+ * 503 until the warm-up is over.
+ * </p>
+ *
+ * <p>
+ * The web server is already listening during the warm-up. Requests that reach
+ * it anyway are served, but {@link #isWarmingUp()} makes the
+ * {@link ExperimentService} store them flagged as warm-up runs and keep them
+ * out of the latency statistics. Warm-up solves themselves are not experiment
+ * runs and are not recorded anywhere.
+ * </p>
+ */
+@Component
+public class SolverWarmup implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(SolverWarmup.class);
+
+    private final SolverRegistry solvers;
+    private final boolean enabled;
+    private final int rounds;
+    private final long maxDurationMs;
+    private final long maxCells;
+
+    private volatile boolean warmingUp;
+
+    /**
+     * Constructs the warm-up from its configuration.
+     *
+     * @param solvers the registered solvers to warm up
+     * @param cfg configuration object containing whether to warm up and for how long
+     */
+    public SolverWarmup(SolverRegistry solvers, AbConfig cfg) {
+        this.solvers = solvers;
+        this.enabled = cfg.warmupEnabled;
+        this.rounds = cfg.warmupRounds;
+        this.maxDurationMs = cfg.warmupMaxDurationMs;
+        this.maxCells = cfg.warmupMaxCells;
+        // Requests served before the runner starts are warm-up runs too
+        this.warmingUp = enabled;
+    }
+
+    /**
+     * Returns whether the warm-up is enabled and not finished yet.
+     *
+     * @return true while runs are not representative of a warmed-up JVM
+     */
+    public boolean isWarmingUp() {
+        return warmingUp;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) return;
+        try {
+            warmUp();
+        } finally {
+            warmingUp = false;
+        }
+    }
+
+    private void warmUp() {
+        List<int[][]> grids = syntheticGrids();
+        List<DungeonSolver> all = solvers.solvers();
+        long deadline = System.nanoTime() + maxDurationMs * 1_000_000;
+        Stopwatch sw = new Stopwatch();
+
+        int round = 0;
+        long solves = 0;
+        while (round < rounds && System.nanoTime() - deadline < 0) {
+            for (int[][] grid : grids) {
+                int expected = 0;
+                for (int i = 0; i < all.size(); i++) {
+                    // A fresh input per solve also warms the layout conversion of FLAT solvers
+                    int result = all.get(i).solve(DungeonInput.of(grid));
+                    if (i == 0) {
+                        expected = result;
+                    } else if (round == 0 && result != expected) {
+                        log.warn("Warm-up: variant {} computed {} on a {}x{} grid, variant {} computed {}",
+                                all.get(i).name(), result, grid.length, grid[0].length, all.get(0).name(), expected);
+                    }
+                    solves++;
+                }
+            }
+            round++;
+        }
+
+        log.info("Warm-up solved {} grids in {} rounds with variants {} in {} ms",
+                solves, round, solvers.names(), sw.micros() / 1_000);
+    }
+
+    /**
+     * Builds square grids whose side grows fourfold up to {@code ab.warmup.max-cells},
+     * plus a wide and a tall grid, with cells in [-10, 10] from a fixed seed.
+     */
+    private List<int[][]> syntheticGrids() {
+        Random random = new Random(42);
+        List<int[][]> grids = new ArrayList<>();
+        int side = 4;
+        for (; (long) side * side <= maxCells; side *= 4) {
+            grids.add(grid(side, side, random));
+        }
+        // side / 4 is the largest square side within the limit
+        int large = Math.max(4, side / 4);
+        grids.add(grid(8, large * large / 8 + 1, random));
+        grids.add(grid(large * large / 8 + 1, 8, random));
+        return grids;
+    }
+
+    private static int[][] grid(int rows, int cols, Random random) {
+        int[][] grid = new int[rows][cols];
+        for (int[] row : grid) {
+            for (int c = 0; c < cols; c++) {
+                row[c] = random.nextInt(21) - 10;
+            }
+        }
+        return grid;
+    }
+}
@@ -0,0 +1,331 @@
+package com.myprojecticaro.poc_automated_test_a_b.infrastructure.service;
+
+import com.myprojecticaro.poc_automated_test_a_b.infrastructure.config.AbConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Decides which variant serves a request that does not force one.
+ * <p>
+ * The arms are the solvers listed in {@code ab.allocation.arms}, by their
+ * {@link SolverRegistry} name, each optionally followed by a weight
+ * ({@code A:50,B:30,D:20}). Two modes are available through {@code ab.allocation.mode}:
+ * <ul>
+ *   <li>{@code fixed} - a static N-arm split by weight, sticky per subject. The
+ *       subject (an explicit subject id, or the client IP) is hashed together with
+ *       {@code ab.allocation.salt} into one of as many slots as the weights add up
+ *       to, and each arm owns a run of slots as long as its weight. A subject therefore
+ *       always sees the same variant, and changing the salt reshuffles all subjects
+ *       for a new experiment.</li>
+ *   <li>{@code epsilon-greedy} - an adaptive multi-armed bandit over the same arms;
+ *       weights are ignored. Arms are compared separately in every grid-size
+ *       bucket of {@link LatencyHistograms}, by mean observed solve time. With
+ *       probability epsilon a uniformly random arm is explored, otherwise the
+ *       fastest arm is served. Epsilon starts at 1 and decays with the number of
+ *       samples in the bucket as {@code 1 / sqrt(1 + samples / 100)}, but never
+ *       drops below {@code ab.allocation.min-exploration}, so slower arms keep being
+ *       measured. Arms with fewer than {@code ab.allocation.min-samples} samples in
+ *       a bucket are always explored first. Its draws come from
+ *       {@link ThreadLocalRandom}, as its choice has to follow the data.</li>
+ * </ul>
+ * Neither mode takes a lock or touches shared mutable state when choosing.
+ * </p>
+ */
+@Component
+public class TrafficAllocator {
+
+    private static final Logger log = LoggerFactory.getLogger(TrafficAllocator.class);
+
+    /** Value of {@code ab.allocation.arms} when it is not configured. */
+    static final String DEFAULT_ARMS = "A:50,B:50";
+
+    /**
+     * Allocation strategy, see the class documentation.
+     */
+    public enum Mode {
+        FIXED, EPSILON_GREEDY;
+
+        static Mode parse(String value) {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+        }
+    }
+
+    /**
+     * Current bandit state of one arm within one size bucket.
+     *
+     * @param variant    the arm
+     * @param samples    solves observed for this arm and bucket
+     * @param meanMicros mean solve time, or 0 without samples
+     * @param share      probability that the next unforced request of this bucket is served by the arm
+     */
+    public record ArmState(String variant, long samples, double meanMicros, double share) {}
+
+    /**
+     * Current bandit state of one size bucket.
+     *
+     * @param sizeBucket one of {@link LatencyHistograms#SIZE_BUCKETS}
+     * @param epsilon    current exploration probability; 1 while an arm still lacks {@code ab.allocation.min-samples}
+     * @param leader     arm with the lowest mean solve time, served whenever the bucket exploits
+     * @param arms       state of every arm
+     */
+    public record BucketState(String sizeBucket, double epsilon, String leader, List<ArmState> arms) {}
+
+    private static final class ArmStats {
+        final LongAdder samples = new LongAdder();
+        final LongAdder sumMicros = new LongAdder();
+
+        double mean() {
+            long n = samples.sum();
+            return n == 0 ? 0 : (double) sumMicros.sum() / n;
+        }
+    }
+
+    private final Mode mode;
+    private final long saltHash;
+    private final String[] arms;
+    /** Exclusive upper slot of every arm in {@code fixed} mode; the last one is the number of slots. */
+    private final int[] slotLimits;
+    private final double minExploration;
+    private final long minSamples;
+    private final Map<String, ArmStats[]> stats = new HashMap<>();
+
+    /**
+     * Constructs the allocator from its configuration.
+     *
+     * @param registry the registered solvers the arms are chosen from
+     * @param cfg configuration object containing the allocation mode, arms and weights
+     * @throws IllegalArgumentException if the mode is unknown, an arm names no registered solver or a weight is below 1,
+     *                                  or {@code ab.split.a} is invalid or set together with {@code ab.allocation.arms}
+     */
+    public TrafficAllocator(SolverRegistry registry, AbConfig cfg) {
+        this.mode = Mode.parse(cfg.allocationMode);
+        this.saltHash = fnv1a(FNV_OFFSET, cfg.allocationSalt + '\0');
+        List<SolverRegistry.Arm> configured = registry.parseArms(arms(cfg), "ab.allocation.arms");
+        this.arms = new String[configured.size()];
+        this.slotLimits = new int[configured.size()];
+        int slots = 0;
+        for (int i = 0; i < arms.length; i++) {
+            arms[i] = configured.get(i).solver().name();
+            slots = Math.addExact(slots, configured.get(i).weight());
+            slotLimits[i] = slots;
+        }
+        this.minExploration = cfg.allocationMinExploration;
+        this.minSamples = cfg.allocationMinSamples;
+        for (String v : arms) {
+            ArmStats[] bySize = new ArmStats[LatencyHistograms.SIZE_BUCKETS.size()];
+            for (int i = 0; i < bySize.length; i++) {
+                bySize[i] = new ArmStats();
+            }
+            stats.put(v, bySize);
+        }
+    }
+
+    /**
+     * Returns the configured arms, honouring the deprecated {@code ab.split.a}
+     * ({@code AB_SPLIT_A}) of the former A/B split. When it is set and the arms
+     * are left at their default, it becomes {@code A:<a>,B:<100-a>}, so existing
+     * deployments keep their split.
+     *
+     * @param cfg configuration object containing the arms and the legacy split
+     * @return the value to parse as {@code ab.allocation.arms}
+     * @throws IllegalArgumentException if the split is outside 0-100 or the arms are configured as well
+     */
+    static String arms(AbConfig cfg) {
+        if (cfg.splitA == null) {
+            return cfg.allocationArms;
+        }
+        int a = cfg.splitA;
+        if (a < 0 || a > 100) {
+            throw new IllegalArgumentException("ab.split.a (AB_SPLIT_A) must be between 0 and 100, was " + a);
+        }
+        String mapped = a == 0 ? "B:100" : a == 100 ? "A:100" : "A:" + a + ",B:" + (100 - a);
+        if (!DEFAULT_ARMS.equals(cfg.allocationArms.replace(" ", ""))) {
+            throw new IllegalArgumentException("ab.split.a (AB_SPLIT_A) is replaced by ab.allocation.arms (AB_ALLOCATION_ARMS)"
+                    + " and cannot be combined with it; remove ab.split.a, or set ab.allocation.arms=" + mapped + " alone");
+        }
+        log.warn("ab.split.a (AB_SPLIT_A) is deprecated, using ab.allocation.arms={}", mapped);
+        return mapped;
+    }
+
+    /**
+     * Returns the configured allocation mode.
+     *
+     * @return the mode
+     */
+    public Mode mode() {
+        return mode;
+    }
+
+    /**
+     * Picks the variant for an unforced request.
+     *
+     * @param rows    number of rows of the grid
+     * @param cols    number of columns of the grid
+     * @param subject stable identifier of the client, such as an explicit subject id or its IP
+     * @return the variant that should serve the request
+     */
+    public String choose(int rows, int cols, String subject) {
+        if (mode == Mode.FIXED) {
+            int slot = slotOf(subject, slotLimits[slotLimits.length - 1]);
+            int arm = 0;
+            while (slot >= slotLimits[arm]) arm++;
+            return arms[arm];
+        }
+
+        int bucket = LatencyHistograms.sizeBucketOf((long) rows * cols);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        // Measure every arm a little before trusting any mean
+        int undersampled = undersampledCount(bucket);
+        if (undersampled > 0) {
+            String arm = undersampledArm(bucket, random.nextInt(undersampled));
+            if (arm != null) return arm;
+        }
+
+        if (random.nextDouble() < epsilon(bucket)) {
+            return arms[random.nextInt(arms.length)];
+        }
+        return fastest(bucket);
+    }
+
+    /**
+     * Feeds the solve time of a run back into the bandit. Variants that are
+     * not arms are ignored, as are all observations in {@code fixed} mode.
+     *
+     * @param variant the variant that solved the grid
+     * @param rows    number of rows of the grid
+     * @param cols    number of columns of the grid
+     * @param micros  solve time in microseconds
+     */
+    public void observe(String variant, int rows, int cols, long micros) {
+        if (mode == Mode.FIXED) return;
+        ArmStats[] bySize = stats.get(variant);
+        if (bySize == null) return;
+        ArmStats arm = bySize[LatencyHistograms.sizeBucketOf((long) rows * cols)];
+        arm.samples.increment();
+        arm.sumMicros.add(micros);
+    }
+
+    /**
+     * Returns the bandit state of every size bucket; empty in {@code fixed} mode.
+     *
+     * @return one {@link BucketState} per size bucket
+     */
+    public List<BucketState> state() {
+        List<BucketState> buckets = new ArrayList<>();
+        if (mode == Mode.FIXED) return buckets;
+
+        for (int b = 0; b < LatencyHistograms.SIZE_BUCKETS.size(); b++) {
+            int undersampled = undersampledCount(b);
+            double epsilon = undersampled == 0 ? epsilon(b) : 1;
+            String fastest = fastest(b);
+
+            List<ArmState> armStates = new ArrayList<>();
+            for (String arm : arms) {
+                ArmStats s = stats.get(arm)[b];
+                double share = undersampled == 0
+                        ? epsilon / arms.length + (arm.equals(fastest) ? 1 - epsilon : 0)
+                        : isUndersampled(arm, b) ? 1.0 / undersampled : 0;
+                armStates.add(new ArmState(arm, s.samples.sum(), s.mean(), share));
+            }
+            buckets.add(new BucketState(LatencyHistograms.SIZE_BUCKETS.get(b), epsilon, fastest, armStates));
+        }
+        return buckets;
+    }
+
+    /**
+     * Returns the arms taking part in the bandit.
+     *
+     * @return the arms, in configuration order
+     */
+    public List<String> arms() {
+        return List.of(arms);
+    }
+
+    /**
+     * Returns the lowest exploration probability ({@code ab.allocation.min-exploration}).
+     *
+     * @return the exploration floor
+     */
+    public double minExploration() {
+        return minExploration;
+    }
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    /**
+     * Maps a subject to one of {@code slots} slots: FNV-1a over the salt and the subject,
+     * then the MurmurHash3 finalizer so that similar IPs spread evenly.
+     */
+    int slotOf(String subject, int slots) {
+        long h = fnv1a(saltHash, subject != null ? subject : "");
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return (int) (((h >>> 32) * slots) >>> 32);
+    }
+
+    private static long fnv1a(long h, String s) {
+        for (int i = 0; i < s.length(); i++) {
+            h ^= s.charAt(i);
+            h *= FNV_PRIME;
+        }
+        return h;
+    }
+
+    private boolean isUndersampled(String arm, int bucket) {
+        return stats.get(arm)[bucket].samples.sum() < minSamples;
+    }
+
+    private int undersampledCount(int bucket) {
+        int count = 0;
+        for (String arm : arms) {
+            if (isUndersampled(arm, bucket)) count++;
+        }
+        return count;
+    }
+
+    /**
+     * Returns the {@code k}-th undersampled arm of a bucket, or {@code null} if
+     * concurrent observations left fewer than {@code k + 1} of them.
+     */
+    private String undersampledArm(int bucket, int k) {
+        for (String arm : arms) {
+            if (isUndersampled(arm, bucket) && k-- == 0) return arm;
+        }
+        return null;
+    }
+
+    private double epsilon(int bucket) {
+        long samples = 0;
+        for (String arm : arms) {
+            samples += stats.get(arm)[bucket].samples.sum();
+        }
+        return Math.max(minExploration, 1 / Math.sqrt(1 + samples / 100.0));
+    }
+
+    private String fastest(int bucket) {
+        String best = arms[0];
+        double bestMean = Double.MAX_VALUE;
+        for (String arm : arms) {
+            ArmStats s = stats.get(arm)[bucket];
+            if (s.samples.sum() > 0 && s.mean() < bestMean) {
+                best = arm;
+                bestMean = s.mean();
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,17 @@
+-- Hibernate created experiment_run.variant from the first release's Variant
+-- enum, with check (variant in ('A','B')). Later variants are stored by name,
+-- so any check constraint on the column goes. V3 recreates the table without it.
+
+do $$
+declare
+  c record;
+begin
+  for c in
+    select conname from pg_constraint
+    where conrelid = 'experiment_run'::regclass and contype = 'c'
+      and pg_get_constraintdef(oid) like '%variant%'
+  loop
+    execute format('alter table experiment_run drop constraint %I', c.conname);
+  end loop;
+end
+$$;
@@ -0,0 +1,3 @@
+-- Runs answered from the result cache; their micros is the lookup time, not a solve time
+
+alter table experiment_run add column if not exists cached boolean not null default false;
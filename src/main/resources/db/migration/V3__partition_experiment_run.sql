@@ -0,0 +1,75 @@
+-- Range-partitions experiment_run by created_at into one partition per UTC day,
+-- so old days can be rolled up and dropped instead of growing one heap forever.
+-- Existing runs are copied over, keeping their ids.
+
+alter table experiment_run rename to experiment_run_legacy;
+alter index if exists experiment_run_pkey rename to experiment_run_legacy_pkey;
+drop index if exists idx_experiment_run_variant;
+drop index if exists idx_experiment_run_created_at;
+
+create sequence experiment_run_seq;
+
+create table experiment_run (
+  id bigint not null default nextval('experiment_run_seq'),
+  variant varchar(16) not null,
+  rows int not null,
+  cols int not null,
+  result int not null,
+  micros bigint not null,
+  cached boolean not null default false,
+  created_at timestamptz not null default now(),
+  client_ip text,
+  primary key (id, created_at)
+) partition by range (created_at);
+
+-- Lets pg_get_serial_sequence('experiment_run', 'id') find it, as the writer expects
+alter sequence experiment_run_seq owned by experiment_run.id;
+
+-- Catches runs of days without a partition, so an insert never fails
+create table experiment_run_default partition of experiment_run default;
+
+create index idx_experiment_run_variant on experiment_run(variant);
+create index idx_experiment_run_created_at on experiment_run(created_at);
+
+-- Serializes maintenance across application instances
+create function experiment_run_maintenance_lock() returns void
+language sql as $$
+  select pg_advisory_xact_lock(hashtext('experiment_run_maintenance'))
+$$;
+
+-- Creates the partition of one UTC day if it is missing, moving any runs of
+-- that day out of the default partition first; returns whether it was created
+create function experiment_run_create_partition(part_day date) returns boolean
+language plpgsql as $$
+declare
+  part text := 'experiment_run_p' || to_char(part_day, 'YYYYMMDD');
+  lo timestamptz := part_day::timestamp at time zone 'UTC';
+  hi timestamptz := (part_day + 1)::timestamp at time zone 'UTC';
+begin
+  perform experiment_run_maintenance_lock();
+  if to_regclass(part) is not null then
+    return false;
+  end if;
+
+  execute format('create table %I (like experiment_run including defaults)', part);
+  execute format('with moved as (delete from experiment_run_default where created_at >= %L and created_at < %L returning *) '
+                 'insert into %I select * from moved', lo, hi, part);
+  execute format('alter table experiment_run attach partition %I for values from (%L) to (%L)', part, lo, hi);
+  return true;
+end
+$$;
+
+select experiment_run_create_partition(part_day)
+from (
+  select distinct (created_at at time zone 'UTC')::date as part_day from experiment_run_legacy
+  union
+  select (now() at time zone 'UTC')::date + i from generate_series(0, 7) i
+) days;
+
+insert into experiment_run (id, variant, rows, cols, result, micros, cached, created_at, client_ip)
+select id, variant, rows, cols, result, micros, cached, created_at, client_ip
+from experiment_run_legacy;
+
+select setval('experiment_run_seq', coalesce((select max(id) from experiment_run), 0) + 1, false);
+
+drop table experiment_run_legacy;
@@ -0,0 +1,121 @@
+-- Hourly per-variant, per-size-bucket summaries of rolled-up daily partitions.
+-- Summary queries read these plus the raw runs not rolled up yet.
+
+create table experiment_run_rollup (
+  hour_start timestamptz not null,
+  variant varchar(16) not null,
+  -- index into LatencyHistograms.SIZE_BUCKETS
+  size_bucket smallint not null,
+  runs bigint not null,
+  timed_runs bigint not null,
+  sum_micros bigint not null,
+  min_micros bigint,
+  max_micros bigint,
+  -- sparse LatencyHistogram of the timed runs: bucket indexes and their counts
+  histogram_buckets smallint[] not null,
+  histogram_counts bigint[] not null,
+  primary key (hour_start, variant, size_bucket)
+);
+
+-- One row per rolled-up partition; raw runs before max(range_end) are only read through the rollups
+create table experiment_run_rollup_log (
+  partition_name text primary key,
+  range_start timestamptz not null,
+  range_end timestamptz not null,
+  runs bigint not null,
+  rolled_at timestamptz not null default now()
+);
+
+-- Same buckets as LatencyHistograms.sizeBucketOf: <=100, <=1K, ..., <=10M, >10M cells
+create function experiment_run_size_bucket(cells bigint) returns smallint
+language sql immutable as $$
+  select (case
+    when cells <= 100 then 0
+    when cells <= 1000 then 1
+    when cells <= 10000 then 2
+    when cells <= 100000 then 3
+    when cells <= 1000000 then 4
+    when cells <= 10000000 then 5
+    else 6
+  end)::smallint
+$$;
+
+-- Same buckets as LatencyHistogram.bucketOf: 16 linear buckets, then 16 per power of two up to 2^40
+create function experiment_run_latency_bucket(micros bigint) returns smallint
+language sql immutable as $$
+  select (case
+    when micros < 16 then greatest(micros, 0)
+    when micros >= 2199023255552 then 607
+    else (e - 3) * 16 + ((micros >> (e - 4)) & 15)
+  end)::smallint
+  from (select length(ltrim(micros::bit(64)::text, '0')) - 1 as e) x
+$$;
+
+-- Rolls one finished daily partition up into experiment_run_rollup; returns its
+-- number of runs, or null if the partition is missing or already rolled up
+create function experiment_run_roll_up(part_day date) returns bigint
+language plpgsql as $$
+declare
+  part text := 'experiment_run_p' || to_char(part_day, 'YYYYMMDD');
+  lo timestamptz := part_day::timestamp at time zone 'UTC';
+  hi timestamptz := (part_day + 1)::timestamp at time zone 'UTC';
+  total bigint;
+begin
+  perform experiment_run_maintenance_lock();
+  if to_regclass(part) is null
+     or exists (select 1 from experiment_run_rollup_log where partition_name = part) then
+    return null;
+  end if;
+
+  execute format($q$
+    insert into experiment_run_rollup (hour_start, variant, size_bucket, runs, timed_runs, sum_micros,
+                                       min_micros, max_micros, histogram_buckets, histogram_counts)
+    select hour_start, variant, size_bucket,
+           sum(runs), sum(timed_runs), sum(sum_micros), min(min_micros), max(max_micros),
+           coalesce(array_agg(latency_bucket order by latency_bucket) filter (where timed_runs > 0), '{}'),
+           coalesce(array_agg(timed_runs order by latency_bucket) filter (where timed_runs > 0), '{}')
+    from (
+      select date_trunc('hour', created_at at time zone 'UTC') at time zone 'UTC' as hour_start,
+             variant,
+             experiment_run_size_bucket(rows::bigint * cols) as size_bucket,
+             experiment_run_latency_bucket(micros) as latency_bucket,
+             count(*) as runs,
+             count(*) filter (where not cached) as timed_runs,
+             coalesce(sum(micros) filter (where not cached), 0) as sum_micros,
+             min(micros) filter (where not cached) as min_micros,
+             max(micros) filter (where not cached) as max_micros
+      from %I
+      group by 1, 2, 3, 4
+    ) b
+    group by hour_start, variant, size_bucket
+  $q$, part);
+
+  select coalesce(sum(runs), 0) into total
+  from experiment_run_rollup
+  where hour_start >= lo and hour_start < hi;
+
+  insert into experiment_run_rollup_log (partition_name, range_start, range_end, runs)
+  values (part, lo, hi, total);
+  return total;
+end
+$$;
+
+-- Drops the rolled-up daily partitions that ended at or before the cutoff; returns how many were dropped
+create function experiment_run_drop_partitions(cutoff timestamptz) returns int
+language plpgsql as $$
+declare
+  p record;
+  dropped int := 0;
+begin
+  perform experiment_run_maintenance_lock();
+  for p in
+    select partition_name from experiment_run_rollup_log
+    where range_end <= cutoff and to_regclass(partition_name) is not null
+    order by range_start
+  loop
+    execute format('drop table %I', p.partition_name);
+    dropped := dropped + 1;
+  end loop;
+  return dropped;
+end
+$$;
@@ -0,0 +1,6 @@
+-- Variants are the names of registered DungeonSolver beans rather than a fixed
+-- enum, so the column holds up to 64 characters (SolverRegistry's name limit).
+-- Raising a varchar limit only changes the catalog; no partition is rewritten.
+
+alter table experiment_run alter column variant type varchar(64);
+alter table experiment_run_rollup alter column variant type varchar(64);
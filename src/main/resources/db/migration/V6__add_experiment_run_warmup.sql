@@ -0,0 +1,55 @@
+-- Runs served while the startup warm-up was still running; like cached runs,
+-- they are counted but left out of every latency figure
+
+alter table experiment_run add column if not exists warmup boolean not null default false;
+
+-- Replaces the V4 function so that warm-up runs are left out of the timed columns.
+--
+-- Rolls one finished daily partition up into experiment_run_rollup; returns its
+-- number of runs, or null if the partition is missing or already rolled up
+create or replace function experiment_run_roll_up(part_day date) returns bigint
+language plpgsql as $$
+declare
+  part text := 'experiment_run_p' || to_char(part_day, 'YYYYMMDD');
+  lo timestamptz := part_day::timestamp at time zone 'UTC';
+  hi timestamptz := (part_day + 1)::timestamp at time zone 'UTC';
+  total bigint;
+begin
+  perform experiment_run_maintenance_lock();
+  if to_regclass(part) is null
+     or exists (select 1 from experiment_run_rollup_log where partition_name = part) then
+    return null;
+  end if;
+
+  execute format($q$
+    insert into experiment_run_rollup (hour_start, variant, size_bucket, runs, timed_runs, sum_micros,
+                                       min_micros, max_micros, histogram_buckets, histogram_counts)
+    select hour_start, variant, size_bucket,
+           sum(runs), sum(timed_runs), sum(sum_micros), min(min_micros), max(max_micros),
+           coalesce(array_agg(latency_bucket order by latency_bucket) filter (where timed_runs > 0), '{}'),
+           coalesce(array_agg(timed_runs order by latency_bucket) filter (where timed_runs > 0), '{}')
+    from (
+      select date_trunc('hour', created_at at time zone 'UTC') at time zone 'UTC' as hour_start,
+             variant,
+             experiment_run_size_bucket(rows::bigint * cols) as size_bucket,
+             experiment_run_latency_bucket(micros) as latency_bucket,
+             count(*) as runs,
+             count(*) filter (where not cached and not warmup) as timed_runs,
+             coalesce(sum(micros) filter (where not cached and not warmup), 0) as sum_micros,
+             min(micros) filter (where not cached and not warmup) as min_micros,
+             max(micros) filter (where not cached and not warmup) as max_micros
+      from %I
+      group by 1, 2, 3, 4
+    ) b
+    group by hour_start, variant, size_bucket
+  $q$, part);
+
+  select coalesce(sum(runs), 0) into total
+  from experiment_run_rollup
+  where hour_start >= lo and hour_start < hi;
+
+  insert into experiment_run_rollup_log (partition_name, range_start, range_end, runs)
+  values (part, lo, hi, total);
+  return total;
+end
+$$;
@@ -1,4 +1,212 @@
 package com.myprojecticaro.poc_automated_test_a_b;
 
+import com.myprojecticaro.poc_automated_test_a_b.domain.DungeonService;
+import com.myprojecticaro.poc_automated_test_a_b.domain.model.ExperimentRun;
+import com.myprojecticaro.poc_automated_test_a_b.domain.solver.BottomUpSolver;
+import com.myprojecticaro.poc_automated_test_a_b.domain.solver.RollingSolver;
+import com.myprojecticaro.poc_automated_test_a_b.domain.solver.TiledSolver;
+import com.myprojecticaro.poc_automated_test_a_b.domain.solver.TopDownSolver;
+import com.myprojecticaro.poc_automated_test_a_b.domain.solver.VectorSolver;
+import com.myprojecticaro.poc_automated_test_a_b.domain.solver.WavefrontSolver;
+import com.myprojecticaro.poc_automated_test_a_b.infrastructure.cache.ResultCache;
+import com.myprojecticaro.poc_automated_test_a_b.infrastructure.config.AbConfig;
+import com.myprojecticaro.poc_automated_test_a_b.infrastructure.metrics.RequestTimings;
+import com.myprojecticaro.poc_automated_test_a_b.infrastructure.repository.ExperimentRunRepository;
+import com.myprojecticaro.poc_automated_test_a_b.infrastructure.repository.ExperimentRunWriter;
+import com.myprojecticaro.poc_automated_test_a_b.infrastructure.service.ExperimentService;
+import com.myprojecticaro.poc_automated_test_a_b.infrastructure.service.LatencyHistograms;
+import com.myprojecticaro.poc_automated_test_a_b.infrastructure.service.RunAggregates;
+import com.myprojecticaro.poc_automated_test_a_b.infrastructure.service.ShadowRunner;
+import com.myprojecticaro.poc_automated_test_a_b.infrastructure.service.SolveLanes;
+import com.myprojecticaro.poc_automated_test_a_b.infrastructure.service.SolverRegistry;
+import com.myprojecticaro.poc_automated_test_a_b.infrastructure.service.SolverWarmup;
+import com.myprojecticaro.poc_automated_test_a_b.infrastructure.service.TrafficAllocator;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs experiments through {@link ExperimentService} with the real solvers,
+ * allocator, cache, lanes and shadow runner; only the database is mocked.
+ */
 public class AbExperimentTest {
+
+    private static final int[][] DUNGEON = {{-2, -3, 3}, {-5, -10, 1}, {10, 30, -5}};
+
+    private final ExperimentRunWriter writer = mock(ExperimentRunWriter.class);
+    private RunAggregates aggregates;
+    private LatencyHistograms histograms;
+    private ShadowRunner shadow;
+    private SolverWarmup warmup;
+
+    @Test
+    void forcedVariantSolvesAndQueuesTheRun() {
+        ExperimentService service = service(Map.of());
+        when(writer.nextId()).thenReturn(42L);
+
+        ExperimentService.Result result = service.run(DUNGEON, "C", "subject", "10.0.0.1", RequestTimings.NONE).join();
+
+        assertEquals("C", result.variant());
+        assertEquals(7, result.result());
+        assertEquals(42L, result.storedId());
+        assertFalse(result.cached());
+        ArgumentCaptor<ExperimentRun> run = ArgumentCaptor.forClass(ExperimentRun.class);
+        verify(writer).write(run.capture());
+        assertEquals("C", run.getValue().getVariant());
+        assertEquals(7, run.getValue().getResult());
+        assertEquals("10.0.0.1", run.getValue().getClientIp());
+        assertEquals(1, aggregates.snapshot("C").timedRuns());
+    }
+
+    @Test
+    void unforcedRequestsFollowTheStickySplit() {
+        ExperimentService service = service(Map.of("ab.allocation.arms", "A,B,C"));
+
+        for (int i = 0; i < 50; i++) {
+            String subject = "user-" + i;
+            String first = service.run(DUNGEON, null, subject, "ip", RequestTimings.NONE).join().variant();
+            assertEquals(first, service.run(DUNGEON, null, subject, "ip", RequestTimings.NONE).join().variant(), subject);
+        }
+    }
+
+    @Test
+    void unknownForcedVariantIsRejected() {
+        ExperimentService service = service(Map.of());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> service.run(DUNGEON, "Z", "subject", "ip", RequestTimings.NONE));
+    }
+
+    @Test
+    void cacheHitsAreFlaggedUntimedAndNotShadowed() {
+        ExperimentService service = service(Map.of(
+                "ab.cache.enabled", "true",
+                "ab.shadow.enabled", "true",
+                "ab.shadow.sample-rate", "1",
+                "ab.shadow.variants", "A,B"));
+
+        ExperimentService.Result solved = service.run(DUNGEON, "A", "subject", "ip", RequestTimings.NONE).join();
+        ExperimentService.Result hit = service.run(DUNGEON, "A", "subject", "ip", RequestTimings.NONE).join();
+
+        assertFalse(solved.cached());
+        assertTrue(hit.cached());
+        assertEquals(solved.result(), hit.result());
+        RunAggregates.Snapshot a = aggregates.snapshot("A");
+        assertEquals(2, a.runs());
+        assertEquals(1, a.timedRuns());
+        // Only the solve that actually ran is compared against the other variants
+        assertEquals(1, shadow.stats().sampled() + shadow.stats().dropped());
+    }
+
+    @Test
+    void runsServedDuringTheWarmUpAreFlaggedAndNotTimed() {
+        ExperimentService service = service(Map.of(
+                "ab.warmup.enabled", "true",
+                "ab.warmup.rounds", "1",
+                "ab.warmup.max-cells", "16",
+                "ab.allocation.mode", "epsilon-greedy"));
+        ArgumentCaptor<ExperimentRun> runs = ArgumentCaptor.forClass(ExperimentRun.class);
+
+        // The warm-up counts as running from construction until its runner returns
+        assertTrue(warmup.isWarmingUp());
+        service.run(DUNGEON, "A", "subject", "ip", RequestTimings.NONE).join();
+
+        verify(writer).write(runs.capture());
+        assertTrue(runs.getValue().isWarmup());
+        assertEquals(1, aggregates.snapshot("A").runs());
+        assertEquals(0, aggregates.snapshot("A").timedRuns());
+        assertTrue(histograms.entries().isEmpty());
+        assertTrue(service.allocator().state().stream()
+                .flatMap(b -> b.arms().stream()).allMatch(a -> a.samples() == 0));
+
+        warmup.run(null);
+        assertFalse(warmup.isWarmingUp());
+        service.run(DUNGEON, "A", "subject", "ip", RequestTimings.NONE).join();
+
+        verify(writer, times(2)).write(runs.capture());
+        assertFalse(runs.getValue().isWarmup());
+        assertEquals(2, aggregates.snapshot("A").runs());
+        assertEquals(1, aggregates.snapshot("A").timedRuns());
+        assertFalse(histograms.entries().isEmpty());
+        assertEquals(1, service.allocator().state().getFirst().arms().getFirst().samples());
+    }
+
+    @Test
+    void batchSolvesEveryItemAndWritesThemTogether() throws InterruptedException {
+        ExperimentService service = service(Map.of());
+        when(writer.nextIds(anyInt())).thenAnswer(inv -> new long[]{1, 2, 3});
+        List<ExperimentService.BatchItem> items = Collections.synchronizedList(new ArrayList<>());
+
+        service.runBatch(List.of(DUNGEON, new int[][]{{5}}, new int[][]{{-5}}), "B", "subject", "ip", items::add);
+
+        items.sort((x, y) -> Integer.compare(x.index(), y.index()));
+        assertEquals(List.of(7, 1, 6), items.stream().map(i -> i.result().result()).toList());
+        assertEquals(List.of(1L, 2L, 3L), items.stream().map(i -> i.result().storedId()).toList());
+        assertTrue(items.stream().allMatch(i -> i.error() == null));
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<ExperimentRun>> runs = ArgumentCaptor.forClass(List.class);
+        verify(writer).writeAll(runs.capture());
+        assertEquals(3, runs.getValue().size());
+    }
+
+    @Test
+    void batchReportsRejectedItemsAsErrors() throws InterruptedException {
+        ExperimentService service = service(Map.of(
+                "ab.admission.large-cells", "4",
+                "ab.admission.large.memory-budget-mb", "0"));
+        when(writer.nextIds(anyInt())).thenAnswer(inv -> new long[]{1, 2});
+        List<ExperimentService.BatchItem> items = Collections.synchronizedList(new ArrayList<>());
+
+        service.runBatch(List.of(new int[][]{{5}}, DUNGEON), "A", "subject", "ip", items::add);
+
+        items.sort((x, y) -> Integer.compare(x.index(), y.index()));
+        assertEquals(1, items.get(0).result().result());
+        assertNull(items.get(1).result());
+        assertTrue(items.get(1).error() != null && !items.get(1).error().isEmpty());
+    }
+
+    private ExperimentService service(Map<String, Object> properties) {
+        AbConfig cfg = config(properties);
+        DungeonService dungeonService = new DungeonService();
+        SolverRegistry registry = new SolverRegistry(List.of(
+                new BottomUpSolver(dungeonService), new TopDownSolver(dungeonService), new RollingSolver(dungeonService),
+                new WavefrontSolver(dungeonService), new TiledSolver(dungeonService), new VectorSolver(dungeonService)));
+        ExperimentRunRepository repo = mock(ExperimentRunRepository.class);
+        aggregates = new RunAggregates(repo, cfg);
+        histograms = new LatencyHistograms();
+        shadow = new ShadowRunner(registry, cfg);
+        warmup = new SolverWarmup(registry, cfg);
+        return new ExperimentService(registry, dungeonService, repo, writer, aggregates, histograms,
+                new ResultCache(cfg), new TrafficAllocator(registry, cfg), new SolveLanes(cfg), shadow, warmup, cfg);
+    }
+
+    /**
+     * Binds {@link AbConfig} the way the application does: every default from its
+     * {@code @Value} placeholders, overridden by the given properties.
+     */
+    static AbConfig config(Map<String, Object> properties) {
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext()) {
+            context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("test", properties));
+            context.register(AbConfig.class);
+            context.refresh();
+            return context.getBean(AbConfig.class);
+        }
+    }
 }
@@ -1,4 +1,181 @@
 package com.myprojecticaro.poc_automated_test_a_b;
 
+import com.myprojecticaro.poc_automated_test_a_b.domain.DungeonService;
+import com.myprojecticaro.poc_automated_test_a_b.domain.model.Grid;
+import com.myprojecticaro.poc_automated_test_a_b.domain.util.BinaryDungeon;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks every variant against the top-down solver B on random grids, with
+ * shapes chosen around the points where the variants change strategy.
+ */
 public class DungeonServiceTest {
+
+    private static final int TILE = DungeonService.WAVEFRONT_TILE;
+    private static final long THRESHOLD = DungeonService.WAVEFRONT_THRESHOLD;
+
+    private final DungeonService service = new DungeonService();
+
+    @TempDir
+    Path dir;
+
+    static Stream<Arguments> shapes() {
+        List<Arguments> shapes = new ArrayList<>();
+        // Degenerate and small grids
+        add(shapes, "tiny", 1, 1);
+        add(shapes, "tiny", 1, 2);
+        add(shapes, "tiny", 2, 1);
+        add(shapes, "tiny", 17, 31);
+        add(shapes, "1xN", 1, 5_000);
+        add(shapes, "Nx1", 5_000, 1);
+
+        // Vector lanes: full vectors only, and every tail length
+        int lanes = Math.max(DungeonService.vectorLanes(), 8);
+        for (int cols = lanes - 1; cols <= 2 * lanes + 1; cols++) {
+            add(shapes, "vector tail", 4, cols);
+        }
+
+        // Tiles of E, one cell short, exact and one cell over on each axis
+        for (int d = -1; d <= 1; d++) {
+            add(shapes, "tiled", DungeonService.TILED_ROWS + d, DungeonService.TILED_COLS + d);
+        }
+        add(shapes, "tiled", 3, 2 * DungeonService.TILED_COLS + 1);
+        add(shapes, "tiled", 2 * DungeonService.TILED_ROWS + 1, 3);
+
+        // D switches to the parallel wavefront at THRESHOLD cells
+        add(shapes, "wavefront", 1023, 1025);   // THRESHOLD - 1 cells, sequential
+        add(shapes, "wavefront", 1024, 1024);   // exactly THRESHOLD
+        add(shapes, "wavefront", 1024, 1025);   // THRESHOLD + 1024
+        add(shapes, "wavefront", 1, (int) THRESHOLD);
+        add(shapes, "wavefront", (int) THRESHOLD, 1);
+        // Above the threshold, D's last tiles one cell short, exact and one cell over
+        for (int d = -1; d <= 1; d++) {
+            add(shapes, "wavefront tile", 5 * TILE + d, 5 * TILE + d);
+        }
+        add(shapes, "wavefront tile", TILE + 1, (int) (THRESHOLD / TILE));
+        return shapes.stream();
+    }
+
+    private static void add(List<Arguments> shapes, String label, int rows, int cols) {
+        shapes.add(Arguments.of(label, rows, cols));
+    }
+
+    @ParameterizedTest(name = "{0} {1}x{2}")
+    @MethodSource("shapes")
+    void everyVariantMatchesTopDown(String label, int rows, int cols) throws IOException {
+        assertEveryVariantMatchesTopDown(randomDungeon(rows, cols, 31L * rows + cols));
+    }
+
+    @Test
+    void solvesTheClassicExample() throws IOException {
+        int[][] dungeon = {{-2, -3, 3}, {-5, -10, 1}, {10, 30, -5}};
+
+        assertEquals(7, service.minHealthTopDown(dungeon));
+        assertEveryVariantMatchesTopDown(dungeon);
+    }
+
+    @Test
+    void needsOneHealthWhenNothingHurts() throws IOException {
+        int[][] dungeon = {{0, 5}, {3, 100}};
+
+        assertEquals(1, service.minHealthTopDown(dungeon));
+        assertEveryVariantMatchesTopDown(dungeon);
+    }
+
+    @Test
+    void rollingVariantsReuseTheirRowAcrossShrinkingGrids() {
+        int[][] wide = randomDungeon(3, 500, 1);
+        int[][] narrow = randomDungeon(5, 7, 2);
+
+        service.minHealthRolling(wide);
+        service.minHealthVectorized(wide);
+
+        assertEquals(service.minHealthTopDown(narrow), service.minHealthRolling(narrow));
+        assertEquals(service.minHealthTopDown(narrow), service.minHealthVectorized(narrow));
+    }
+
+    @Test
+    void rollingVariantsShareTheirRowsSafelyAcrossVirtualThreads() throws Exception {
+        List<int[][]> dungeons = new ArrayList<>();
+        for (int i = 0; i < 64; i++) dungeons.add(randomDungeon(4 + i % 5, 3 + (i * 37) % 200, i));
+
+        // One fresh virtual thread per solve, as on the batch path
+        List<Future<int[]>> solved = new ArrayList<>();
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int[][] dungeon : dungeons) {
+                solved.add(pool.submit(() -> new int[]{service.minHealthRolling(dungeon), service.minHealthVectorized(dungeon)}));
+            }
+        }
+
+        for (int i = 0; i < dungeons.size(); i++) {
+            int expected = service.minHealthTopDown(dungeons.get(i));
+            assertEquals(expected, solved.get(i).get()[0], "C " + i);
+            assertEquals(expected, solved.get(i).get()[1], "G " + i);
+        }
+    }
+
+    private void assertEveryVariantMatchesTopDown(int[][] dungeon) throws IOException {
+        int expected = service.minHealthTopDown(dungeon);
+
+        int mapped = solveMapped(dungeon);
+        assertAll(
+                () -> assertEquals(expected, service.minHealthBottomUp(dungeon), "A"),
+                () -> assertEquals(expected, service.minHealthRolling(dungeon), "C"),
+                () -> assertEquals(expected, service.minHealthWavefront(dungeon), "D"),
+                () -> assertEquals(expected, service.minHealthTiled(Grid.of(dungeon)), "E"),
+                () -> assertEquals(expected, mapped, "F"),
+                () -> assertEquals(expected, service.minHealthVectorized(dungeon), "G"));
+    }
+
+    private int solveMapped(int[][] dungeon) throws IOException {
+        Path file = dir.resolve("dungeon.bin");
+        write(file, dungeon);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return service.minHealthMapped(channel, BinaryDungeon.readHeader(channel));
+        }
+    }
+
+    private static void write(Path file, int[][] dungeon) throws IOException {
+        int cols = dungeon[0].length;
+        ByteBuffer buffer = ByteBuffer.allocate(BinaryDungeon.HEADER_BYTES + dungeon.length * cols * Integer.BYTES)
+                .order(BinaryDungeon.ORDER);
+        buffer.putInt(dungeon.length).putInt(cols);
+        for (int[] row : dungeon) {
+            for (int cell : row) buffer.putInt(cell);
+        }
+        buffer.flip();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) channel.write(buffer);
+        }
+    }
+
+    private static int[][] randomDungeon(int rows, int cols, long seed) {
+        Random random = new Random(seed);
+        int[][] dungeon = new int[rows][cols];
+        for (int[] row : dungeon) {
+            for (int c = 0; c < cols; c++) row[c] = random.nextInt(51) - 30;
+        }
+        return dungeon;
+    }
 }
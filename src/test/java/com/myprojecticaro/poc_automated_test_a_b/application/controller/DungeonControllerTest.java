@@ -0,0 +1,127 @@
+package com.myprojecticaro.poc_automated_test_a_b.application.controller;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.myprojecticaro.poc_automated_test_a_b.application.dto.DungeonBatchRequest;
+import com.myprojecticaro.poc_automated_test_a_b.application.dto.DungeonBatchRequestDeserializer;
+import com.myprojecticaro.poc_automated_test_a_b.application.dto.DungeonRequest;
+import com.myprojecticaro.poc_automated_test_a_b.application.dto.DungeonRequestDeserializer;
+import com.myprojecticaro.poc_automated_test_a_b.infrastructure.config.AbConfig;
+import com.myprojecticaro.poc_automated_test_a_b.infrastructure.service.ExperimentRunMaintenance;
+import com.myprojecticaro.poc_automated_test_a_b.infrastructure.service.ExperimentService;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class DungeonControllerTest {
+
+    private static final String DUNGEON = "{\"dungeon\":[[-2,-3,3],[-5,-10,1],[10,30,-5]]}";
+    private static final int MAX_BATCH_ITEMS = 4;
+
+    private final ExperimentService experimentService = mock(ExperimentService.class);
+    private final MockMvc mvc = mvc(experimentService, 9);
+
+    @Test
+    void answersInlineSolvesWithoutAsyncProcessing() throws Exception {
+        when(experimentService.run(any(int[][].class), eq(null), any(), any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(result()));
+
+        mvc.perform(post("/api/v1/dungeon/min-initial-health").contentType(MediaType.APPLICATION_JSON).content(DUNGEON))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result").value(7));
+    }
+
+    @Test
+    void answersLargeLaneSolvesAsynchronously() throws Exception {
+        CompletableFuture<ExperimentService.Result> pending = new CompletableFuture<>();
+        when(experimentService.run(any(int[][].class), eq(null), any(), any(), any())).thenReturn(pending);
+
+        MvcResult started = mvc.perform(post("/api/v1/dungeon/min-initial-health")
+                        .contentType(MediaType.APPLICATION_JSON).content(DUNGEON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        pending.complete(result());
+
+        mvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result").value(7));
+    }
+
+    @Test
+    void refusesAJsonGridOverMaxCellsBeforeSolving() throws Exception {
+        mvc.perform(post("/api/v1/dungeon/min-initial-health").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"dungeon\":[[1,2,3],[4,5,6],[7,8,9],[10]]}"))
+                .andExpect(status().isPayloadTooLarge());
+
+        verifyNoInteractions(experimentService);
+    }
+
+    @Test
+    void validatesEveryBatchItemBeforeSolving() throws Exception {
+        mvc.perform(post("/api/v1/dungeon/min-initial-health/batch").contentType(MediaType.APPLICATION_JSON)
+                        .content("[" + DUNGEON + ",{\"dungeon\":null}]"))
+                .andExpect(status().isBadRequest());
+        mvc.perform(post("/api/v1/dungeon/min-initial-health/batch").contentType(MediaType.APPLICATION_JSON)
+                        .content("[" + DUNGEON + ",null]"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(experimentService);
+    }
+
+    @Test
+    void refusesABatchOverMaxItemsWhileReadingIt() throws Exception {
+        String body = "[" + String.join(",", Collections.nCopies(MAX_BATCH_ITEMS + 1, DUNGEON)) + "]";
+
+        mvc.perform(post("/api/v1/dungeon/min-initial-health/batch").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(experimentService);
+    }
+
+    @Test
+    void streamsAValidBatch() throws Exception {
+        when(experimentService.maxBatchItems()).thenReturn(MAX_BATCH_ITEMS);
+
+        mvc.perform(post("/api/v1/dungeon/min-initial-health/batch").contentType(MediaType.APPLICATION_JSON)
+                        .content("[" + DUNGEON + "," + DUNGEON + "]"))
+                .andExpect(request().asyncStarted());
+    }
+
+    private static ExperimentService.Result result() {
+        return new ExperimentService.Result("A", 3, 3, 7, 12, 1L, false);
+    }
+
+    static MockMvc mvc(ExperimentService experimentService, long maxCells) {
+        AbConfig cfg = new AbConfig();
+        cfg.admissionMaxCells = maxCells;
+        cfg.batchMaxItems = MAX_BATCH_ITEMS;
+        ObjectMapper mapper = new ObjectMapper()
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .registerModule(new SimpleModule()
+                        .addDeserializer(DungeonRequest.class, new DungeonRequestDeserializer(cfg))
+                        .addDeserializer(DungeonBatchRequest.class, new DungeonBatchRequestDeserializer(cfg)));
+        DungeonController controller = new DungeonController(experimentService, mock(ExperimentRunMaintenance.class), mapper, cfg);
+        return MockMvcBuilders.standaloneSetup(controller)
+                .setMessageConverters(new MappingJackson2HttpMessageConverter(mapper))
+                .build();
+    }
+}
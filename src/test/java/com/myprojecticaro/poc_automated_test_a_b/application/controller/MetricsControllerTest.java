@@ -0,0 +1,203 @@
+package com.myprojecticaro.poc_automated_test_a_b.application.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.myprojecticaro.poc_automated_test_a_b.application.dto.DungeonRequest;
+import com.myprojecticaro.poc_automated_test_a_b.application.dto.DungeonRequestDeserializer;
+import com.myprojecticaro.poc_automated_test_a_b.infrastructure.config.AbConfig;
+import com.myprojecticaro.poc_automated_test_a_b.infrastructure.metrics.Phase;
+import com.myprojecticaro.poc_automated_test_a_b.infrastructure.metrics.PhaseMetrics;
+import com.myprojecticaro.poc_automated_test_a_b.infrastructure.metrics.PhaseTimingAdvice;
+import com.myprojecticaro.poc_automated_test_a_b.infrastructure.metrics.PhaseTimingFilter;
+import com.myprojecticaro.poc_automated_test_a_b.infrastructure.metrics.RequestTimings;
+import com.myprojecticaro.poc_automated_test_a_b.infrastructure.repository.ExperimentRunWriter;
+import com.myprojecticaro.poc_automated_test_a_b.infrastructure.service.ExperimentRunMaintenance;
+import com.myprojecticaro.poc_automated_test_a_b.infrastructure.service.ExperimentService;
+import com.myprojecticaro.poc_automated_test_a_b.infrastructure.service.SolveLanes;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.StringHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.hamcrest.Matchers.endsWith;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Runs instrumented requests through {@link PhaseTimingFilter} and
+ * {@link PhaseTimingAdvice} and reads them back from {@code /metrics}.
+ */
+class MetricsControllerTest {
+
+    private static final String PATH = "/api/v1/dungeon/min-initial-health";
+    private static final String DUNGEON = "{\"dungeon\":[[-2,-3,3],[-5,-10,1],[10,30,-5]]}";
+
+    private static final Pattern HELP = Pattern.compile("# HELP ([a-z_]+) \\S.*");
+    private static final Pattern TYPE = Pattern.compile("# TYPE ([a-z_]+) (summary|gauge|counter)");
+    private static final Pattern SAMPLE = Pattern.compile(
+            "([a-z_]+?)(_sum|_count)?(\\{[a-z]+=\"[^\"]*\"(,[a-z]+=\"[^\"]*\")*})? -?\\d+(\\.\\d+)?(E-?\\d+)?");
+
+    private final ExperimentService experimentService = mock(ExperimentService.class);
+    private final ExperimentRunWriter writer = mock(ExperimentRunWriter.class);
+    private final MockMvc mvc = mvc();
+
+    @Test
+    void recordsTheSynchronousPhasesOfASuccessfulRequest() throws Exception {
+        when(experimentService.run(any(int[][].class), eq(null), any(), any(), any()))
+                .thenAnswer(inv -> CompletableFuture.completedFuture(solved(inv.getArgument(4), "A")));
+
+        solve().andExpect(request().asyncNotStarted()).andExpect(status().isOk());
+
+        String metrics = scrape();
+        for (String phase : new String[]{"parse", "assign", "queue", "solve", "record", "dispatch", "serialize", "total"}) {
+            assertTrue(metrics.contains("dungeon_request_phase_seconds_count{variant=\"A\",phase=\"" + phase + "\"} 1\n"), phase);
+        }
+        // Phases that did not happen are not recorded
+        assertFalse(metrics.contains("phase=\"cache\""));
+        assertTrue(metrics.contains("dungeon_request_grid_rows_sum{variant=\"A\"} 3.0\n"));
+        assertTrue(metrics.contains("dungeon_request_grid_cols_count{variant=\"A\"} 1\n"));
+    }
+
+    @Test
+    void recordsALargeLaneRequestOnceItsAsyncDispatchHasWritten() throws Exception {
+        CompletableFuture<ExperimentService.Result> pending = new CompletableFuture<>();
+        RequestTimings[] timings = new RequestTimings[1];
+        when(experimentService.run(any(int[][].class), eq(null), any(), any(), any())).thenAnswer(inv -> {
+            timings[0] = inv.getArgument(4);
+            return pending;
+        });
+
+        MvcResult started = solve().andExpect(request().asyncStarted()).andReturn();
+        assertFalse(scrape().contains("variant=\"B\""));
+
+        pending.complete(solved(timings[0], "B"));
+        mvc.perform(asyncDispatch(started)).andExpect(status().isOk());
+
+        String metrics = scrape();
+        assertTrue(metrics.contains("dungeon_request_phase_seconds_count{variant=\"B\",phase=\"total\"} 1\n"));
+        assertTrue(metrics.contains("dungeon_request_phase_seconds_count{variant=\"B\",phase=\"serialize\"} 1\n"));
+        assertTrue(metrics.contains("dungeon_request_allocated_bytes_count{variant=\"B\"} 1\n"));
+    }
+
+    @Test
+    void leavesOutRequestsThatFailAfterAssignment() throws Exception {
+        // The lanes' rejections are written as a problem body, so they pass the advice like a result
+        when(experimentService.run(any(int[][].class), eq(null), any(), any(), any())).thenAnswer(inv -> {
+            ((RequestTimings) inv.getArgument(4)).assigned("C", 3, 3);
+            throw rejection();
+        });
+        solve().andExpect(status().isPayloadTooLarge());
+
+        CompletableFuture<ExperimentService.Result> failing = new CompletableFuture<>();
+        when(experimentService.run(any(int[][].class), eq(null), any(), any(), any())).thenAnswer(inv -> {
+            ((RequestTimings) inv.getArgument(4)).assigned("D", 3, 3);
+            return failing;
+        });
+        MvcResult started = solve().andExpect(request().asyncStarted()).andReturn();
+        failing.completeExceptionally(rejection());
+        mvc.perform(asyncDispatch(started)).andExpect(status().isPayloadTooLarge());
+
+        String metrics = scrape();
+        assertFalse(metrics.contains("variant=\"C\""));
+        assertFalse(metrics.contains("variant=\"D\""));
+    }
+
+    @Test
+    void scrapeIsValidPrometheusText() throws Exception {
+        when(experimentService.run(any(int[][].class), eq(null), any(), any(), any()))
+                .thenAnswer(inv -> CompletableFuture.completedFuture(solved(inv.getArgument(4), "A")));
+        when(writer.stats()).thenReturn(new ExperimentRunWriter.Stats(2, 40, 1, 3, 1, 0));
+        solve().andExpect(status().isOk());
+
+        mvc.perform(get("/metrics"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_PLAIN))
+                .andExpect(content().string(endsWith("\n")));
+        String metrics = scrape();
+
+        Set<String> typed = new HashSet<>();
+        for (String line : metrics.split("\n")) {
+            Matcher help = HELP.matcher(line);
+            Matcher type = TYPE.matcher(line);
+            Matcher sample = SAMPLE.matcher(line);
+            if (help.matches()) {
+                assertFalse(typed.contains(help.group(1)), "HELP after samples: " + line);
+            } else if (type.matches()) {
+                assertTrue(typed.add(type.group(1)), "TYPE repeated: " + line);
+            } else {
+                assertTrue(sample.matches(), "not a sample: " + line);
+                // A summary's _sum and _count belong to the summary's family
+                String name = sample.group(1) + (sample.group(2) != null ? sample.group(2) : "");
+                assertTrue(typed.contains(name) || typed.contains(sample.group(1)), "sample without TYPE: " + line);
+            }
+        }
+        assertTrue(metrics.contains("# TYPE dungeon_runs_pending gauge\ndungeon_runs_pending 2\n"));
+        assertTrue(metrics.contains("# TYPE dungeon_runs_insert_retries_total counter\ndungeon_runs_insert_retries_total 3\n"));
+        assertTrue(metrics.contains("dungeon_request_phase_seconds{variant=\"A\",phase=\"total\",quantile=\"0.99\"} "));
+    }
+
+    private ResultActions solve() throws Exception {
+        return mvc.perform(post(PATH).contentType(MediaType.APPLICATION_JSON).content(DUNGEON));
+    }
+
+    private String scrape() throws Exception {
+        return mvc.perform(get("/metrics")).andReturn().getResponse().getContentAsString();
+    }
+
+    /**
+     * Marks the phases the service would and returns its result.
+     */
+    private static ExperimentService.Result solved(RequestTimings timings, String variant) {
+        timings.assigned(variant, 3, 3);
+        timings.mark(Phase.QUEUE);
+        timings.mark(Phase.SOLVE);
+        timings.mark(Phase.RECORD);
+        return new ExperimentService.Result(variant, 3, 3, 7, 12, 1L, false);
+    }
+
+    private static SolveLanes.RejectedException rejection() {
+        AbConfig cfg = new AbConfig();
+        cfg.admissionLargeCells = 1;
+        cfg.admissionLargeConcurrency = 1;
+        cfg.admissionLargeQueueCapacity = 1;
+        cfg.admissionLargeMemoryBudgetMb = 0;
+        return assertThrows(SolveLanes.RejectedException.class, () -> new SolveLanes(cfg).submit(9, 1, () -> null));
+    }
+
+    private MockMvc mvc() {
+        AbConfig cfg = new AbConfig();
+        cfg.admissionMaxCells = 1_000;
+        cfg.metricsEnabled = true;
+        PhaseMetrics metrics = new PhaseMetrics(cfg);
+        when(writer.stats()).thenReturn(new ExperimentRunWriter.Stats(0, 0, 0, 0, 0, 0));
+        ObjectMapper mapper = new ObjectMapper()
+                .registerModule(new SimpleModule().addDeserializer(DungeonRequest.class, new DungeonRequestDeserializer(cfg)));
+        DungeonController dungeons = new DungeonController(experimentService, mock(ExperimentRunMaintenance.class), mapper, cfg);
+        return MockMvcBuilders.standaloneSetup(dungeons, new MetricsController(metrics, writer))
+                .setControllerAdvice(new PhaseTimingAdvice())
+                .addFilters(new PhaseTimingFilter(metrics))
+                .setMessageConverters(new StringHttpMessageConverter(), new MappingJackson2HttpMessageConverter(mapper))
+                .build();
+    }
+}
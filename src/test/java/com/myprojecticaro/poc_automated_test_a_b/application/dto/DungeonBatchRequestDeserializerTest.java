@@ -0,0 +1,70 @@
+package com.myprojecticaro.poc_automated_test_a_b.application.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.myprojecticaro.poc_automated_test_a_b.infrastructure.config.AbConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DungeonBatchRequestDeserializerTest {
+
+    private final ObjectMapper mapper = mapper(2, 6);
+
+    @Test
+    void readsAnArrayOfRequests() throws Exception {
+        DungeonBatchRequest batch = mapper.readValue("[{\"dungeon\":[[1,2]]},{\"dungeon\":[[3],[4]]}]", DungeonBatchRequest.class);
+
+        assertEquals(2, batch.dungeons().size());
+        assertArrayEquals(new int[][]{{3}, {4}}, batch.dungeons().get(1).dungeon());
+        assertEquals("[{\"dungeon\":[[1,2]]},{\"dungeon\":[[3],[4]]}]", mapper.writeValueAsString(batch));
+    }
+
+    @Test
+    void refusesTheItemPastTheLimitWithoutReadingTheRest() {
+        // Malformed after the third item, so only an early refusal gives 400 here
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> mapper.readValue("[{\"dungeon\":[[1]]},{\"dungeon\":[[2]]},{\"dungeon\": oops", DungeonBatchRequest.class));
+
+        assertEquals(HttpStatus.BAD_REQUEST, e.getStatusCode());
+    }
+
+    @Test
+    void capsEveryGridAtMaxCells() {
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> mapper.readValue("[{\"dungeon\":[[1,2,3],[4,5,6],[7]]}]", DungeonBatchRequest.class));
+
+        assertEquals(HttpStatus.PAYLOAD_TOO_LARGE, e.getStatusCode());
+    }
+
+    @Test
+    void keepsNullItemsForValidation() throws Exception {
+        DungeonBatchRequest batch = mapper.readValue("[null,{}]", DungeonBatchRequest.class);
+
+        assertEquals(Arrays.asList(null, new DungeonRequest(null)), batch.dungeons());
+        assertNull(batch.dungeons().get(1).dungeon());
+    }
+
+    @Test
+    void rejectsABodyThatIsNotAnArray() {
+        assertThrows(MismatchedInputException.class,
+                () -> mapper.readValue("{\"dungeon\":[[1]]}", DungeonBatchRequest.class));
+    }
+
+    static ObjectMapper mapper(int maxItems, long maxCells) {
+        AbConfig cfg = new AbConfig();
+        cfg.batchMaxItems = maxItems;
+        cfg.admissionMaxCells = maxCells;
+        return new ObjectMapper().registerModule(new SimpleModule()
+                .addDeserializer(DungeonRequest.class, new DungeonRequestDeserializer(cfg))
+                .addDeserializer(DungeonBatchRequest.class, new DungeonBatchRequestDeserializer(cfg)));
+    }
+}
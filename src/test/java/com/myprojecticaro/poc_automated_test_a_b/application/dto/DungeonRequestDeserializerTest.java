@@ -0,0 +1,90 @@
+package com.myprojecticaro.poc_automated_test_a_b.application.dto;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.myprojecticaro.poc_automated_test_a_b.infrastructure.config.AbConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DungeonRequestDeserializerTest {
+
+    private final ObjectMapper mapper = mapper(6);
+
+    @Test
+    void readsARectangularGrid() throws Exception {
+        DungeonRequest request = mapper.readValue("{\"dungeon\":[[-2,-3,3],[-5,-10,1]]}", DungeonRequest.class);
+
+        assertArrayEquals(new int[][]{{-2, -3, 3}, {-5, -10, 1}}, request.dungeon());
+    }
+
+    @Test
+    void readsAFirstRowLongerThanItsInitialBuffer() throws Exception {
+        StringBuilder json = new StringBuilder("{\"dungeon\":[[");
+        for (int c = 0; c < 1000; c++) json.append(c == 0 ? "" : ",").append(c);
+        json.append("]]}");
+
+        int[][] dungeon = mapper(1000).readValue(json.toString(), DungeonRequest.class).dungeon();
+
+        assertEquals(1000, dungeon[0].length);
+        assertEquals(999, dungeon[0][999]);
+    }
+
+    @Test
+    void refusesAGridOverTheLimitWithoutReadingTheRest() {
+        // Malformed after the seventh cell, so only an early refusal gives 413
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> mapper.readValue("{\"dungeon\":[[1,2,3],[4,5,6],[7, oops", DungeonRequest.class));
+
+        assertEquals(HttpStatus.PAYLOAD_TOO_LARGE, e.getStatusCode());
+    }
+
+    @Test
+    void acceptsAGridOfExactlyTheLimit() throws Exception {
+        assertEquals(2, mapper.readValue("{\"dungeon\":[[1,2,3],[4,5,6]]}", DungeonRequest.class).dungeon().length);
+    }
+
+    @Test
+    void rejectsRaggedAndEmptyRows() {
+        assertThrows(MismatchedInputException.class,
+                () -> mapper.readValue("{\"dungeon\":[[1,2],[3]]}", DungeonRequest.class));
+        assertThrows(MismatchedInputException.class,
+                () -> mapper.readValue("{\"dungeon\":[[1],[2,3]]}", DungeonRequest.class));
+        assertThrows(MismatchedInputException.class,
+                () -> mapper.readValue("{\"dungeon\":[[]]}", DungeonRequest.class));
+        assertThrows(MismatchedInputException.class,
+                () -> mapper.readValue("{\"dungeon\":[[1,\"2\"]]}", DungeonRequest.class));
+    }
+
+    @Test
+    void leavesAMissingOrNullDungeonToValidation() throws Exception {
+        assertNull(mapper.readValue("{}", DungeonRequest.class).dungeon());
+        assertNull(mapper.readValue("{\"dungeon\":null}", DungeonRequest.class).dungeon());
+        assertEquals(0, mapper.readValue("{\"dungeon\":[]}", DungeonRequest.class).dungeon().length);
+    }
+
+    @Test
+    void skipsUnknownPropertiesUnlessConfiguredToFail() throws Exception {
+        String json = "{\"note\":{\"a\":[1,2]},\"dungeon\":[[5]],\"other\":1}";
+
+        assertArrayEquals(new int[][]{{5}}, mapper.readValue(json, DungeonRequest.class).dungeon());
+        assertThrows(MismatchedInputException.class, () -> mapper(6)
+                .enable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .readValue(json, DungeonRequest.class));
+    }
+
+    static ObjectMapper mapper(long maxCells) {
+        AbConfig cfg = new AbConfig();
+        cfg.admissionMaxCells = maxCells;
+        return new ObjectMapper()
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .registerModule(new SimpleModule().addDeserializer(DungeonRequest.class, new DungeonRequestDeserializer(cfg)));
+    }
+}
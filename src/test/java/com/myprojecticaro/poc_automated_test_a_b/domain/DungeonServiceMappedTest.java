@@ -0,0 +1,87 @@
+package com.myprojecticaro.poc_automated_test_a_b.domain;
+
+import com.myprojecticaro.poc_automated_test_a_b.domain.util.BinaryDungeon;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Sweeps small dungeon files in windows of a few rows, so that every window
+ * boundary case of the 1 GB production window is reached.
+ */
+class DungeonServiceMappedTest {
+
+    private final DungeonService service = new DungeonService();
+
+    @TempDir
+    Path dir;
+
+    @ParameterizedTest(name = "{0}x{1}, {2} rows per window + {3} bytes")
+    @CsvSource({
+            "10, 7, 1, 0",   // one row per window
+            "10, 7, 3, 0",   // windows of 3, 3, 3 and a last one of 1 row
+            "10, 7, 3, 27",  // a window that is not a whole number of rows
+            "10, 7, 5, 0",   // two exact windows
+            "10, 7, 10, 0",  // exactly one window
+            "10, 7, 64, 0",  // window larger than the file
+            "1, 9, 1, 0",
+            "9, 1, 2, 0",
+            "257, 33, 16, 3"
+    })
+    void matchesTopDownAcrossWindowBoundaries(int rows, int cols, int rowsPerWindow, int extraBytes) throws IOException {
+        int[][] dungeon = randomDungeon(rows, cols, 17L * rows + cols);
+        long windowBytes = (long) rowsPerWindow * cols * Integer.BYTES + extraBytes;
+
+        try (FileChannel channel = open(dungeon)) {
+            assertEquals(service.minHealthTopDown(dungeon),
+                    service.minHealthMapped(channel, BinaryDungeon.readHeader(channel), windowBytes));
+        }
+    }
+
+    @Test
+    void rejectsRowsWiderThanTheWindow() throws IOException {
+        int[][] dungeon = randomDungeon(2, 8, 1);
+
+        try (FileChannel channel = open(dungeon)) {
+            BinaryDungeon.Header header = BinaryDungeon.readHeader(channel);
+            assertThrows(IllegalArgumentException.class,
+                    () -> service.minHealthMapped(channel, header, 8 * Integer.BYTES - 1));
+        }
+    }
+
+    private FileChannel open(int[][] dungeon) throws IOException {
+        int cols = dungeon[0].length;
+        ByteBuffer buffer = ByteBuffer.allocate(BinaryDungeon.HEADER_BYTES + dungeon.length * cols * Integer.BYTES)
+                .order(BinaryDungeon.ORDER);
+        buffer.putInt(dungeon.length).putInt(cols);
+        for (int[] row : dungeon) {
+            for (int cell : row) buffer.putInt(cell);
+        }
+        buffer.flip();
+        Path file = dir.resolve("dungeon.bin");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) channel.write(buffer);
+        }
+        return FileChannel.open(file, StandardOpenOption.READ);
+    }
+
+    private static int[][] randomDungeon(int rows, int cols, long seed) {
+        Random random = new Random(seed);
+        int[][] dungeon = new int[rows][cols];
+        for (int[] row : dungeon) {
+            for (int c = 0; c < cols; c++) row[c] = random.nextInt(51) - 30;
+        }
+        return dungeon;
+    }
+}
@@ -0,0 +1,92 @@
+package com.myprojecticaro.poc_automated_test_a_b.domain;
+
+import com.myprojecticaro.poc_automated_test_a_b.domain.model.Grid;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IncrementalDungeonTest {
+
+    private final DungeonService service = new DungeonService();
+
+    @ParameterizedTest(name = "{0}x{1}")
+    @CsvSource({"1, 1", "1, 37", "37, 1", "2, 2", "23, 41", "64, 64"})
+    void matchesAFullReSolveAfterEveryBatch(int rows, int cols) {
+        Random random = new Random(31L * rows + cols);
+        int[][] dungeon = randomDungeon(rows, cols, random);
+        IncrementalDungeon incremental = new IncrementalDungeon(Grid.of(dungeon));
+        assertEquals(service.minHealthBottomUp(dungeon), incremental.minHealth());
+
+        for (int batch = 0; batch < 200; batch++) {
+            int edits = 1 + random.nextInt(batch % 10 == 0 ? 20 : 3);
+            int[] rowIndexes = new int[edits];
+            int[] colIndexes = new int[edits];
+            int[] values = new int[edits];
+            for (int i = 0; i < edits; i++) {
+                rowIndexes[i] = random.nextInt(rows);
+                colIndexes[i] = random.nextInt(cols);
+                values[i] = cellValue(random);
+                dungeon[rowIndexes[i]][colIndexes[i]] = values[i];
+            }
+
+            incremental.update(rowIndexes, colIndexes, values);
+
+            assertEquals(service.minHealthBottomUp(dungeon), incremental.minHealth(), "batch " + batch);
+        }
+    }
+
+    @Test
+    void laterEditOfTheSameCellWins() {
+        int[][] dungeon = {{-2, -3, 3}, {-5, -10, 1}, {10, 30, -5}};
+        IncrementalDungeon incremental = new IncrementalDungeon(Grid.of(dungeon));
+
+        incremental.update(new int[]{2, 2}, new int[]{2, 2}, new int[]{-50, 0});
+
+        dungeon[2][2] = 0;
+        assertEquals(service.minHealthBottomUp(dungeon), incremental.minHealth());
+    }
+
+    @Test
+    void editNearTheStartRecomputesOnlyItsRegion() {
+        int[][] dungeon = randomDungeon(300, 300, new Random(7));
+        IncrementalDungeon incremental = new IncrementalDungeon(Grid.of(dungeon));
+
+        long recomputed = incremental.update(new int[]{1}, new int[]{2}, new int[]{-1000});
+
+        // Only cells above and to the left of (1, 2) depend on it
+        assertTrue(recomputed <= 2 * 3, "recomputed " + recomputed);
+        dungeon[1][2] = -1000;
+        assertEquals(service.minHealthBottomUp(dungeon), incremental.minHealth());
+    }
+
+    @Test
+    void rejectsTheWholeBatchIfOneCellIsOutside() {
+        int[][] dungeon = {{-2, -3, 3}, {-5, -10, 1}, {10, 30, -5}};
+        IncrementalDungeon incremental = new IncrementalDungeon(Grid.of(dungeon));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> incremental.update(new int[]{0, 3}, new int[]{0, 0}, new int[]{-100, 0}));
+        assertThrows(IllegalArgumentException.class,
+                () -> incremental.update(new int[]{0}, new int[]{0, 1}, new int[]{1}));
+
+        assertEquals(7, incremental.minHealth());
+    }
+
+    private static int[][] randomDungeon(int rows, int cols, Random random) {
+        int[][] dungeon = new int[rows][cols];
+        for (int[] row : dungeon) {
+            for (int c = 0; c < cols; c++) row[c] = cellValue(random);
+        }
+        return dungeon;
+    }
+
+    private static int cellValue(Random random) {
+        return random.nextInt(41) - 25;
+    }
+}
@@ -0,0 +1,181 @@
+package com.myprojecticaro.poc_automated_test_a_b.domain.util;
+
+import com.myprojecticaro.poc_automated_test_a_b.domain.model.Grid;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BinaryDungeonTest {
+
+    private static final long NO_LIMIT = Long.MAX_VALUE;
+
+    @Test
+    void readsHeaderAndCellsInRowMajorOrder() throws IOException {
+        byte[] body = encode(2, 3, -2, -3, 3, -5, -10, 1);
+
+        Grid grid = BinaryDungeon.readGrid(new ByteArrayInputStream(body), body.length, NO_LIMIT);
+
+        assertEquals(2, grid.rows());
+        assertEquals(3, grid.cols());
+        assertArrayEquals(new int[]{-2, -3, 3, -5, -10, 1}, grid.cells());
+    }
+
+    @Test
+    void readsBodiesLargerThanOneChunkWithoutContentLength() throws IOException {
+        int rows = 300, cols = 100;
+        int[] cells = new int[rows * cols];
+        for (int i = 0; i < cells.length; i++) cells[i] = i - 15_000;
+
+        Grid grid = BinaryDungeon.readGrid(new TrickleStream(encode(rows, cols, cells)), -1, NO_LIMIT);
+
+        assertArrayEquals(cells, grid.cells());
+    }
+
+    @Test
+    void rejectsHeaderShorterThanEightBytes() {
+        byte[] body = {1, 0, 0, 0, 1, 0};
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> BinaryDungeon.readGrid(new ByteArrayInputStream(body), -1, NO_LIMIT));
+        assertFalse(e instanceof BinaryDungeon.OversizedException);
+    }
+
+    @Test
+    void rejectsNonPositiveDimensions() {
+        assertThrows(IllegalArgumentException.class,
+                () -> BinaryDungeon.readGrid(new ByteArrayInputStream(encode(0, 3)), -1, NO_LIMIT));
+        assertThrows(IllegalArgumentException.class,
+                () -> BinaryDungeon.readGrid(new ByteArrayInputStream(encode(3, -1)), -1, NO_LIMIT));
+    }
+
+    @Test
+    void rejectsTruncatedBody() {
+        byte[] body = encode(3, 3, 1, 2, 3, 4, 5);
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> BinaryDungeon.readGrid(new ByteArrayInputStream(body), -1, NO_LIMIT));
+        assertFalse(e instanceof BinaryDungeon.OversizedException);
+        assertTrue(e.getMessage().contains("5 of 9"), e.getMessage());
+    }
+
+    @Test
+    void rejectsBodyLongerThanHeader() {
+        byte[] body = encode(1, 2, 1, 2, 3);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> BinaryDungeon.readGrid(new ByteArrayInputStream(body), -1, NO_LIMIT));
+    }
+
+    @Test
+    void rejectsHeaderAboveMaxCellsBeforeReadingTheBody() {
+        // 100000 x 100000 cells would be 40 GB; only the header is sent
+        InputStream headerOnly = new FailAfterHeaderStream(encode(100_000, 100_000));
+
+        assertThrows(BinaryDungeon.OversizedException.class,
+                () -> BinaryDungeon.readGrid(headerOnly, -1, 1_000_000));
+    }
+
+    @Test
+    void rejectsHeaderAboveOneArrayEvenWithoutLimit() {
+        InputStream headerOnly = new FailAfterHeaderStream(encode(Integer.MAX_VALUE, 2));
+
+        assertThrows(BinaryDungeon.OversizedException.class,
+                () -> BinaryDungeon.readGrid(headerOnly, -1, NO_LIMIT));
+    }
+
+    @Test
+    void rejectsHeaderDisagreeingWithContentLengthBeforeReadingTheBody() {
+        // A 24-byte request announcing a million cells
+        InputStream headerOnly = new FailAfterHeaderStream(encode(1000, 1000));
+
+        assertThrows(BinaryDungeon.OversizedException.class,
+                () -> BinaryDungeon.readGrid(headerOnly, 24, NO_LIMIT));
+    }
+
+    @Test
+    void acceptsGridOfExactlyMaxCells() throws IOException {
+        byte[] body = encode(2, 2, 1, 2, 3, 4);
+
+        Grid grid = BinaryDungeon.readGrid(new ByteArrayInputStream(body), body.length, 4);
+
+        assertEquals(4, grid.cells().length);
+    }
+
+    @Test
+    void fileHeaderMustMatchFileSize(@TempDir Path dir) throws IOException {
+        Path exact = Files.write(dir.resolve("exact.bin"), encode(2, 2, 1, 2, 3, 4));
+        Path truncated = Files.write(dir.resolve("truncated.bin"), encode(2, 2, 1, 2, 3));
+        Path oversized = Files.write(dir.resolve("oversized.bin"), encode(50_000, 50_000, 1));
+
+        try (FileChannel channel = FileChannel.open(exact, StandardOpenOption.READ)) {
+            assertEquals(new BinaryDungeon.Header(2, 2), BinaryDungeon.readHeader(channel));
+        }
+        for (Path bad : new Path[]{truncated, oversized}) {
+            try (FileChannel channel = FileChannel.open(bad, StandardOpenOption.READ)) {
+                assertThrows(IllegalArgumentException.class, () -> BinaryDungeon.readHeader(channel));
+            }
+        }
+    }
+
+    private static byte[] encode(int rows, int cols, int... cells) {
+        ByteBuffer buffer = ByteBuffer.allocate(BinaryDungeon.HEADER_BYTES + cells.length * Integer.BYTES)
+                .order(BinaryDungeon.ORDER);
+        buffer.putInt(rows).putInt(cols);
+        for (int cell : cells) buffer.putInt(cell);
+        return buffer.array();
+    }
+
+    /**
+     * Hands out at most 7 bytes per read, so cells straddle chunk refills.
+     */
+    private static final class TrickleStream extends ByteArrayInputStream {
+        TrickleStream(byte[] bytes) {
+            super(bytes);
+        }
+
+        @Override
+        public synchronized int read(byte[] b, int off, int len) {
+            return super.read(b, off, Math.min(len, 7));
+        }
+    }
+
+    /**
+     * Serves the header, then fails: reading the body would mean the grid was already allocated.
+     */
+    private static final class FailAfterHeaderStream extends InputStream {
+        private final byte[] header;
+        private int position;
+
+        FailAfterHeaderStream(byte[] header) {
+            this.header = header;
+        }
+
+        @Override
+        public int read() {
+            throw new AssertionError("body read before the header was checked");
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (position == header.length) throw new AssertionError("body read before the header was checked");
+            int n = Math.min(len, header.length - position);
+            System.arraycopy(header, position, b, off, n);
+            position += n;
+            return n;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.myprojecticaro.poc_automated_test_a_b.domain.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyHistogramTest {
+
+    @Test
+    void smallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int v = 1; v <= 10; v++) histogram.record(v);
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        assertEquals(10, snapshot.count());
+        assertEquals(1, snapshot.quantile(0));
+        assertEquals(5, snapshot.quantile(0.5));
+        assertEquals(9, snapshot.quantile(0.9));
+        assertEquals(10, snapshot.quantile(1));
+    }
+
+    @Test
+    void quantilesStayWithinTheRelativeErrorOfTheExactOnes() {
+        Random random = new Random(42);
+        long[] values = new long[100_000];
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < values.length; i++) {
+            // Log-uniform between 1 µs and about 17 minutes
+            values[i] = (long) Math.exp(random.nextDouble() * Math.log(1e9));
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        for (double q : new double[]{0.01, 0.25, 0.5, 0.9, 0.99, 0.999, 1}) {
+            long exact = values[(int) Math.ceil(q * values.length) - 1];
+            long estimate = snapshot.quantile(q);
+            assertTrue(estimate >= exact, "q" + q + ": " + estimate + " < " + exact);
+            assertTrue(estimate - exact <= exact / LatencyHistogram.SUB_BUCKETS,
+                    "q" + q + ": " + estimate + " too far above " + exact);
+        }
+        assertEquals(values[values.length - 1], snapshot.max());
+    }
+
+    @Test
+    void bucketsTileTheRangeWithoutGaps() {
+        for (int bucket = 0; bucket < LatencyHistogram.BUCKETS - 1; bucket++) {
+            long upper = LatencyHistogram.upperBoundOf(bucket);
+            assertEquals(bucket, LatencyHistogram.bucketOf(upper), "upper bound of " + bucket);
+            assertEquals(bucket + 1, LatencyHistogram.bucketOf(upper + 1), "value after " + bucket);
+        }
+    }
+
+    @Test
+    void outOfRangeValuesAreClampedButMaxIsExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        long huge = 1L << (LatencyHistogram.MAX_EXPONENT + 3);
+        histogram.record(huge);
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        assertEquals(0, snapshot.quantile(0.5));
+        assertEquals(huge, snapshot.quantile(1));
+        assertEquals(huge, snapshot.max());
+    }
+
+    @Test
+    void quantileIsCappedAtTheMaximum() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(1_000_001);
+
+        // The bucket of 1000001 reaches up to 1015807
+        assertEquals(1_000_001, histogram.snapshot().quantile(0.99));
+    }
+
+    @Test
+    void mergingEqualsRecordingIntoOneHistogram() {
+        LatencyHistogram left = new LatencyHistogram();
+        LatencyHistogram right = new LatencyHistogram();
+        LatencyHistogram both = new LatencyHistogram();
+        Random random = new Random(7);
+        for (int i = 0; i < 10_000; i++) {
+            long value = random.nextInt(1_000_000);
+            (i % 3 == 0 ? left : right).record(value);
+            both.record(value);
+        }
+
+        LatencyHistogram.Snapshot merged = LatencyHistogram.Snapshot.empty()
+                .merge(left.snapshot())
+                .merge(right.snapshot());
+
+        LatencyHistogram.Snapshot expected = both.snapshot();
+        assertEquals(expected.count(), merged.count());
+        assertEquals(expected.max(), merged.max());
+        for (double q : new double[]{0.5, 0.9, 0.99, 0.999}) {
+            assertEquals(expected.quantile(q), merged.quantile(q), "q" + q);
+        }
+    }
+
+    @Test
+    void emptySnapshotReportsZero() {
+        LatencyHistogram.Snapshot empty = new LatencyHistogram().snapshot();
+
+        assertEquals(0, empty.count());
+        assertEquals(0, empty.quantile(0.99));
+        assertEquals(0, empty.max());
+    }
+}
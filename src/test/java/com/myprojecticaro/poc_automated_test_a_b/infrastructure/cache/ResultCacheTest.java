@@ -0,0 +1,140 @@
+package com.myprojecticaro.poc_automated_test_a_b.infrastructure.cache;
+
+import com.myprojecticaro.poc_automated_test_a_b.domain.model.Grid;
+import com.myprojecticaro.poc_automated_test_a_b.infrastructure.config.AbConfig;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ResultCacheTest {
+
+    @Test
+    void bothLayoutsOfTheSameGridShareAKey() {
+        int[][] rows = {{-2, -3, 3}, {-5, -10, 1}, {10, 30, -5}};
+        Grid flat = new Grid(3, 3, new int[]{-2, -3, 3, -5, -10, 1, 10, 30, -5});
+
+        assertEquals(ResultCache.keyOf(rows), ResultCache.keyOf(flat));
+    }
+
+    @Test
+    void keyCoversDimensionsAndEveryCell() {
+        int[] cells = randomCells(6_000, 1);
+        ResultCache.Key base = ResultCache.keyOf(new Grid(60, 100, cells));
+
+        // Same cells, other shape
+        assertNotEquals(base, ResultCache.keyOf(new Grid(100, 60, cells)));
+        // One cell changed, in either half of a packed pair and at the end
+        for (int index : new int[]{0, 1, 2998, 5999}) {
+            int[] changed = cells.clone();
+            changed[index]++;
+            assertNotEquals(base, ResultCache.keyOf(new Grid(60, 100, changed)), "cell " + index);
+        }
+    }
+
+    @Test
+    void rowArraysOfOddWidthHashLikeTheFlatGrid() {
+        int[] cells = randomCells(35, 2);
+        int[][] rows = new int[5][];
+        for (int r = 0; r < rows.length; r++) {
+            rows[r] = Arrays.copyOfRange(cells, r * 7, r * 7 + 7);
+        }
+
+        assertEquals(ResultCache.keyOf(new Grid(5, 7, cells)), ResultCache.keyOf(rows));
+    }
+
+    @Test
+    void keyDependsOnCellOrder() {
+        assertNotEquals(ResultCache.keyOf(new int[][]{{1, 2}}), ResultCache.keyOf(new int[][]{{2, 1}}));
+        assertNotEquals(ResultCache.keyOf(new int[][]{{1, 2, 3, 4}}), ResultCache.keyOf(new int[][]{{3, 4, 1, 2}}));
+        assertNotEquals(ResultCache.keyOf(new int[][]{{0}}), ResultCache.keyOf(new int[][]{{-1}}));
+    }
+
+    @Test
+    void returnsStoredResultAndCountsHitsAndMisses() {
+        ResultCache cache = cache(10, 1_000);
+        ResultCache.Key key = ResultCache.keyOf(new int[][]{{1, 2}, {3, 4}});
+
+        assertNull(cache.get(key));
+        cache.put(key, 7);
+
+        assertEquals(7, cache.get(key));
+        ResultCache.Stats stats = cache.stats();
+        assertEquals(1, stats.entries());
+        assertEquals(4, stats.weight());
+        assertEquals(1, stats.hits());
+        assertEquals(1, stats.misses());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedBeyondMaxEntries() {
+        ResultCache cache = cache(2, 1_000);
+        ResultCache.Key a = key(1), b = key(2), c = key(3);
+        cache.put(a, 1);
+        cache.put(b, 2);
+        cache.get(a);
+
+        cache.put(c, 3);
+
+        assertEquals(1, cache.get(a));
+        assertNull(cache.get(b));
+        assertEquals(3, cache.get(c));
+        assertEquals(1, cache.stats().evictions());
+    }
+
+    @Test
+    void evictsUntilWeightFits() {
+        ResultCache cache = cache(100, 10);
+        ResultCache.Key small1 = key(1), small2 = key(2);
+        ResultCache.Key big = ResultCache.keyOf(new Grid(2, 5, new int[10]));
+        cache.put(small1, 1);
+        cache.put(small2, 2);
+
+        cache.put(big, 10);
+
+        assertNull(cache.get(small1));
+        assertNull(cache.get(small2));
+        assertEquals(10, cache.get(big));
+        assertEquals(10, cache.stats().weight());
+        assertEquals(2, cache.stats().evictions());
+    }
+
+    @Test
+    void skipsGridsHeavierThanTheWholeBudget() {
+        ResultCache cache = cache(100, 10);
+        ResultCache.Key small = key(1);
+        cache.put(small, 1);
+
+        cache.put(ResultCache.keyOf(new Grid(4, 4, new int[16])), 16);
+
+        assertEquals(1, cache.get(small));
+        assertEquals(1, cache.stats().entries());
+        assertEquals(0, cache.stats().evictions());
+    }
+
+    private static ResultCache cache(int maxEntries, long maxWeight) {
+        AbConfig cfg = new AbConfig();
+        cfg.cacheEnabled = true;
+        cfg.cacheMaxEntries = maxEntries;
+        cfg.cacheMaxWeight = maxWeight;
+        return new ResultCache(cfg);
+    }
+
+    /**
+     * A distinct 1x1 grid per value, weighing one cell.
+     */
+    private static ResultCache.Key key(int value) {
+        return ResultCache.keyOf(new int[][]{{value}});
+    }
+
+    private static int[] randomCells(int n, long seed) {
+        Random random = new Random(seed);
+        int[] cells = new int[n];
+        for (int i = 0; i < n; i++) cells[i] = random.nextInt(201) - 100;
+        return cells;
+    }
+}
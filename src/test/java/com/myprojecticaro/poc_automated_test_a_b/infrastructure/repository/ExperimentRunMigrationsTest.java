@@ -0,0 +1,330 @@
+package com.myprojecticaro.poc_automated_test_a_b.infrastructure.repository;
+
+import com.myprojecticaro.poc_automated_test_a_b.infrastructure.config.AbConfig;
+import com.myprojecticaro.poc_automated_test_a_b.infrastructure.config.FlywayBootstrap;
+import com.myprojecticaro.poc_automated_test_a_b.infrastructure.service.ExperimentRunMaintenance;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfo;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.postgresql.ds.PGSimpleDataSource;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+
+import javax.sql.DataSource;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Applies the Flyway migrations to a real PostgreSQL, then exercises the
+ * partition, rollup and retention functions and {@link ExperimentRunRepository#totalsByVariant()}.
+ * <p>
+ * Each {@link Origin} gets its own schema: an empty one, and one created by
+ * Hibernate from the baseline entity (with its rows), as databases were before
+ * Flyway owned the schema.
+ * </p>
+ */
+class ExperimentRunMigrationsTest {
+
+    enum Origin { FRESH, HIBERNATE }
+
+    private static EmbeddedPostgres postgres;
+
+    @BeforeAll
+    static void start() throws Exception {
+        postgres = EmbeddedPostgres.start();
+    }
+
+    @AfterAll
+    static void stop() throws Exception {
+        postgres.close();
+    }
+
+    @ParameterizedTest
+    @EnumSource(Origin.class)
+    void migratesAndRollsUp(Origin origin) {
+        String schema = origin.name().toLowerCase();
+        JdbcTemplate admin = new JdbcTemplate(postgres.getPostgresDatabase());
+        admin.execute("drop schema if exists " + schema + " cascade");
+        admin.execute("create schema " + schema);
+        DataSource dataSource = dataSource(schema);
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        List<Run> runs = new ArrayList<>();
+        List<Long> storedIds = List.of();
+
+        if (origin == Origin.HIBERNATE) {
+            createWithHibernate(dataSource);
+            runs.add(new Run("A", 40, false, false));
+            runs.add(new Run("B", 70, false, false));
+
+            // The enum's check constraint rejects later variants until V1.1 drops it
+            assertThrows(DataIntegrityViolationException.class, () -> insertLegacy(jdbc, "C"));
+            Flyway.configure().dataSource(dataSource).baselineOnMigrate(true).target("1.1").load().migrate();
+            insertLegacy(jdbc, "C");
+            runs.add(new Run("C", 90, false, false));
+            storedIds = jdbc.queryForList("select id from experiment_run order by id", Long.class);
+        }
+
+        Flyway flyway = Flyway.configure().dataSource(dataSource).baselineOnMigrate(true).load();
+        new FlywayBootstrap().migrate(flyway);
+
+        MigrationInfo[] applied = flyway.info().applied();
+        assertEquals("1", applied[0].getVersion().getVersion());
+        assertTrue(applied[0].getType().isBaseline());
+        assertEquals(0, flyway.info().pending().length);
+        MigrationInfo[] all = flyway.info().all();
+        assertEquals(all[all.length - 1].getVersion(), flyway.info().current().getVersion());
+
+        if (origin == Origin.HIBERNATE) {
+            // V3 copied the rows Hibernate stored, keeping their ids
+            assertEquals(storedIds, jdbc.queryForList("select id from experiment_run order by id", Long.class));
+            assertEquals(List.of("A", "B", "C"), jdbc.queryForList("select variant from experiment_run order by id", String.class));
+        } else {
+            assertEquals(0, count(jdbc, "experiment_run"));
+        }
+
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        LocalDate older = today.minusDays(41);
+        LocalDate old = today.minusDays(40);
+
+        // A day without a partition lands in the default partition until its partition is created
+        insert(jdbc, runs, older, new Run("A", 10, false, false), 3, 3);
+        assertEquals(1, count(jdbc, "experiment_run_default"));
+        assertTrue(createPartition(jdbc, older));
+        assertFalse(createPartition(jdbc, older));
+        assertEquals(0, count(jdbc, "experiment_run_default"));
+        assertEquals(1, count(jdbc, partition(older)));
+
+        assertTrue(createPartition(jdbc, old));
+        insert(jdbc, runs, old, new Run("A", 100, false, false), 3, 3);
+        insert(jdbc, runs, old, new Run("A", 300, false, false), 1000, 1000);
+        insert(jdbc, runs, old, new Run("A", 5, true, false), 3, 3);
+        insert(jdbc, runs, old, new Run("B", 1000, false, true), 3, 3);
+        insert(jdbc, runs, old, new Run("B", 200, false, false), 3, 3);
+
+        assertEquals(1L, rollUp(jdbc, older));
+        assertEquals(5L, rollUp(jdbc, old));
+        assertNull(rollUp(jdbc, old));
+        assertEquals(0, jdbc.queryForObject("""
+                select count(*) from experiment_run_rollup
+                where (select coalesce(sum(c), 0) from unnest(histogram_counts) c) <> timed_runs
+                   or cardinality(histogram_buckets) <> cardinality(histogram_counts)
+                """, Integer.class));
+
+        // Raw runs after the last rolled-up day are read from experiment_run
+        insert(jdbc, runs, today, new Run("A", 50, false, false), 3, 3);
+        insert(jdbc, runs, today, new Run("C", 7, true, false), 3, 3);
+
+        ExperimentRunRepository repo = repository(dataSource);
+        assertEquals(expectedTotals(runs), totals(repo));
+
+        // Dropping the rolled-up raw partitions keeps the totals, which now come from the rollups
+        Integer dropped = jdbc.queryForObject("select experiment_run_drop_partitions(?)", Integer.class,
+                Timestamp.from(today.minusDays(30).atStartOfDay().toInstant(ZoneOffset.UTC)));
+        assertEquals(2, dropped);
+        assertNull(jdbc.queryForObject("select to_regclass(?)::text", String.class, partition(older)));
+        assertNull(jdbc.queryForObject("select to_regclass(?)::text", String.class, partition(old)));
+        assertEquals(expectedTotals(runs), totals(repo));
+
+        // One maintenance pass creates, rolls up and drops the partition of a stray old run
+        LocalDate stray = today.minusDays(35);
+        insert(jdbc, runs, stray, new Run("B", 400, false, false), 3, 3);
+        ExperimentRunMaintenance.Report report = new ExperimentRunMaintenance(jdbc, maintenanceConfig()).run();
+        assertEquals(List.of(stray), report.rolledUpDays());
+        assertEquals(1, report.rolledUpRuns());
+        assertEquals(1, report.partitionsDropped());
+        assertEquals(expectedTotals(runs), totals(repo));
+    }
+
+    private record Run(String variant, long micros, boolean cached, boolean warmup) {}
+
+    private static void insert(JdbcTemplate jdbc, List<Run> runs, LocalDate day, Run run, int rows, int cols) {
+        jdbc.update("""
+                insert into experiment_run (variant, rows, cols, result, micros, cached, warmup, created_at)
+                values (?, ?, ?, 1, ?, ?, ?, ?)
+                """, run.variant(), rows, cols, run.micros(), run.cached(), run.warmup(),
+                Timestamp.from(day.atTime(10, 0).toInstant(ZoneOffset.UTC)));
+        runs.add(run);
+    }
+
+    /**
+     * Stores a run in the table as Hibernate created it, before V3.
+     */
+    private static void insertLegacy(JdbcTemplate jdbc, String variant) {
+        jdbc.update("insert into experiment_run (variant, rows, cols, result, micros, created_at) values (?, 3, 3, 7, 90, now())",
+                variant);
+    }
+
+    private static boolean createPartition(JdbcTemplate jdbc, LocalDate day) {
+        return jdbc.queryForObject("select experiment_run_create_partition(?)", Boolean.class, Date.valueOf(day));
+    }
+
+    private static Long rollUp(JdbcTemplate jdbc, LocalDate day) {
+        return jdbc.queryForObject("select experiment_run_roll_up(?)", Long.class, Date.valueOf(day));
+    }
+
+    private static String partition(LocalDate day) {
+        return "experiment_run_p" + day.toString().replace("-", "");
+    }
+
+    private static int count(JdbcTemplate jdbc, String table) {
+        return jdbc.queryForObject("select count(*) from " + table, Integer.class);
+    }
+
+    /**
+     * Totals as the summary should report them: every run counted, only solved
+     * runs outside the warm-up timed.
+     */
+    private static Map<String, List<Long>> expectedTotals(List<Run> runs) {
+        Map<String, List<Long>> totals = new TreeMap<>();
+        Map<String, List<Long>> timed = new TreeMap<>();
+        for (Run run : runs) {
+            totals.merge(run.variant(), List.of(1L), (a, b) -> List.of(a.get(0) + 1));
+            if (!run.cached() && !run.warmup()) {
+                timed.computeIfAbsent(run.variant(), v -> new ArrayList<>()).add(run.micros());
+            }
+        }
+        Map<String, List<Long>> expected = new TreeMap<>();
+        totals.forEach((variant, n) -> {
+            List<Long> micros = timed.getOrDefault(variant, List.of());
+            expected.put(variant, Arrays.asList(
+                    n.get(0),
+                    (long) micros.size(),
+                    micros.stream().mapToLong(Long::longValue).sum(),
+                    micros.isEmpty() ? null : micros.stream().mapToLong(Long::longValue).min().getAsLong(),
+                    micros.isEmpty() ? null : micros.stream().mapToLong(Long::longValue).max().getAsLong()));
+        });
+        return expected;
+    }
+
+    private static Map<String, List<Long>> totals(ExperimentRunRepository repo) {
+        Map<String, List<Long>> totals = new TreeMap<>();
+        for (VariantTotals t : repo.totalsByVariant()) {
+            totals.put(t.getVariant(), Arrays.asList(
+                    t.getRuns(), t.getTimedRuns(), t.getSumMicros(), t.getMinMicros(), t.getMaxMicros()));
+        }
+        return totals;
+    }
+
+    private static DataSource dataSource(String schema) {
+        PGSimpleDataSource dataSource = new PGSimpleDataSource();
+        dataSource.setURL(postgres.getJdbcUrl("postgres", "postgres"));
+        dataSource.setCurrentSchema(schema);
+        return dataSource;
+    }
+
+    private static ExperimentRunRepository repository(DataSource dataSource) {
+        LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+        factory.setDataSource(dataSource);
+        factory.setPackagesToScan("com.myprojecticaro.poc_automated_test_a_b.domain.model");
+        factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factory.afterPropertiesSet();
+        return new JpaRepositoryFactory(SharedEntityManagerCreator.createSharedEntityManager(factory.getObject()))
+                .getRepository(ExperimentRunRepository.class);
+    }
+
+    private static AbConfig maintenanceConfig() {
+        AbConfig cfg = new AbConfig();
+        cfg.maintenanceEnabled = false;
+        cfg.maintenancePartitionsAheadDays = 2;
+        cfg.maintenanceRollupDelayMinutes = 0;
+        cfg.maintenanceRawRetentionDays = 30;
+        return cfg;
+    }
+
+    /**
+     * Lets Hibernate create {@code experiment_run} from the baseline entity, as
+     * {@code ddl-auto: update} did before Flyway, and stores two runs.
+     */
+    private static void createWithHibernate(DataSource dataSource) {
+        Configuration configuration = new Configuration()
+                .addAnnotatedClass(BaselineRun.class)
+                .setPhysicalNamingStrategy(new CamelCaseToUnderscoresNamingStrategy())
+                .setProperty(AvailableSettings.HBM2DDL_AUTO, "update");
+        configuration.getProperties().put(AvailableSettings.DATASOURCE, dataSource);
+        try (SessionFactory sessionFactory = configuration.buildSessionFactory()) {
+            sessionFactory.inTransaction(session -> {
+                session.persist(new BaselineRun(BaselineVariant.A, 40));
+                session.persist(new BaselineRun(BaselineVariant.B, 70));
+            });
+        }
+    }
+
+    enum BaselineVariant { A, B }
+
+    /**
+     * The {@code ExperimentRun} entity as released, before this schema was managed by Flyway.
+     */
+    @Entity(name = "BaselineRun")
+    @Table(name = "experiment_run")
+    static class BaselineRun {
+        @Id
+        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        private Long id;
+
+        @Enumerated(EnumType.STRING)
+        @Column(nullable = false)
+        private BaselineVariant variant;
+
+        @Column(nullable = false)
+        private int rows;
+
+        @Column(nullable = false)
+        private int cols;
+
+        @Column(nullable = false)
+        private int result;
+
+        @Column(nullable = false)
+        private long micros;
+
+        @Column(nullable = false)
+        private OffsetDateTime createdAt = OffsetDateTime.now();
+
+        private String clientIp;
+
+        protected BaselineRun() {}
+
+        BaselineRun(BaselineVariant variant, long micros) {
+            this.variant = variant;
+            this.rows = 3;
+            this.cols = 3;
+            this.result = 7;
+            this.micros = micros;
+            this.clientIp = "127.0.0.1";
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.myprojecticaro.poc_automated_test_a_b.infrastructure.repository;
+
+import com.myprojecticaro.poc_automated_test_a_b.domain.model.ExperimentRun;
+import com.myprojecticaro.poc_automated_test_a_b.infrastructure.config.AbConfig;
+import com.myprojecticaro.poc_automated_test_a_b.infrastructure.config.FlywayBootstrap;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.postgresql.ds.PGSimpleDataSource;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.spy;
+
+/**
+ * Runs {@link ExperimentRunWriter} against a real, migrated PostgreSQL, with
+ * the {@link JdbcTemplate} spied on to observe batches and inject failures.
+ */
+class ExperimentRunWriterTest {
+
+    private static EmbeddedPostgres postgres;
+    private static PGSimpleDataSource dataSource;
+
+    private JdbcTemplate jdbc;
+    private final List<List<Long>> batches = Collections.synchronizedList(new ArrayList<>());
+    private ExperimentRunWriter writer;
+
+    @BeforeAll
+    static void start() throws Exception {
+        postgres = EmbeddedPostgres.start();
+        dataSource = new PGSimpleDataSource();
+        dataSource.setURL(postgres.getJdbcUrl("postgres", "postgres"));
+        new FlywayBootstrap().migrate(Flyway.configure().dataSource(dataSource).baselineOnMigrate(true).load());
+    }
+
+    @AfterAll
+    static void stop() throws Exception {
+        postgres.close();
+    }
+
+    @BeforeEach
+    void spyOnBatches() {
+        jdbc = spy(new JdbcTemplate(dataSource));
+        jdbc.execute("truncate experiment_run");
+        doAnswer(inv -> {
+            Collection<ExperimentRun> runs = inv.getArgument(1);
+            batches.add(runs.stream().map(ExperimentRun::getId).toList());
+            return inv.callRealMethod();
+        }).when(jdbc).batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+    }
+
+    @AfterEach
+    void stopWriter() throws InterruptedException {
+        if (writer != null) writer.stop();
+    }
+
+    @Test
+    void flushesQueuedRunsInBatchesInQueueOrder() throws InterruptedException {
+        writer = writer(4, 0);
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            ExperimentRun run = run("A");
+            ids.add(run.getId());
+            writer.write(run);
+        }
+        assertEquals(10, writer.stats().pending());
+
+        // The flusher starts with ten runs waiting and takes them four at a time
+        writer.start();
+        writer.stop();
+
+        assertEquals(List.of(4, 4, 2), batches.stream().map(List::size).toList());
+        assertEquals(ids, batches.stream().flatMap(List::stream).toList());
+        assertEquals(ids, storedIds());
+        assertEquals(new ExperimentRunWriter.Stats(0, 10, 0, 0, 0, 0), writer.stats());
+    }
+
+    @Test
+    void drainsOnShutdownAndInsertsLaterRunsItself() throws InterruptedException {
+        writer = writer(500, 0);
+        writer.start();
+        for (int i = 0; i < 5; i++) writer.write(run("A"));
+
+        writer.stop();
+        assertEquals(5, storedIds().size());
+
+        writer.write(run("B"));
+        assertEquals(6, storedIds().size());
+        ExperimentRunWriter.Stats stats = writer.stats();
+        assertEquals(0, stats.pending());
+        assertEquals(6, stats.written());
+        assertEquals(1, stats.writtenSynchronously());
+    }
+
+    @Test
+    void losesNoRunQueuedWhileTheWriterStops() throws Exception {
+        writer = writer(16, 0);
+        writer.start();
+        int threads = 4;
+        int perThread = 200;
+        CountDownLatch started = new CountDownLatch(threads);
+        List<Future<?>> producers = new ArrayList<>();
+        try (ExecutorService pool = Executors.newFixedThreadPool(threads)) {
+            for (int t = 0; t < threads; t++) {
+                producers.add(pool.submit(() -> {
+                    started.countDown();
+                    for (int i = 0; i < perThread; i++) writer.write(run("A"));
+                }));
+            }
+            started.await();
+            writer.stop();
+            for (Future<?> producer : producers) producer.get();
+        }
+
+        assertEquals(threads * perThread, storedIds().size());
+        assertEquals(0, writer.stats().pending());
+        assertEquals(threads * perThread, writer.stats().written());
+    }
+
+    @Test
+    void splitsABatchAroundARowTheDatabaseRejects() {
+        writer = writer(500, 0);
+        List<ExperimentRun> runs = new ArrayList<>();
+        for (int i = 0; i < 5; i++) runs.add(run(i == 3 ? null : "A"));
+
+        writer.writeAll(runs);
+
+        List<Long> expected = runs.stream().filter(r -> r.getVariant() != null).map(ExperimentRun::getId).toList();
+        assertEquals(expected, storedIds());
+        ExperimentRunWriter.Stats stats = writer.stats();
+        assertEquals(4, stats.written());
+        assertEquals(1, stats.failed());
+        assertEquals(0, stats.retried());
+        // 5 -> 2 + 3, 3 -> 1 + 2, 2 -> 1 + 1
+        assertEquals(3, stats.split());
+    }
+
+    @Test
+    void retriesAFailedBatch() {
+        writer = writer(500, 3);
+        doThrow(new TransientDataAccessResourceException("connection reset"))
+                .doThrow(new TransientDataAccessResourceException("connection reset"))
+                .doCallRealMethod()
+                .when(jdbc).batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        List<ExperimentRun> runs = List.of(run("A"), run("B"), run("C"));
+
+        writer.writeAll(runs);
+
+        assertEquals(runs.stream().map(ExperimentRun::getId).toList(), storedIds());
+        assertEquals(2, writer.stats().retried());
+        assertEquals(0, writer.stats().failed());
+    }
+
+    @Test
+    void countsTheRunsOfABatchThatKeepsFailing() {
+        writer = writer(500, 2);
+        doThrow(new TransientDataAccessResourceException("database is down"))
+                .when(jdbc).batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+
+        writer.writeAll(List.of(run("A"), run("B"), run("C")));
+
+        ExperimentRunWriter.Stats stats = writer.stats();
+        assertEquals(2, stats.retried());
+        assertEquals(3, stats.failed());
+        assertEquals(0, stats.written());
+    }
+
+    private ExperimentRun run(String variant) {
+        return new ExperimentRun(writer.nextId(), variant, 3, 3, 7, 12, false, false, "127.0.0.1");
+    }
+
+    private List<Long> storedIds() {
+        return new JdbcTemplate(dataSource).queryForList("select id from experiment_run order by id", Long.class);
+    }
+
+    private ExperimentRunWriter writer(int batchSize, int retries) {
+        AbConfig cfg = new AbConfig();
+        cfg.persistenceQueueCapacity = 100;
+        cfg.persistenceBatchSize = batchSize;
+        cfg.persistenceFlushIntervalMs = 20;
+        cfg.persistenceOfferTimeoutMs = 50;
+        cfg.persistenceIdBlockSize = 50;
+        cfg.persistenceRetries = retries;
+        cfg.persistenceRetryBackoffMs = 1;
+        return new ExperimentRunWriter(jdbc, cfg);
+    }
+}
@@ -0,0 +1,78 @@
+package com.myprojecticaro.poc_automated_test_a_b.infrastructure.service;
+
+import com.myprojecticaro.poc_automated_test_a_b.domain.IncrementalDungeon;
+import com.myprojecticaro.poc_automated_test_a_b.infrastructure.config.AbConfig;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DungeonSessionsTest {
+
+    private static final long SESSION_BYTES = IncrementalDungeon.bytesFor(100, 100);
+
+    @Test
+    void editsAreAppliedToTheSession() {
+        DungeonSessions sessions = sessions(1);
+        DungeonSessions.State opened = sessions.create(new int[][]{{-2, -3, 3}, {-5, -10, 1}, {10, 30, -5}});
+        assertEquals(7, opened.result());
+
+        DungeonSessions.State edited = sessions.update(opened.id(), new int[]{1}, new int[]{1}, new int[]{0}).orElseThrow();
+
+        assertEquals(6, edited.result());
+        assertEquals(1, edited.version());
+        assertEquals(edited.result(), sessions.get(opened.id()).orElseThrow().result());
+        assertTrue(sessions.close(opened.id()));
+        assertTrue(sessions.get(opened.id()).isEmpty());
+        assertEquals(0, sessions.stats().memoryBytes());
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedSessionToMakeRoom() {
+        DungeonSessions sessions = sessions(1);
+        int fit = (int) ((1 << 20) / SESSION_BYTES);
+        String[] ids = new String[fit];
+        for (int i = 0; i < fit; i++) {
+            ids[i] = sessions.create(new int[100][100]).id();
+        }
+        // Touch the oldest so that the second oldest is the least recently used
+        sessions.get(ids[0]);
+
+        sessions.create(new int[100][100]);
+
+        assertTrue(sessions.get(ids[0]).isPresent());
+        assertTrue(sessions.get(ids[1]).isEmpty());
+        assertEquals(1, sessions.stats().evictedBudget());
+        assertEquals(fit, sessions.stats().sessions());
+    }
+
+    @Test
+    void rejectsDungeonsLargerThanTheWholeBudget() {
+        DungeonSessions sessions = sessions(1);
+
+        assertThrows(IllegalStateException.class, () -> sessions.create(new int[400][400]));
+        assertEquals(0, sessions.stats().memoryBytes());
+    }
+
+    @Test
+    void failsFastWhenOnlySessionsBeingCreatedHoldTheBudget() {
+        DungeonSessions sessions = sessions(1);
+        // A creation that has reserved its room but not stored its session yet
+        sessions.makeRoom((1 << 20) - SESSION_BYTES / 2);
+
+        DungeonSessions.BusyException e = assertThrows(DungeonSessions.BusyException.class,
+                () -> sessions.create(new int[100][100]));
+
+        assertEquals(1, e.retryAfterSeconds());
+        assertEquals((1 << 20) - SESSION_BYTES / 2, sessions.stats().memoryBytes());
+        assertEquals(0, sessions.stats().sessions());
+    }
+
+    private static DungeonSessions sessions(long budgetMb) {
+        AbConfig cfg = new AbConfig();
+        cfg.sessionsIdleTimeoutMs = 600_000;
+        cfg.sessionsMemoryBudgetMb = budgetMb;
+        return new DungeonSessions(cfg);
+    }
+}
@@ -0,0 +1,189 @@
+package com.myprojecticaro.poc_automated_test_a_b.infrastructure.service;
+
+import com.myprojecticaro.poc_automated_test_a_b.domain.solver.DungeonInput;
+import com.myprojecticaro.poc_automated_test_a_b.domain.solver.DungeonSolver;
+import com.myprojecticaro.poc_automated_test_a_b.infrastructure.config.AbConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToIntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ShadowRunnerTest {
+
+    private static final int[][] DUNGEON = {{-2, -3, 3}, {-5, -10, 1}, {10, 30, -5}};
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private ShadowRunner shadow;
+
+    @AfterEach
+    void stop() {
+        release.countDown();
+        if (shadow != null) shadow.stop();
+    }
+
+    @Test
+    void flagsAVariantThatDisagreesWithTheServedResult() throws InterruptedException {
+        shadow = shadow(List.of(solver("A", d -> 7), solver("X", d -> 8)), "A,X", 1, 8);
+
+        shadow.offer(DungeonInput.of(DUNGEON), "A", 7);
+        awaitCompleted(1);
+
+        ShadowRunner.Stats stats = shadow.stats();
+        assertEquals(1, stats.sampled());
+        assertEquals(1, stats.mismatches());
+        ShadowRunner.Pair pair = pair(stats, "A", "X");
+        assertEquals(1, pair.comparisons());
+        assertEquals(1, pair.mismatches());
+        assertEquals(1, pair.timedComparisons());
+        ShadowRunner.Mismatch mismatch = stats.recent().getFirst();
+        assertEquals("X", mismatch.candidate());
+        assertEquals(8, mismatch.candidateResult());
+        assertEquals(7, mismatch.servedResult());
+        assertNull(mismatch.error());
+    }
+
+    @Test
+    void agreeingVariantsAreNotMismatches() throws InterruptedException {
+        shadow = shadow(List.of(solver("A", d -> 7), solver("B", d -> 7)), "A,B", 1, 8);
+
+        shadow.offer(DungeonInput.of(DUNGEON), "A", 7);
+        shadow.offer(DungeonInput.of(DUNGEON), "B", 7);
+        awaitCompleted(2);
+
+        ShadowRunner.Stats stats = shadow.stats();
+        assertEquals(0, stats.mismatches());
+        assertEquals(1, pair(stats, "A", "B").comparisons());
+        assertEquals(1, pair(stats, "B", "A").comparisons());
+        assertTrue(stats.recent().isEmpty());
+    }
+
+    @Test
+    void failedSolvesAreMismatchesButAddNoLatency() throws InterruptedException {
+        DungeonSolver slow = solver("A", d -> {
+            sleep(5);
+            return 7;
+        });
+        // Fails on single-row grids only
+        DungeonSolver flaky = solver("Y", d -> {
+            if (d.rows() == 1) throw new IllegalStateException("boom");
+            return 7;
+        });
+        shadow = shadow(List.of(slow, flaky), "A,Y", 1, 8);
+
+        shadow.offer(DungeonInput.of(DUNGEON), "A", 7);
+        shadow.offer(DungeonInput.of(new int[][]{{5, -3}}), "A", 7);
+        awaitCompleted(2);
+
+        ShadowRunner.Stats stats = shadow.stats();
+        ShadowRunner.Pair pair = pair(stats, "A", "Y");
+        assertEquals(2, pair.comparisons());
+        assertEquals(1, pair.mismatches());
+        assertEquals(1, pair.timedComparisons());
+        // The mean is over the one grid both solved, not halved by the failure
+        assertTrue(pair.meanServedMicros() >= 5_000, "mean served micros " + pair.meanServedMicros());
+        assertEquals("boom", stats.recent().getFirst().error());
+        assertNull(stats.recent().getFirst().candidateResult());
+    }
+
+    @Test
+    void dropsSamplesWhileThePoolIsSaturated() throws InterruptedException {
+        DungeonSolver blocking = solver("A", d -> {
+            await(release);
+            return 7;
+        });
+        shadow = shadow(List.of(blocking, solver("B", d -> 7)), "A,B", 1, 1);
+
+        // One sample runs and blocks, one waits in the queue, the rest are dropped
+        for (int i = 0; i < 5; i++) {
+            shadow.offer(DungeonInput.of(DUNGEON), "B", 7);
+        }
+
+        assertEquals(2, shadow.stats().sampled());
+        assertEquals(3, shadow.stats().dropped());
+        release.countDown();
+        awaitCompleted(2);
+        assertEquals(0, shadow.stats().mismatches());
+    }
+
+    @Test
+    void skipsGridsAtOrAboveMaxCells() {
+        shadow = shadow(List.of(solver("A", d -> 7), solver("B", d -> 7)), "A,B", 1, 8);
+
+        shadow.offer(DungeonInput.of(new int[10][10]), "A", 7);
+
+        assertEquals(0, shadow.stats().sampled());
+        assertEquals(0, shadow.stats().dropped());
+    }
+
+    private void awaitCompleted(long completed) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (shadow.stats().completed() < completed && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(completed, shadow.stats().completed());
+    }
+
+    private static ShadowRunner.Pair pair(ShadowRunner.Stats stats, String served, String candidate) {
+        return stats.pairs().stream()
+                .filter(p -> p.served().equals(served) && p.candidate().equals(candidate))
+                .findFirst().orElseThrow();
+    }
+
+    private static ShadowRunner shadow(List<DungeonSolver> solvers, String variants, int threads, int queueCapacity) {
+        AbConfig cfg = new AbConfig();
+        cfg.shadowEnabled = true;
+        cfg.shadowSampleRate = 1;
+        cfg.shadowVariants = variants;
+        cfg.shadowMaxCells = 100;
+        cfg.shadowThreads = threads;
+        cfg.shadowQueueCapacity = queueCapacity;
+        return new ShadowRunner(new SolverRegistry(solvers), cfg);
+    }
+
+    private static DungeonSolver solver(String name, ToIntFunction<DungeonInput> solve) {
+        return new DungeonSolver() {
+            @Override
+            public String name() {
+                return name;
+            }
+
+            @Override
+            public Layout layout() {
+                return Layout.ARRAY;
+            }
+
+            @Override
+            public int solve(DungeonInput dungeon) {
+                return solve.applyAsInt(dungeon);
+            }
+
+            @Override
+            public long workingSetBytes(int rows, int cols) {
+                return 0;
+            }
+        };
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
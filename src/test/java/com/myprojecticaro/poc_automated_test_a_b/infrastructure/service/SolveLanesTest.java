@@ -0,0 +1,170 @@
+package com.myprojecticaro.poc_automated_test_a_b.infrastructure.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.myprojecticaro.poc_automated_test_a_b.application.controller.DungeonController;
+import com.myprojecticaro.poc_automated_test_a_b.infrastructure.config.AbConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class SolveLanesTest {
+
+    private static final long MB = 1 << 20;
+    private static final long LARGE = 1_000;
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private SolveLanes lanes;
+
+    @AfterEach
+    void stop() {
+        release.countDown();
+        if (lanes != null) lanes.stop();
+    }
+
+    @Test
+    void smallTasksRunOnTheCallingThread() {
+        lanes = lanes(1, 1, 1);
+        Thread caller = Thread.currentThread();
+
+        CompletableFuture<Thread> ran = lanes.submit(LARGE - 1, Long.MAX_VALUE, Thread::currentThread);
+
+        assertTrue(ran.isDone());
+        assertSame(caller, ran.join());
+        assertEquals(1, stats(SolveLanes.Lane.SMALL).completed());
+    }
+
+    @Test
+    void taskAboveTheWholeBudgetIsTooLarge() {
+        lanes = lanes(1, 1, 10);
+
+        SolveLanes.RejectedException e = assertThrows(SolveLanes.RejectedException.class,
+                () -> lanes.submit(LARGE, 10 * MB + 1, () -> 0));
+
+        assertEquals(SolveLanes.Reason.TOO_LARGE, e.reason());
+        assertEquals(0, e.retryAfterSeconds());
+        assertResponse(e, HttpStatus.PAYLOAD_TOO_LARGE, null);
+    }
+
+    @Test
+    void taskBeyondTheRemainingBudgetIsRejectedUntilMemoryIsReturned() throws Exception {
+        lanes = lanes(2, 4, 10);
+        CompletableFuture<Integer> running = lanes.submit(LARGE, 8 * MB, this::blockUntilReleased);
+
+        SolveLanes.RejectedException e = assertThrows(SolveLanes.RejectedException.class,
+                () -> lanes.submit(LARGE, 4 * MB, () -> 0));
+
+        assertEquals(SolveLanes.Reason.MEMORY_BUDGET, e.reason());
+        assertTrue(e.retryAfterSeconds() >= 1);
+        assertResponse(e, HttpStatus.SERVICE_UNAVAILABLE, e.retryAfterSeconds());
+        assertEquals(8 * MB, stats(SolveLanes.Lane.LARGE).memoryReservedBytes());
+
+        release.countDown();
+        running.get(10, TimeUnit.SECONDS);
+        awaitReservedBytes(0);
+        assertEquals(4, lanes.submit(LARGE, 4 * MB, () -> 4).get(10, TimeUnit.SECONDS));
+        awaitReservedBytes(0);
+    }
+
+    @Test
+    void taskBeyondTheQueueIsRejectedAndReturnsItsReservation() throws Exception {
+        lanes = lanes(1, 1, 10);
+        CompletableFuture<Integer> running = lanes.submit(LARGE, MB, this::blockUntilReleased);
+        awaitActive(1);
+        CompletableFuture<Integer> queued = lanes.submit(LARGE, MB, () -> 2);
+
+        SolveLanes.RejectedException e = assertThrows(SolveLanes.RejectedException.class,
+                () -> lanes.submit(LARGE, MB, () -> 3));
+
+        assertEquals(SolveLanes.Reason.QUEUE_FULL, e.reason());
+        assertTrue(e.retryAfterSeconds() >= 1);
+        assertResponse(e, HttpStatus.TOO_MANY_REQUESTS, e.retryAfterSeconds());
+        SolveLanes.Stats large = stats(SolveLanes.Lane.LARGE);
+        assertEquals(2 * MB, large.memoryReservedBytes());
+        assertEquals(2, large.admitted());
+        assertEquals(1, large.rejected());
+
+        release.countDown();
+        assertEquals(1, running.get(10, TimeUnit.SECONDS));
+        assertEquals(2, queued.get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void failingLargeTaskCompletesItsFutureAndReturnsItsReservation() throws Exception {
+        lanes = lanes(1, 1, 10);
+
+        CompletableFuture<Integer> failed = lanes.submit(LARGE, MB, () -> {
+            throw new IllegalStateException("boom");
+        });
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> failed.get(10, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof IllegalStateException);
+        awaitReservedBytes(0);
+    }
+
+    private int blockUntilReleased() {
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return 1;
+    }
+
+    private SolveLanes.Stats stats(SolveLanes.Lane lane) {
+        return lanes.stats().stream().filter(s -> s.lane() == lane).findFirst().orElseThrow();
+    }
+
+    private void awaitActive(int active) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (stats(SolveLanes.Lane.LARGE).active() != active && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(active, stats(SolveLanes.Lane.LARGE).active());
+    }
+
+    /**
+     * The reservation is returned after the future completes, so wait for it.
+     */
+    private void awaitReservedBytes(long bytes) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (stats(SolveLanes.Lane.LARGE).memoryReservedBytes() != bytes && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(bytes, stats(SolveLanes.Lane.LARGE).memoryReservedBytes());
+    }
+
+    private static void assertResponse(SolveLanes.RejectedException e, HttpStatus status, Long retryAfterSeconds) {
+        DungeonController controller = new DungeonController(mock(ExperimentService.class),
+                mock(ExperimentRunMaintenance.class), new ObjectMapper(), new AbConfig());
+
+        ResponseEntity<ProblemDetail> response = controller.rejected(e);
+
+        assertEquals(status.value(), response.getStatusCode().value());
+        assertEquals(retryAfterSeconds == null ? null : retryAfterSeconds.toString(),
+                response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals(status.value(), response.getBody().getStatus());
+    }
+
+    private static SolveLanes lanes(int concurrency, int queueCapacity, long budgetMb) {
+        AbConfig cfg = new AbConfig();
+        cfg.admissionLargeCells = LARGE;
+        cfg.admissionLargeConcurrency = concurrency;
+        cfg.admissionLargeQueueCapacity = queueCapacity;
+        cfg.admissionLargeMemoryBudgetMb = budgetMb;
+        return new SolveLanes(cfg);
+    }
+}
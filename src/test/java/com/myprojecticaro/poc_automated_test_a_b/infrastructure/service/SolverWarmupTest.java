@@ -0,0 +1,108 @@
+package com.myprojecticaro.poc_automated_test_a_b.infrastructure.service;
+
+import com.myprojecticaro.poc_automated_test_a_b.application.controller.ProbeController;
+import com.myprojecticaro.poc_automated_test_a_b.domain.solver.DungeonInput;
+import com.myprojecticaro.poc_automated_test_a_b.domain.solver.DungeonSolver;
+import com.myprojecticaro.poc_automated_test_a_b.infrastructure.config.AbConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.availability.ApplicationAvailabilityBean;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Starts a minimal Spring Boot application whose only runner is the warm-up,
+ * with a solver that blocks, to check what the probes report meanwhile.
+ */
+class SolverWarmupTest {
+
+    private static final CountDownLatch SOLVING = new CountDownLatch(1);
+    private static final CountDownLatch RELEASE = new CountDownLatch(1);
+
+    @Configuration
+    @Import({AbConfig.class, SolverWarmup.class, ProbeController.class, ApplicationAvailabilityBean.class})
+    static class WarmupApplication {
+
+        @Bean
+        SolverRegistry solverRegistry() {
+            return new SolverRegistry(List.of(blocking()));
+        }
+    }
+
+    @Test
+    void readinessStaysRefusedUntilTheWarmUpReturns() throws Exception {
+        // ApplicationStartedEvent comes after the refresh and before the runners
+        CompletableFuture<ConfigurableApplicationContext> refreshed = new CompletableFuture<>();
+        CompletableFuture<ConfigurableApplicationContext> startup = CompletableFuture.supplyAsync(() ->
+                new SpringApplicationBuilder(WarmupApplication.class)
+                        .web(WebApplicationType.NONE)
+                        .bannerMode(Banner.Mode.OFF)
+                        .listeners((ApplicationListener<ApplicationStartedEvent>) e -> refreshed.complete(e.getApplicationContext()))
+                        // Arguments, as default properties would lose to application.yaml
+                        .run("--ab.warmup.enabled=true", "--ab.warmup.rounds=1", "--ab.warmup.max-cells=16"));
+        try {
+            assertTrue(SOLVING.await(30, TimeUnit.SECONDS), "warm-up did not start");
+            assertFalse(startup.isDone());
+            ConfigurableApplicationContext context = refreshed.get(30, TimeUnit.SECONDS);
+            ProbeController probes = context.getBean(ProbeController.class);
+            assertTrue(context.getBean(SolverWarmup.class).isWarmingUp());
+            assertEquals(HttpStatus.SERVICE_UNAVAILABLE, probes.ready().getStatusCode());
+            assertEquals("REFUSING_TRAFFIC", probes.ready().getBody());
+            assertEquals(HttpStatus.OK, probes.live().getStatusCode());
+
+            RELEASE.countDown();
+            try (ConfigurableApplicationContext started = startup.get(30, TimeUnit.SECONDS)) {
+                assertFalse(started.getBean(SolverWarmup.class).isWarmingUp());
+                assertEquals(HttpStatus.OK, started.getBean(ProbeController.class).ready().getStatusCode());
+            }
+        } finally {
+            RELEASE.countDown();
+        }
+    }
+
+    private static DungeonSolver blocking() {
+        return new DungeonSolver() {
+            @Override
+            public String name() {
+                return "A";
+            }
+
+            @Override
+            public Layout layout() {
+                return Layout.ARRAY;
+            }
+
+            @Override
+            public int solve(DungeonInput dungeon) {
+                SOLVING.countDown();
+                try {
+                    RELEASE.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return 0;
+            }
+
+            @Override
+            public long workingSetBytes(int rows, int cols) {
+                return 0;
+            }
+        };
+    }
+}
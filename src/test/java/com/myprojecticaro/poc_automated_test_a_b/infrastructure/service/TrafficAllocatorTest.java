@@ -0,0 +1,229 @@
+package com.myprojecticaro.poc_automated_test_a_b.infrastructure.service;
+
+import com.myprojecticaro.poc_automated_test_a_b.domain.solver.DungeonInput;
+import com.myprojecticaro.poc_automated_test_a_b.domain.solver.DungeonSolver;
+import com.myprojecticaro.poc_automated_test_a_b.infrastructure.config.AbConfig;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TrafficAllocatorTest {
+
+    private static final SolverRegistry REGISTRY = new SolverRegistry(List.of(stub("A"), stub("B"), stub("C")));
+
+    @Test
+    void fixedSplitIsStickyPerSubject() {
+        TrafficAllocator allocator = fixed("A:50,B:30,C:20", "exp-1");
+        TrafficAllocator restarted = fixed("A:50,B:30,C:20", "exp-1");
+
+        for (int i = 0; i < 1_000; i++) {
+            String subject = "10.0." + (i / 256) + "." + (i % 256);
+            String first = allocator.choose(10, 10, subject);
+            // Neither the grid size nor a restart may move a subject
+            assertEquals(first, allocator.choose(1000, 1000, subject), subject);
+            assertEquals(first, restarted.choose(10, 10, subject), subject);
+        }
+    }
+
+    @Test
+    void fixedSplitFollowsTheWeights() {
+        TrafficAllocator allocator = fixed("A:50,B:30,C:20", "exp-1");
+
+        Map<String, Long> served = choose(allocator, 10, 10, 30_000, i -> "user-" + i);
+
+        assertEquals(0.5, served.get("A") / 30_000.0, 0.02);
+        assertEquals(0.3, served.get("B") / 30_000.0, 0.02);
+        assertEquals(0.2, served.get("C") / 30_000.0, 0.02);
+    }
+
+    @Test
+    void newSaltReshufflesSubjects() {
+        TrafficAllocator before = fixed("A,B", "exp-1");
+        TrafficAllocator after = fixed("A,B", "exp-2");
+
+        long moved = IntStream.range(0, 10_000)
+                .mapToObj(i -> "user-" + i)
+                .filter(subject -> !before.choose(10, 10, subject).equals(after.choose(10, 10, subject)))
+                .count();
+
+        // Independent assignments disagree for about half of the subjects
+        assertEquals(0.5, moved / 10_000.0, 0.03);
+    }
+
+    @Test
+    void fixedSplitIgnoresObservationsAndHasNoBanditState() {
+        TrafficAllocator allocator = fixed("A,B", "exp-1");
+        String served = allocator.choose(10, 10, null);
+        allocator.observe("A", 10, 10, 100);
+
+        assertEquals(served, allocator.choose(10, 10, null));
+        assertEquals(served, allocator.choose(10, 10, ""));
+        assertTrue(allocator.state().isEmpty());
+    }
+
+    @Test
+    void mapsTheLegacySplitOntoTwoArms() {
+        TrafficAllocator allocator = legacy(70, TrafficAllocator.DEFAULT_ARMS);
+
+        Map<String, Long> served = choose(allocator, 10, 10, 30_000, i -> "user-" + i);
+
+        assertEquals(Set.of("A", "B"), served.keySet());
+        assertEquals(0.7, served.get("A") / 30_000.0, 0.02);
+        assertEquals(Set.of("A"), choose(legacy(100, TrafficAllocator.DEFAULT_ARMS), 10, 10, 1_000).keySet());
+        assertEquals(Set.of("B"), choose(legacy(0, TrafficAllocator.DEFAULT_ARMS), 10, 10, 1_000).keySet());
+    }
+
+    @Test
+    void refusesTheLegacySplitOutOfRangeOrNextToConfiguredArms() {
+        IllegalArgumentException combined = assertThrows(IllegalArgumentException.class, () -> legacy(70, "A:50,C:50"));
+        assertTrue(combined.getMessage().contains("ab.allocation.arms=A:70,B:30"), combined.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> legacy(101, TrafficAllocator.DEFAULT_ARMS));
+        assertThrows(IllegalArgumentException.class, () -> legacy(-1, TrafficAllocator.DEFAULT_ARMS));
+    }
+
+    @Test
+    void exploresUndersampledArmsFirst() {
+        TrafficAllocator allocator = bandit("A,B,C", 5, 0.05);
+        observe(allocator, "A", 10, 10, 5, 100);
+
+        Map<String, Long> served = choose(allocator, 10, 10, 3_000);
+
+        assertEquals(Set.of("B", "C"), served.keySet());
+        TrafficAllocator.BucketState small = allocator.state().get(0);
+        assertEquals(1.0, small.epsilon());
+        assertEquals(List.of(0.0, 0.5, 0.5), small.arms().stream().map(TrafficAllocator.ArmState::share).toList());
+    }
+
+    @Test
+    void exploitsTheFastestArmOnceEveryArmIsSampled() {
+        TrafficAllocator allocator = bandit("A,B", 5, 0.0);
+        observe(allocator, "A", 10, 10, 10_000, 100);
+        observe(allocator, "B", 10, 10, 10_000, 300);
+
+        TrafficAllocator.BucketState small = allocator.state().get(0);
+        // 1 / sqrt(1 + 20000 / 100)
+        double epsilon = 1 / Math.sqrt(201);
+        assertEquals(epsilon, small.epsilon(), 1e-12);
+        assertEquals("A", small.leader());
+        assertEquals(1 - epsilon / 2, small.arms().get(0).share(), 1e-12);
+        assertEquals(epsilon / 2, small.arms().get(1).share(), 1e-12);
+
+        Map<String, Long> served = choose(allocator, 10, 10, 20_000);
+        double fastestShare = served.get("A") / 20_000.0;
+        assertTrue(Math.abs(fastestShare - (1 - epsilon / 2)) < 0.01, "A served " + fastestShare);
+    }
+
+    @Test
+    void neverExploresLessThanTheFloor() {
+        TrafficAllocator allocator = bandit("A,B", 1, 0.5);
+        observe(allocator, "A", 10, 10, 100_000, 100);
+        observe(allocator, "B", 10, 10, 100_000, 300);
+
+        TrafficAllocator.BucketState small = allocator.state().get(0);
+
+        assertEquals(0.5, small.epsilon());
+        assertEquals(0.75, small.arms().get(0).share());
+        assertEquals(0.25, small.arms().get(1).share());
+    }
+
+    @Test
+    void keepsSizeBucketsApart() {
+        TrafficAllocator allocator = bandit("A,B", 5, 0.05);
+        observe(allocator, "A", 10, 10, 1_000, 100);
+        observe(allocator, "B", 10, 10, 1_000, 300);
+        // Only A has been measured on 1000 x 1000 grids, and it was slow there
+        observe(allocator, "A", 1000, 1000, 5, 90_000);
+
+        assertEquals(Set.of("B"), choose(allocator, 1000, 1000, 1_000).keySet());
+        TrafficAllocator.BucketState large = allocator.state().get(LatencyHistograms.sizeBucketOf(1_000_000));
+        assertEquals(1.0, large.epsilon());
+        assertEquals("A", allocator.state().get(0).leader());
+    }
+
+    @Test
+    void ignoresObservationsOfUnknownVariants() {
+        TrafficAllocator allocator = bandit("A,B", 1, 0.05);
+        observe(allocator, "C", 10, 10, 100, 1);
+        observe(allocator, "F", 10, 10, 100, 1);
+
+        assertTrue(allocator.state().get(0).arms().stream().allMatch(a -> a.samples() == 0));
+    }
+
+    static TrafficAllocator fixed(String arms, String salt) {
+        AbConfig cfg = new AbConfig();
+        cfg.allocationMode = "fixed";
+        cfg.allocationSalt = salt;
+        cfg.allocationArms = arms;
+        return new TrafficAllocator(REGISTRY, cfg);
+    }
+
+    private static TrafficAllocator legacy(int splitA, String arms) {
+        AbConfig cfg = new AbConfig();
+        cfg.allocationMode = "fixed";
+        cfg.allocationSalt = "exp-1";
+        cfg.allocationArms = arms;
+        cfg.splitA = splitA;
+        return new TrafficAllocator(REGISTRY, cfg);
+    }
+
+    static TrafficAllocator bandit(String arms, long minSamples, double minExploration) {
+        AbConfig cfg = new AbConfig();
+        cfg.allocationMode = "epsilon-greedy";
+        cfg.allocationSalt = "test";
+        cfg.allocationArms = arms;
+        cfg.allocationMinSamples = minSamples;
+        cfg.allocationMinExploration = minExploration;
+        return new TrafficAllocator(REGISTRY, cfg);
+    }
+
+    static Map<String, Long> choose(TrafficAllocator allocator, int rows, int cols, int requests) {
+        return choose(allocator, rows, cols, requests, i -> "10.0.0." + (i % 256));
+    }
+
+    static Map<String, Long> choose(TrafficAllocator allocator, int rows, int cols, int requests,
+                                    IntFunction<String> subject) {
+        return IntStream.range(0, requests)
+                .mapToObj(i -> allocator.choose(rows, cols, subject.apply(i)))
+                .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+    }
+
+    private static void observe(TrafficAllocator allocator, String variant, int rows, int cols, int times, long micros) {
+        for (int i = 0; i < times; i++) {
+            allocator.observe(variant, rows, cols, micros);
+        }
+    }
+
+    static DungeonSolver stub(String name) {
+        return new DungeonSolver() {
+            @Override
+            public String name() {
+                return name;
+            }
+
+            @Override
+            public Layout layout() {
+                return Layout.ARRAY;
+            }
+
+            @Override
+            public int solve(DungeonInput dungeon) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public long workingSetBytes(int rows, int cols) {
+                return 0;
+            }
+        };
+    }
+}